@@ -7,6 +7,7 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.RSAKeyProvider;
 import com.google.gson.*;
+import io.supertokens.ActiveUsers;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.cronjobs.Cronjobs;
@@ -20,7 +21,6 @@ import io.supertokens.httpRequest.HttpRequest;
 import io.supertokens.httpRequest.HttpResponseException;
 import io.supertokens.multitenancy.Multitenancy;
 import io.supertokens.output.Logging;
-import io.supertokens.pluginInterface.ActiveUsersStorage;
 import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.Storage;
@@ -35,8 +35,8 @@ import io.supertokens.pluginInterface.multitenancy.ThirdPartyConfig;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
 import io.supertokens.pluginInterface.oauth.OAuthStorage;
 import io.supertokens.pluginInterface.saml.SAMLStorage;
-import io.supertokens.pluginInterface.session.sqlStorage.SessionSQLStorage;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.utils.Utils;
 import io.supertokens.version.Version;
 import org.jetbrains.annotations.TestOnly;
@@ -200,37 +200,16 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
     }
 
     private JsonObject getMFAStats() throws StorageQueryException, TenantOrAppNotFoundException {
-        // TODO: Active users are present only on public tenant and MFA users may be
-        // present on different storages
+        UsageStats usageStats = UsageStats.getInstance(main, this.appIdentifier);
         JsonObject result = new JsonObject();
-
-        // Commenting out these stats for now as they are very CPU intensive and reduces the performance
-        // of other API calls while this is running.
-        // Also, we are not currently using these stats.
-
-        // Storage[] storages = StorageLayer.getStoragesForApp(main, this.appIdentifier);
-
-        // int totalUserCountWithMoreThanOneLoginMethod = 0;
-        // int[] maus = new int[31];
-
-        // long now = System.currentTimeMillis();
-
-        // for (Storage storage : storages) {
-        //     totalUserCountWithMoreThanOneLoginMethod += ((AuthRecipeStorage) storage)
-        //             .getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled(this.appIdentifier);
-
-        //     for (int i = 1; i <= 31; i++) {
-        //         long timestamp = now - (i * 24 * 60 * 60 * 1000L);
-
-        //         // `maus[i-1]` since i starts from 1
-        //         maus[i - 1] += ((ActiveUsersStorage) storage)
-        //                 .countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSince(appIdentifier, timestamp);
-        //     }
-        // }
-
-        // result.addProperty("totalUserCountWithMoreThanOneLoginMethodOrTOTPEnabled",
-        //         totalUserCountWithMoreThanOneLoginMethod);
-        // result.add("mauWithMoreThanOneLoginMethodOrTOTPEnabled", new Gson().toJsonTree(maus));
+        result.addProperty("totalUserCountWithMoreThanOneLoginMethodOrTOTPEnabled",
+                usageStats.getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled());
+        // counting these per day on every call was too CPU intensive for storages that can't count them with one
+        // grouped query, so for those they are left out until the ReconcileUsageStats cron has counted them
+        int[] maus = usageStats.getMauWithMoreThanOneLoginMethodOrTOTPEnabled(main, this.appIdentifier);
+        if (maus != null) {
+            result.add("mauWithMoreThanOneLoginMethodOrTOTPEnabled", new Gson().toJsonTree(maus));
+        }
         return result;
     }
 
@@ -243,6 +222,7 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
 
         JsonArray tenantStats = new JsonArray();
 
+        UsageStats usageStats = UsageStats.getInstance(main, this.appIdentifier);
         TenantConfig[] tenantConfigs = Multitenancy.getAllTenantsForApp(this.appIdentifier, main);
         for (TenantConfig tenantConfig : tenantConfigs) {
             JsonObject tenantStat = new JsonObject();
@@ -250,10 +230,9 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
 
             {
                 Storage storage = StorageLayer.getStorage(tenantConfig.tenantIdentifier, main);
-                long usersCount = ((AuthRecipeStorage) storage).getUsersCount(tenantConfig.tenantIdentifier, null);
-                boolean hasUsersOrSessions = (usersCount > 0);
-                hasUsersOrSessions = hasUsersOrSessions ||
-                        ((SessionSQLStorage) storage).getNumberOfSessions(tenantConfig.tenantIdentifier) > 0;
+                String tenantId = tenantConfig.tenantIdentifier.getTenantId();
+                long usersCount = usageStats.getUsersCount(tenantId);
+                boolean hasUsersOrSessions = usersCount > 0 || usageStats.getSessionsCount(tenantId) > 0;
                 tenantStat.addProperty("usersCount", usersCount);
                 tenantStat.addProperty("hasUsersOrSessions", hasUsersOrSessions);
                 if (tenantConfig.firstFactors != null) {
@@ -375,13 +354,9 @@ public class EEFeatureFlag implements io.supertokens.featureflag.EEFeatureFlagIn
 
     private JsonArray getMAUs() throws StorageQueryException, TenantOrAppNotFoundException {
         JsonArray mauArr = new JsonArray();
-        long now = System.currentTimeMillis();
-
-        for (int i = 1; i <= 31; i++) {
-            long timestamp = now - (i * 24 * 60 * 60 * 1000L);
-            ActiveUsersStorage activeUsersStorage = (ActiveUsersStorage) StorageLayer.getStorage(
-                    this.appIdentifier.getAsPublicTenantIdentifier(), main);
-            int mau = activeUsersStorage.countUsersActiveSince(this.appIdentifier, timestamp);
+        int[] maus = ActiveUsers.countUsersActiveSinceEachOfLastDays(main, this.appIdentifier,
+                System.currentTimeMillis(), 31);
+        for (int mau : maus) {
             mauArr.add(new JsonPrimitive(mau));
         }
         return mauArr;
@@ -1,6 +1,7 @@
 package io.supertokens;
 
 import io.supertokens.pluginInterface.ActiveUsersSQLStorage;
+import io.supertokens.pluginInterface.ActiveUsersStorage;
 import io.supertokens.pluginInterface.Storage;
 import io.supertokens.pluginInterface.StorageUtils;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
@@ -10,15 +11,21 @@ import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoun
 import io.supertokens.storageLayer.StorageLayer;
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class ActiveUsers {
 
+    // Every authenticated request updates the last active time of the user. Instead of writing to the db each time,
+    // we remember which users were active and write them all in FlushActiveUsers, which runs every few seconds. A
+    // user that makes many requests within that window results in just one write.
     public static void updateLastActive(AppIdentifier appIdentifier, Main main, String userId)
             throws TenantOrAppNotFoundException {
-        Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
-        try {
-            StorageUtils.getActiveUsersStorage(storage).updateLastActive(appIdentifier, userId);
-        } catch (StorageQueryException ignored) {
-        }
+        getPendingUpdates(main, appIdentifier).userIds.add(userId);
     }
 
     @TestOnly
@@ -31,12 +38,176 @@ public class ActiveUsers {
         }
     }
 
+    public static void flushLastActiveUpdates(Main main, AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        PendingUpdates pendingUpdates;
+        try {
+            pendingUpdates = (PendingUpdates) main.getResourceDistributor()
+                    .getResource(appIdentifier, PendingUpdates.RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            // nothing was buffered for this app
+            return;
+        }
+        flushLastActiveUpdates(main, appIdentifier, pendingUpdates);
+    }
+
+    public static void flushAllLastActiveUpdates(Main main) {
+        Map<ResourceDistributor.KeyClass, ResourceDistributor.SingletonResource> allPendingUpdates =
+                main.getResourceDistributor().getAllResourcesWithResourceKey(PendingUpdates.RESOURCE_KEY);
+        for (Map.Entry<ResourceDistributor.KeyClass, ResourceDistributor.SingletonResource> entry :
+                allPendingUpdates.entrySet()) {
+            try {
+                flushLastActiveUpdates(main, entry.getKey().getTenantIdentifier().toAppIdentifier(),
+                        (PendingUpdates) entry.getValue());
+            } catch (TenantOrAppNotFoundException ignored) {
+                // the app was deleted in the meantime
+            }
+        }
+    }
+
+    private static void flushLastActiveUpdates(Main main, AppIdentifier appIdentifier,
+                                               PendingUpdates pendingUpdates)
+            throws TenantOrAppNotFoundException {
+        if (pendingUpdates.userIds.isEmpty()) {
+            return;
+        }
+        ActiveUsersStorage activeUsersStorage;
+        try {
+            activeUsersStorage = StorageUtils.getActiveUsersStorage(
+                    StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main));
+        } catch (TenantOrAppNotFoundException e) {
+            main.getResourceDistributor().removeResource(appIdentifier, PendingUpdates.RESOURCE_KEY);
+            throw e;
+        }
+
+        pendingUpdates.flushLock.lock();
+        try {
+            // we remove each user before writing it, so that an update that comes in while we are writing is kept
+            // for the next flush instead of being lost
+            Iterator<String> iterator = pendingUpdates.userIds.iterator();
+            while (iterator.hasNext()) {
+                String userId = iterator.next();
+                iterator.remove();
+                try {
+                    activeUsersStorage.updateLastActive(appIdentifier, userId);
+                } catch (StorageQueryException ignored) {
+                    // same as before buffering, failing to update the last active time should not fail anything else
+                }
+            }
+        } finally {
+            pendingUpdates.flushLock.unlock();
+        }
+    }
+
+    private static PendingUpdates getPendingUpdates(Main main, AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        try {
+            return (PendingUpdates) main.getResourceDistributor()
+                    .getResource(appIdentifier, PendingUpdates.RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            // we only create the buffer for apps that exist
+            StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
+            return (PendingUpdates) main.getResourceDistributor()
+                    .setResource(appIdentifier, PendingUpdates.RESOURCE_KEY, new PendingUpdates());
+        }
+    }
+
     public static int countUsersActiveSince(Main main, AppIdentifier appIdentifier, long time)
             throws StorageQueryException, TenantOrAppNotFoundException {
+        flushLastActiveUpdates(main, appIdentifier);
         Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
         return StorageUtils.getActiveUsersStorage(storage).countUsersActiveSince(appIdentifier, time);
     }
 
+    // returns an array of size days, where the element at index i is the number of users that were active since
+    // (i + 1) days before now
+    public static int[] countUsersActiveSinceEachOfLastDays(Main main, AppIdentifier appIdentifier, long now,
+                                                            int days)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        flushLastActiveUpdates(main, appIdentifier);
+        Storage storage = StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
+        if (storage instanceof BulkActiveUsersStorage) {
+            return ((BulkActiveUsersStorage) storage).countUsersActiveSinceEachOfLastDays(appIdentifier, now, days);
+        }
+
+        ActiveUsersStorage activeUsersStorage = StorageUtils.getActiveUsersStorage(storage);
+        int[] result = new int[days];
+        for (int i = 1; i <= days; i++) {
+            result[i - 1] = activeUsersStorage.countUsersActiveSince(appIdentifier, now - (i * 24 * 60 * 60 * 1000L));
+        }
+        return result;
+    }
+
+    // same as countUsersActiveSinceEachOfLastDays, but only counts the users that have more than one login method or
+    // TOTP enabled. These users can be in any of the storages of the app. This runs a query for each day on the
+    // storages that are not a BulkActiveUsersStorage.
+    public static int[] countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+            Main main, AppIdentifier appIdentifier, long now, int days)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        flushLastActiveUpdates(main, appIdentifier);
+        int[] result = new int[days];
+        for (Storage storage : StorageLayer.getStoragesForApp(main, appIdentifier)) {
+            if (storage instanceof BulkActiveUsersStorage) {
+                int[] counts = ((BulkActiveUsersStorage) storage)
+                        .countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+                                appIdentifier, now, days);
+                for (int i = 0; i < days; i++) {
+                    result[i] += counts[i];
+                }
+                continue;
+            }
+
+            ActiveUsersStorage activeUsersStorage = StorageUtils.getActiveUsersStorage(storage);
+            for (int i = 1; i <= days; i++) {
+                result[i - 1] += activeUsersStorage.countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSince(
+                        appIdentifier, now - (i * 24 * 60 * 60 * 1000L));
+            }
+        }
+        return result;
+    }
+
+    // true if all the storages of the app can count the users with more than one login method or TOTP enabled that
+    // were active since each of the last days with one grouped query
+    public static boolean canCountUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledInBulk(Main main,
+                                                                                        AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        for (Storage storage : StorageLayer.getStoragesForApp(main, appIdentifier)) {
+            if (!(storage instanceof BulkActiveUsersStorage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Runs a transaction that deletes last active entries, and then drops the buffered updates of the users whose
+    // entries it deleted. The ids of those users must be added to the set given to the transaction. No flush of the
+    // app runs at the same time: a flush that had already taken a user's update could otherwise write the entry back
+    // after the delete commits.
+    public static <T> T deleteLastActiveEntries(Main main, AppIdentifier appIdentifier,
+                                                LastActiveDeletion<T> deletion)
+            throws StorageQueryException, StorageTransactionLogicException {
+        Set<String> deletedUserIds = new HashSet<>();
+        PendingUpdates pendingUpdates;
+        try {
+            pendingUpdates = getPendingUpdates(main, appIdentifier);
+        } catch (TenantOrAppNotFoundException e) {
+            // there is nothing to flush for an app that does not exist
+            return deletion.run(deletedUserIds);
+        }
+        pendingUpdates.flushLock.lock();
+        try {
+            T result = deletion.run(deletedUserIds);
+            pendingUpdates.userIds.removeAll(deletedUserIds);
+            return result;
+        } finally {
+            pendingUpdates.flushLock.unlock();
+        }
+    }
+
+    public interface LastActiveDeletion<T> {
+        T run(Set<String> deletedUserIds) throws StorageQueryException, StorageTransactionLogicException;
+    }
+
     public static void updateLastActiveAfterLinking(Main main, AppIdentifier appIdentifier, String primaryUserId,
                                                     String recipeUserId)
             throws StorageQueryException, TenantOrAppNotFoundException, StorageTransactionLogicException {
@@ -44,10 +215,13 @@ public class ActiveUsers {
                 (ActiveUsersSQLStorage) StorageUtils.getActiveUsersStorage(
                         StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main));
 
-        activeUsersStorage.startTransaction(con -> {
+        // the recipe user is now counted as the primary user, so a buffered update for it must not write its entry
+        // back
+        deleteLastActiveEntries(main, appIdentifier, deletedUserIds -> activeUsersStorage.startTransaction(con -> {
             activeUsersStorage.deleteUserActive_Transaction(con, appIdentifier, recipeUserId);
+            deletedUserIds.add(recipeUserId);
             return null;
-        });
+        }));
 
         updateLastActive(appIdentifier, main, primaryUserId);
     }
@@ -57,4 +231,18 @@ public class ActiveUsers {
             throws StorageQueryException, TenantOrAppNotFoundException {
         return countUsersActiveSince(main, ResourceDistributor.getAppForTesting().toAppIdentifier(), time);
     }
+
+    @TestOnly
+    public static int getPendingUpdatesCount(Main main, AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        return getPendingUpdates(main, appIdentifier).userIds.size();
+    }
+
+    private static class PendingUpdates extends ResourceDistributor.SingletonResource {
+        private static final String RESOURCE_KEY = "io.supertokens.ActiveUsers.PendingUpdates";
+
+        private final Set<String> userIds = ConcurrentHashMap.newKeySet();
+        // held while the updates are written, and while last active entries are deleted
+        private final ReentrantLock flushLock = new ReentrantLock();
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens;
+
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+
+// Bulk active user queries that a storage can optionally implement. ActiveUsers uses these when the storage implements
+// this interface, and falls back to one query per day otherwise.
+public interface BulkActiveUsersStorage {
+
+    // returns an array of size days, where the element at index i is the number of users that were active since
+    // (i + 1) days before the given time. This is done in a single query.
+    int[] countUsersActiveSinceEachOfLastDays(AppIdentifier appIdentifier, long now, int days)
+            throws StorageQueryException;
+
+    // same as countUsersActiveSinceEachOfLastDays, but only counts the users that have more than one login method or
+    // TOTP enabled
+    int[] countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+            AppIdentifier appIdentifier, long now, int days)
+            throws StorageQueryException;
+}
@@ -32,6 +32,8 @@ import io.supertokens.cronjobs.deleteExpiredPasswordResetTokens.DeleteExpiredPas
 import io.supertokens.cronjobs.deleteExpiredPasswordlessDevices.DeleteExpiredPasswordlessDevices;
 import io.supertokens.cronjobs.deleteExpiredSessions.DeleteExpiredSessions;
 import io.supertokens.cronjobs.deleteExpiredTotpTokens.DeleteExpiredTotpTokens;
+import io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers;
+import io.supertokens.cronjobs.reconcileUsageStats.ReconcileUsageStats;
 import io.supertokens.cronjobs.syncCoreConfigWithDb.SyncCoreConfigWithDb;
 import io.supertokens.cronjobs.telemetry.Telemetry;
 import io.supertokens.emailpassword.PasswordHashing;
@@ -291,6 +293,12 @@ public class Main {
       
         Cronjobs.addCronjob(this, DeleteExpiredSAMLData.init(this, uniqueUserPoolIdsTenants));
 
+        // writes buffered last active times of users to the db
+        Cronjobs.addCronjob(this, FlushActiveUsers.init(this));
+
+        // counts the usage stats of apps again, to fix anything that was missed while updating them from events
+        Cronjobs.addCronjob(this, ReconcileUsageStats.init(this));
+
         // this is to ensure tenantInfos are in sync for the new cron job as well
         MultitenancyHelper.getInstance(this).refreshCronjobs();
 
@@ -461,6 +469,8 @@ public class Main {
             Logging.info(this, TenantIdentifier.BASE_TENANT, "Stopping SuperTokens...", true);
             Webserver.getInstance(this).stop();
             Cronjobs.shutdownAndAwaitTermination(this);
+            // no more requests can come in at this point, so we write the last active times that are still buffered
+            ActiveUsers.flushAllLastActiveUpdates(this);
             StorageLayer.close(this);
             removeDotStartedFileForThisProcess();
             Logging.stopLogging(this);
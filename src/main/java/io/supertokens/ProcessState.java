@@ -20,13 +20,15 @@ import com.google.gson.JsonObject;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 public class ProcessState extends ResourceDistributor.SingletonResource {
 
     private static final String RESOURCE_KEY = "io.supertokens.ProcessState";
-    private List<EventAndException> history = new ArrayList<>();
+    // Events are only recorded while testing. This is called from hot paths (like password verification and db
+    // transaction retries), so none of the methods here lock, and addState returns right away when not testing.
+    private volatile ConcurrentLinkedDeque<EventAndException> history = new ConcurrentLinkedDeque<>();
 
     private ProcessState() {
 
@@ -35,34 +37,37 @@ public class ProcessState extends ResourceDistributor.SingletonResource {
     public static ProcessState getInstance(Main main) {
         try {
             return (ProcessState) main.getResourceDistributor()
-                    .getResource(new TenantIdentifier(null, null, null), RESOURCE_KEY);
+                    .getResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY);
         } catch (TenantOrAppNotFoundException e) {
             return (ProcessState) main.getResourceDistributor()
-                    .setResource(new TenantIdentifier(null, null, null), RESOURCE_KEY, new ProcessState());
+                    .setResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY, new ProcessState());
         }
     }
 
-    public synchronized EventAndException getLastEventByName(PROCESS_STATE processState) {
-        for (int i = history.size() - 1; i >= 0; i--) {
-            if (history.get(i).state == processState) {
-                return history.get(i);
+    public EventAndException getLastEventByName(PROCESS_STATE processState) {
+        Iterator<EventAndException> iterator = history.descendingIterator();
+        while (iterator.hasNext()) {
+            EventAndException event = iterator.next();
+            if (event.state == processState) {
+                return event;
             }
         }
         return null;
     }
 
-    public synchronized void addState(PROCESS_STATE processState, Exception e) {
+    public void addState(PROCESS_STATE processState, Exception e) {
         addState(processState, e, null);
     }
 
-    public synchronized void addState(PROCESS_STATE processState, Exception e, JsonObject data) {
-        if (Main.isTesting) {
-            history.add(new EventAndException(processState, e, data));
+    public void addState(PROCESS_STATE processState, Exception e, JsonObject data) {
+        if (!Main.isTesting) {
+            return;
         }
+        history.add(new EventAndException(processState, e, data));
     }
 
-    public synchronized void clear() {
-        history = new ArrayList<>();
+    public void clear() {
+        history = new ConcurrentLinkedDeque<>();
     }
 
     /**
@@ -26,12 +26,22 @@ import javax.annotation.Nonnull;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 // the purpose of this class is to tie singleton classes to s specific main instance. So that
 // when the main instance dies, those singleton classes die too.
 
 public class ResourceDistributor {
-    private final Map<KeyClass, SingletonResource> resources = new ConcurrentHashMap<>(1);
+    // connectionUriDomain -> appId -> tenantId -> resource key -> resource. Looking up a resource is a few map lookups
+    // on strings that the TenantIdentifier already holds, so nothing is allocated per lookup, and checking if anything
+    // is configured for a connectionUriDomain is a single lookup instead of a scan over all resources.
+    // Reads don't lock. Writes are done while holding writeLock so that maps that become empty can be removed without
+    // racing with another write.
+    private final Map<String, Map<String, Map<String, Map<String, SingletonResource>>>> resources =
+            new ConcurrentHashMap<>(1);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // held while tenants are refreshed from the db
+    private final ReentrantLock resourceDistributorLock = new ReentrantLock();
     private final Main main;
 
     private static TenantIdentifier appUsedForTesting = TenantIdentifier.BASE_TENANT;
@@ -52,18 +62,24 @@ public class ResourceDistributor {
 
     public SingletonResource getResource(AppIdentifier appIdentifier, @Nonnull String key)
             throws TenantOrAppNotFoundException {
+        SingletonResource resource = getResource(appIdentifier.getConnectionUriDomain(), appIdentifier.getAppId(),
+                TenantIdentifier.DEFAULT_TENANT_ID, key);
+        if (resource != null) {
+            return resource;
+        }
         return getResource(appIdentifier.getAsPublicTenantIdentifier(), key);
     }
 
     public SingletonResource getResource(TenantIdentifier tenantIdentifier, @Nonnull String key)
             throws TenantOrAppNotFoundException {
         // first we do exact match
-        SingletonResource resource = resources.get(new KeyClass(tenantIdentifier, key));
+        SingletonResource resource = getResource(tenantIdentifier.getConnectionUriDomain(),
+                tenantIdentifier.getAppId(), tenantIdentifier.getTenantId(), key);
         if (resource != null) {
             return resource;
         }
 
-        if (tenantIdentifier.equals(new TenantIdentifier(null, null, null))) {
+        if (tenantIdentifier.equals(TenantIdentifier.BASE_TENANT)) {
             // this means we are looking at base tenant and it's not something that
             // refreshing tenants will help with (in fact it will cause an infinite loop)
             throw new TenantOrAppNotFoundException(tenantIdentifier);
@@ -71,19 +87,16 @@ public class ResourceDistributor {
 
         // then we see if the user has configured anything to do with connectionUriDomain, and if they have,
         // then we must return null cause the user has not specifically added tenantId to it
-        for (KeyClass currKey : resources.keySet()) {
-            if (currKey.getTenantIdentifier().getConnectionUriDomain()
-                    .equals(tenantIdentifier.getConnectionUriDomain())) {
-                throw new TenantOrAppNotFoundException(tenantIdentifier);
-            }
+        if (resources.containsKey(tenantIdentifier.getConnectionUriDomain())) {
+            throw new TenantOrAppNotFoundException(tenantIdentifier);
         }
 
         // if it comes here, it means that the user has not configured anything to do with
         // connectionUriDomain, and therefore we fallback on the case where connectionUriDomain is the base one.
         // This is useful when the base connectionuri can be localhost or 127.0.0.1 or anything else that's
         // not specifically configured by the dev.
-        resource = resources.get(new KeyClass(
-                new TenantIdentifier(null, tenantIdentifier.getAppId(), tenantIdentifier.getTenantId()), key));
+        resource = getResource(TenantIdentifier.DEFAULT_CONNECTION_URI, tenantIdentifier.getAppId(),
+                tenantIdentifier.getTenantId(), key);
         if (resource != null) {
             return resource;
         }
@@ -91,21 +104,82 @@ public class ResourceDistributor {
         throw new TenantOrAppNotFoundException(tenantIdentifier);
     }
 
+    private SingletonResource getResource(String connectionUriDomain, String appId, String tenantId, String key) {
+        Map<String, Map<String, Map<String, SingletonResource>>> apps = resources.get(connectionUriDomain);
+        if (apps == null) {
+            return null;
+        }
+        Map<String, Map<String, SingletonResource>> tenants = apps.get(appId);
+        if (tenants == null) {
+            return null;
+        }
+        Map<String, SingletonResource> resourcesForTenant = tenants.get(tenantId);
+        if (resourcesForTenant == null) {
+            return null;
+        }
+        return resourcesForTenant.get(key);
+    }
+
     @TestOnly
     public SingletonResource getResource(@Nonnull String key) {
-        return resources.get(new KeyClass(appUsedForTesting, key));
+        return getResource(appUsedForTesting.getConnectionUriDomain(), appUsedForTesting.getAppId(),
+                appUsedForTesting.getTenantId(), key);
     }
 
     public SingletonResource setResource(TenantIdentifier tenantIdentifier,
                                                       @Nonnull String key,
                                                       SingletonResource resource) {
-        SingletonResource existing = resources.putIfAbsent(new KeyClass(tenantIdentifier, key), resource);
-        return existing != null ? existing : resource;
+        writeLock.lock();
+        try {
+            SingletonResource existing = resources
+                    .computeIfAbsent(tenantIdentifier.getConnectionUriDomain(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(tenantIdentifier.getAppId(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(tenantIdentifier.getTenantId(), k -> new ConcurrentHashMap<>())
+                    .putIfAbsent(key, resource);
+            return existing != null ? existing : resource;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public SingletonResource removeResource(TenantIdentifier tenantIdentifier,
                                                          @Nonnull String key) {
-        return resources.remove(new KeyClass(tenantIdentifier, key));
+        writeLock.lock();
+        try {
+            return removeResourceWhileHoldingLock(new KeyClass(tenantIdentifier, key));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private SingletonResource removeResourceWhileHoldingLock(KeyClass keyClass) {
+        TenantIdentifier tenantIdentifier = keyClass.getTenantIdentifier();
+        Map<String, Map<String, Map<String, SingletonResource>>> apps = resources.get(
+                tenantIdentifier.getConnectionUriDomain());
+        if (apps == null) {
+            return null;
+        }
+        Map<String, Map<String, SingletonResource>> tenants = apps.get(tenantIdentifier.getAppId());
+        if (tenants == null) {
+            return null;
+        }
+        Map<String, SingletonResource> resourcesForTenant = tenants.get(tenantIdentifier.getTenantId());
+        if (resourcesForTenant == null) {
+            return null;
+        }
+        SingletonResource removed = resourcesForTenant.remove(keyClass.key);
+
+        // we remove empty maps so that the connectionUriDomain check in getResource stays correct
+        if (resourcesForTenant.isEmpty()) {
+            tenants.remove(tenantIdentifier.getTenantId());
+            if (tenants.isEmpty()) {
+                apps.remove(tenantIdentifier.getAppId());
+                if (apps.isEmpty()) {
+                    resources.remove(tenantIdentifier.getConnectionUriDomain());
+                }
+            }
+        }
+        return removed;
     }
 
     public SingletonResource setResource(AppIdentifier appIdentifier,
@@ -120,7 +194,14 @@ public class ResourceDistributor {
     }
 
     public void clearAllResourcesWithResourceKey(String inputKey) {
-        resources.keySet().removeIf(k -> k.key.equals(inputKey));
+        writeLock.lock();
+        try {
+            for (KeyClass keyClass : getAllResourcesWithResourceKey(inputKey).keySet()) {
+                removeResourceWhileHoldingLock(keyClass);
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -129,17 +210,35 @@ public class ResourceDistributor {
      * (unlike a clearAllResourcesWithResourceKey followed by individual setResource calls).
      */
     public void replaceResourcesWithResourceKey(String inputKey, Map<KeyClass, SingletonResource> newResources) {
-        resources.putAll(newResources);
-        resources.keySet().removeIf(k -> k.key.equals(inputKey) && !newResources.containsKey(k));
+        writeLock.lock();
+        try {
+            newResources.forEach((keyClass, resource) -> {
+                TenantIdentifier tenantIdentifier = keyClass.getTenantIdentifier();
+                resources.computeIfAbsent(tenantIdentifier.getConnectionUriDomain(), k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(tenantIdentifier.getAppId(), k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(tenantIdentifier.getTenantId(), k -> new ConcurrentHashMap<>())
+                        .put(keyClass.key, resource);
+            });
+            for (KeyClass keyClass : getAllResourcesWithResourceKey(inputKey).keySet()) {
+                if (!newResources.containsKey(keyClass)) {
+                    removeResourceWhileHoldingLock(keyClass);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public Map<KeyClass, SingletonResource> getAllResourcesWithResourceKey(String inputKey) {
         Map<KeyClass, SingletonResource> result = new HashMap<>();
-        resources.forEach((key, value) -> {
-            if (key.key.equals(inputKey)) {
-                result.put(key, value);
-            }
-        });
+        resources.forEach((connectionUriDomain, apps) -> apps.forEach((appId, tenants) -> tenants.forEach(
+                (tenantId, resourcesForTenant) -> {
+                    SingletonResource resource = resourcesForTenant.get(inputKey);
+                    if (resource != null) {
+                        result.put(new KeyClass(new TenantIdentifier(connectionUriDomain, appId, tenantId), inputKey),
+                                resource);
+                    }
+                })));
         return result;
     }
 
@@ -153,8 +252,13 @@ public class ResourceDistributor {
         T performTask() throws FuncException;
     }
 
-    public synchronized <T> T withResourceDistributorLock(Func<T> func) throws FuncException {
-        return func.performTask();
+    public <T> T withResourceDistributorLock(Func<T> func) throws FuncException {
+        resourceDistributorLock.lock();
+        try {
+            return func.performTask();
+        } finally {
+            resourceDistributorLock.unlock();
+        }
     }
 
     public static class FuncException extends Exception {
@@ -173,14 +277,25 @@ public class ResourceDistributor {
 
         private final TenantIdentifier tenantIdentifier;
 
+        // KeyClass objects are used as map keys, so we compute the hash code once
+        private final int hashCode;
+
         public KeyClass(TenantIdentifier tenantIdentifier, @Nonnull String key) {
             this.key = key;
             this.tenantIdentifier = tenantIdentifier;
+            this.hashCode = computeHashCode(tenantIdentifier, key);
         }
 
         public KeyClass(AppIdentifier appIdentifier, @Nonnull String key) {
-            this.key = key;
-            this.tenantIdentifier = appIdentifier.getAsPublicTenantIdentifier();
+            this(appIdentifier.getAsPublicTenantIdentifier(), key);
+        }
+
+        private static int computeHashCode(TenantIdentifier tenantIdentifier, String key) {
+            int result = tenantIdentifier.getTenantId().hashCode();
+            result = 31 * result + tenantIdentifier.getConnectionUriDomain().hashCode();
+            result = 31 * result + tenantIdentifier.getAppId().hashCode();
+            result = 31 * result + key.hashCode();
+            return result;
         }
 
         public TenantIdentifier getTenantIdentifier() {
@@ -191,7 +306,8 @@ public class ResourceDistributor {
         public boolean equals(Object other) {
             if (other instanceof KeyClass) {
                 KeyClass otherKeyClass = (KeyClass) other;
-                return otherKeyClass.getTenantIdentifier().equals(this.getTenantIdentifier()) &&
+                return otherKeyClass.hashCode == this.hashCode &&
+                        otherKeyClass.getTenantIdentifier().equals(this.getTenantIdentifier()) &&
                         otherKeyClass.key.equals(key);
             }
             return false;
@@ -199,10 +315,7 @@ public class ResourceDistributor {
 
         @Override
         public int hashCode() {
-            return (this.getTenantIdentifier().getTenantId() + "|" +
-                    this.getTenantIdentifier().getConnectionUriDomain() + "|" +
-                    this.getTenantIdentifier().getAppId() + "|" +
-                    this.key).hashCode();
+            return this.hashCode;
         }
     }
 
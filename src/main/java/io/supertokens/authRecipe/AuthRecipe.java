@@ -16,10 +16,13 @@
 
 package io.supertokens.authRecipe;
 
+import io.supertokens.ActiveUsers;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.authRecipe.exception.*;
 import io.supertokens.bulkimport.BulkImportUserUtils;
+import io.supertokens.config.Config;
+import io.supertokens.dashboard.DashboardUserSearchCache;
 import io.supertokens.featureflag.exceptions.FeatureNotEnabledException;
 import io.supertokens.multitenancy.exception.BadPermissionException;
 import io.supertokens.pluginInterface.RECIPE_ID;
@@ -42,6 +45,7 @@ import io.supertokens.pluginInterface.sqlStorage.TransactionConnection;
 import io.supertokens.pluginInterface.useridmapping.UserIdMapping;
 import io.supertokens.session.Session;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.useridmapping.UserIdType;
 import io.supertokens.utils.Utils;
 import org.jetbrains.annotations.NotNull;
@@ -71,7 +75,9 @@ public class AuthRecipe {
             throws StorageQueryException, UnknownUserIdException, InputUserIdIsNotAPrimaryUserException {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
         try {
-            UnlinkResult res = authRecipeStorage.startTransaction(con -> {
+            // unlinking can delete the recipe user, so the delete of its last active entry must not race with a flush
+            UnlinkResult res = ActiveUsers.deleteLastActiveEntries(main, appIdentifier,
+                    lastActiveDeletedUserIds -> authRecipeStorage.startTransaction(con -> {
                 AuthRecipeUserInfo primaryUser = authRecipeStorage.getPrimaryUserById_Transaction(appIdentifier, con,
                         recipeUserId);
                 if (primaryUser == null) {
@@ -100,7 +106,8 @@ public class AuthRecipe {
                         // The delete will also cause the automatic unlinking.
                         // We need to make sure that it only deletes sessions for recipeUserId and not other linked
                         // users who have their sessions for primaryUserId (that is equal to the recipeUserId)
-                        deleteUserHelper(con, appIdentifier, storage, recipeUserId, false, mappingResult);
+                        deleteUserHelper(con, appIdentifier, storage, recipeUserId, false, mappingResult,
+                                lastActiveDeletedUserIds);
                         return new UnlinkResult(mappingResult == null ? recipeUserId : mappingResult.externalUserId,
                                 true);
                     }
@@ -109,7 +116,7 @@ public class AuthRecipe {
                             recipeUserId);
                     return new UnlinkResult(mappingResult == null ? recipeUserId : mappingResult.externalUserId, false);
                 }
-            });
+            }));
             Session.revokeAllSessionsForUser(main, appIdentifier, storage, res.userId, false);
             return res.wasLinked;
         } catch (StorageTransactionLogicException e) {
@@ -531,6 +538,7 @@ public class AuthRecipe {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
         try {
 
+            UsageStats.Generation usageStats = UsageStats.getGeneration(main, appIdentifier);
             LinkAccountsResult result = authRecipeStorage.startTransaction(con -> {
                 try {
                     CanLinkAccountsResult canLinkAccounts = canLinkAccountsHelper(con, appIdentifier,
@@ -556,6 +564,7 @@ public class AuthRecipe {
             });
 
             if (!result.wasAlreadyLinked) {
+                updateUsageStatsAfterLinking(appIdentifier, storage, usageStats, result.user, _recipeUserId);
                 io.supertokens.pluginInterface.useridmapping.UserIdMapping mappingResult =
                         io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(
                                 appIdentifier, authRecipeStorage,
@@ -580,6 +589,20 @@ public class AuthRecipe {
         }
     }
 
+    // The recipe user is no longer a separate user in the tenants in which the primary user already was. The primary
+    // user now has more than one login method, which only changes the MFA stats if this is its second one and it has
+    // no TOTP devices.
+    private static void updateUsageStatsAfterLinking(AppIdentifier appIdentifier, Storage storage,
+                                                     @Nullable UsageStats.Generation usageStats,
+                                                     AuthRecipeUserInfo primaryUser, String recipeUserId)
+            throws StorageQueryException {
+        UsageStats.usersRemoved(usageStats, getTenantIdsOfLoginMethod(primaryUser, recipeUserId, true));
+        if (primaryUser.loginMethods.length == 2 && StorageUtils.getTOTPStorage(storage)
+                .getDevices(appIdentifier, primaryUser.getSupertokensUserId()).length == 0) {
+            UsageStats.userWithMoreThanOneLoginMethodOrTOTPEnabledAdded(usageStats);
+        }
+    }
+
     public static void linkMultipleAccountsForBulkImport(Main main, AppIdentifier appIdentifier,
                                                          Storage storage,
                                                          List<BulkImportUser> users,
@@ -1188,6 +1211,56 @@ public class AuthRecipe {
         }
     }
 
+    // same as the one below, but the results of searches may come from DashboardUserSearchCache if it is enabled
+    // for the app (dashboard_user_search_cache_ttl > 0)
+    public static UserPaginationContainer getUsers(Main main, TenantIdentifier tenantIdentifier,
+                                                   Storage storage,
+                                                   Integer limit, String timeJoinedOrder,
+                                                   @Nullable String paginationToken,
+                                                   @Nullable RECIPE_ID[] includeRecipeIds,
+                                                   @Nullable DashboardSearchTags dashboardSearchTags)
+            throws StorageQueryException, UserPaginationToken.InvalidTokenException, TenantOrAppNotFoundException {
+        long ttl = Config.getConfig(tenantIdentifier, main).getDashboardUserSearchCacheTTL();
+        if (dashboardSearchTags == null || ttl <= 0) {
+            return getUsers(tenantIdentifier, storage, limit, timeJoinedOrder, paginationToken, includeRecipeIds,
+                    dashboardSearchTags);
+        }
+
+        DashboardUserSearchCache cache = DashboardUserSearchCache.getInstance(main,
+                tenantIdentifier.toAppIdentifier());
+        String key = DashboardUserSearchCache.getKey(tenantIdentifier, limit, timeJoinedOrder, paginationToken,
+                includeRecipeIds, dashboardSearchTags);
+        DashboardUserSearchCache.CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            UserPaginationContainer result = getUsers(tenantIdentifier, storage, limit, timeJoinedOrder,
+                    paginationToken, includeRecipeIds, dashboardSearchTags);
+            List<String> userIds = new ArrayList<>(result.users.length);
+            for (AuthRecipeUserInfo user : result.users) {
+                userIds.add(user.getSupertokensUserId());
+            }
+            cache.put(key, userIds, result.nextPaginationToken, ttl);
+            return result;
+        }
+
+        if (entry.userIds.isEmpty()) {
+            return new UserPaginationContainer(new AuthRecipeUserInfo[0], entry.nextPaginationToken);
+        }
+        // we read the users again so that changes made to them since the search are not hidden. Users that were
+        // deleted in the meantime are left out.
+        Map<String, AuthRecipeUserInfo> usersById = new HashMap<>();
+        for (AuthRecipeUserInfo user : getUsersById(tenantIdentifier.toAppIdentifier(), storage, entry.userIds)) {
+            usersById.put(user.getSupertokensUserId(), user);
+        }
+        List<AuthRecipeUserInfo> users = new ArrayList<>(entry.userIds.size());
+        for (String userId : entry.userIds) {
+            AuthRecipeUserInfo user = usersById.get(userId);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return new UserPaginationContainer(users.toArray(new AuthRecipeUserInfo[0]), entry.nextPaginationToken);
+    }
+
     public static UserPaginationContainer getUsers(TenantIdentifier tenantIdentifier,
                                                    Storage storage,
                                                    Integer limit, String timeJoinedOrder,
@@ -1240,30 +1313,39 @@ public class AuthRecipe {
     }
 
     @TestOnly
-    public static void deleteUser(AppIdentifier appIdentifier, Storage storage, String userId,
+    public static void deleteUser(Main main, AppIdentifier appIdentifier, Storage storage, String userId,
                                   UserIdMapping userIdMapping)
             throws StorageQueryException, StorageTransactionLogicException {
-        deleteUser(appIdentifier, storage, userId, true, userIdMapping);
+        deleteUser(main, appIdentifier, storage, userId, true, userIdMapping);
     }
 
-    public static void deleteUser(AppIdentifier appIdentifier, Storage storage, String userId,
+    public static void deleteUser(Main main, AppIdentifier appIdentifier, Storage storage, String userId,
                                   boolean removeAllLinkedAccounts,
                                   UserIdMapping userIdMapping)
             throws StorageQueryException, StorageTransactionLogicException {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
 
-        authRecipeStorage.startTransaction(con -> {
-            deleteUserHelper(con, appIdentifier, storage, userId, removeAllLinkedAccounts, userIdMapping);
-            authRecipeStorage.commitTransaction(con);
-            return null;
-        });
+        UsageStats.Generation usageStats = UsageStats.getGeneration(main, appIdentifier);
+        // a last active update that was buffered before the delete must not write the entries back
+        List<String> tenantIdsWithOneUserLess = ActiveUsers.deleteLastActiveEntries(main, appIdentifier,
+                lastActiveDeletedUserIds -> authRecipeStorage.startTransaction(con -> {
+                    List<String> result = deleteUserHelper(con, appIdentifier, storage, userId,
+                            removeAllLinkedAccounts, userIdMapping, lastActiveDeletedUserIds);
+                    authRecipeStorage.commitTransaction(con);
+                    return result;
+                }));
+        // the sessions of the user are deleted too, but they are left for ReconcileUsageStats to count
+        UsageStats.usersRemoved(usageStats, tenantIdsWithOneUserLess);
     }
 
-    private static void deleteUserHelper(TransactionConnection con, AppIdentifier appIdentifier,
+    // The ids whose last active entry is deleted are added to lastActiveDeletedUserIds. Returns the tenants that have
+    // one user less, once for each login method that was the last one of the user in the tenant.
+    private static List<String> deleteUserHelper(TransactionConnection con, AppIdentifier appIdentifier,
                                          Storage storage,
                                          String userId,
                                          boolean removeAllLinkedAccounts,
-                                         UserIdMapping userIdMapping)
+                                         UserIdMapping userIdMapping,
+                                         Set<String> lastActiveDeletedUserIds)
             throws StorageQueryException {
         AuthRecipeSQLStorage authRecipeStorage = StorageUtils.getAuthRecipeStorage(storage);
 
@@ -1321,7 +1403,7 @@ public class AuthRecipe {
                 userIdToDeleteForAuthRecipe);
 
         if (userToDelete == null) {
-            return;
+            return new ArrayList<>();
         }
 
         if (removeAllLinkedAccounts || userToDelete.loginMethods.length == 1) {
@@ -1330,7 +1412,7 @@ public class AuthRecipe {
                 if (primaryUserIdToDeleteNonAuthRecipe == null) {
                     deleteAuthRecipeUser(con, appIdentifier, storage, userToDelete.getSupertokensUserId(),
                             true);
-                    return;
+                    return getTenantIdsOfLoginMethod(userToDelete, userToDelete.getSupertokensUserId(), false);
                 }
             } else {
                 // this is always type supertokens user ID cause it's from a user from the database.
@@ -1355,16 +1437,21 @@ public class AuthRecipe {
             }
         }
 
+        List<String> tenantIdsWithOneUserLess = new ArrayList<>();
         if (!removeAllLinkedAccounts) {
             deleteAuthRecipeUser(con, appIdentifier, storage, userIdToDeleteForAuthRecipe,
                     !userIdToDeleteForAuthRecipe.equals(userToDelete.getSupertokensUserId()));
+            tenantIdsWithOneUserLess.addAll(
+                    getTenantIdsOfLoginMethod(userToDelete, userIdToDeleteForAuthRecipe, false));
 
             if (userIdToDeleteForNonAuthRecipeForRecipeUserId != null) {
-                deleteNonAuthRecipeUser(con, appIdentifier, storage, userIdToDeleteForNonAuthRecipeForRecipeUserId);
+                deleteNonAuthRecipeUser(con, appIdentifier, storage, userIdToDeleteForNonAuthRecipeForRecipeUserId,
+                        lastActiveDeletedUserIds);
             }
 
             if (primaryUserIdToDeleteNonAuthRecipe != null) {
-                deleteNonAuthRecipeUser(con, appIdentifier, storage, primaryUserIdToDeleteNonAuthRecipe);
+                deleteNonAuthRecipeUser(con, appIdentifier, storage, primaryUserIdToDeleteNonAuthRecipe,
+                        lastActiveDeletedUserIds);
 
                 // this is only done to also delete the user ID mapping in case it exists, since we do not delete in the
                 // previous call to deleteAuthRecipeUser above.
@@ -1381,9 +1468,36 @@ public class AuthRecipe {
                                         appIdentifier,
                                         storage,
                                         lM.getSupertokensUserId(), UserIdType.SUPERTOKENS);
-                deleteUserHelper(con, appIdentifier, storage, lM.getSupertokensUserId(), false, mappingResult);
+                tenantIdsWithOneUserLess.addAll(deleteUserHelper(con, appIdentifier, storage,
+                        lM.getSupertokensUserId(), false, mappingResult, lastActiveDeletedUserIds));
+            }
+        }
+        return tenantIdsWithOneUserLess;
+    }
+
+    // returns the tenants of the login method with this recipe user id in which the user has (if shared is true) or
+    // does not have (if shared is false) another login method
+    private static List<String> getTenantIdsOfLoginMethod(AuthRecipeUserInfo user, String recipeUserId,
+                                                          boolean shared) {
+        List<String> tenantIds = new ArrayList<>();
+        for (LoginMethod loginMethod : user.loginMethods) {
+            if (!loginMethod.getSupertokensUserId().equals(recipeUserId)) {
+                continue;
+            }
+            for (String tenantId : loginMethod.tenantIds) {
+                boolean inOtherLoginMethod = false;
+                for (LoginMethod otherLoginMethod : user.loginMethods) {
+                    if (otherLoginMethod != loginMethod && otherLoginMethod.tenantIds.contains(tenantId)) {
+                        inOtherLoginMethod = true;
+                        break;
+                    }
+                }
+                if (inOtherLoginMethod == shared) {
+                    tenantIds.add(tenantId);
+                }
             }
         }
+        return tenantIds;
     }
 
     @TestOnly
@@ -1394,7 +1508,7 @@ public class AuthRecipe {
         UserIdMapping mapping = io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(appIdentifier,
                 storage, userId, UserIdType.ANY);
 
-        deleteUser(appIdentifier, storage, userId, removeAllLinkedAccounts, mapping);
+        deleteUser(main, appIdentifier, storage, userId, removeAllLinkedAccounts, mapping);
     }
 
     @TestOnly
@@ -1405,20 +1519,21 @@ public class AuthRecipe {
         UserIdMapping mapping = io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(appIdentifier,
                 storage, userId, UserIdType.ANY);
 
-        deleteUser(appIdentifier, storage, userId, mapping);
+        deleteUser(main, appIdentifier, storage, userId, mapping);
     }
 
     @TestOnly
-    public static void deleteUser(AppIdentifier appIdentifier, Storage storage, String userId)
+    public static void deleteUser(Main main, AppIdentifier appIdentifier, Storage storage, String userId)
             throws StorageQueryException, StorageTransactionLogicException {
         UserIdMapping mapping = io.supertokens.useridmapping.UserIdMapping.getUserIdMapping(appIdentifier,
                 storage, userId, UserIdType.ANY);
 
-        deleteUser(appIdentifier, storage, userId, mapping);
+        deleteUser(main, appIdentifier, storage, userId, mapping);
     }
 
     private static void deleteNonAuthRecipeUser(TransactionConnection con, AppIdentifier appIdentifier,
-                                                Storage storage, String userId)
+                                                Storage storage, String userId,
+                                                Set<String> lastActiveDeletedUserIds)
             throws StorageQueryException {
         StorageUtils.getUserMetadataStorage(storage)
                 .deleteUserMetadata_Transaction(con, appIdentifier, userId);
@@ -1431,6 +1546,7 @@ public class AuthRecipe {
 
         StorageUtils.getActiveUsersStorage(storage)
                 .deleteUserActive_Transaction(con, appIdentifier, userId);
+        lastActiveDeletedUserIds.add(userId);
         StorageUtils.getTOTPStorage(storage)
                 .removeUser_Transaction(con, appIdentifier, userId);
     }
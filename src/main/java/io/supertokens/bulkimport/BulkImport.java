@@ -81,6 +81,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 // Error codes ensure globally unique and identifiable errors in Bulk Import.
@@ -102,6 +103,8 @@ public class BulkImport {
 
     // This map allows reusing proxy storage for all tenants in the app and closing connections after import.
     private static Map<String, SQLStorage> userPoolToStorageMap = new HashMap<>();
+    // held while a user is imported, since the proxy storages in userPoolToStorageMap are closed after each import
+    private static final ReentrantLock importUserLock = new ReentrantLock();
 
     public static void addUsers(AppIdentifier appIdentifier, Storage storage, List<BulkImportUser> users)
             throws StorageQueryException, TenantOrAppNotFoundException {
@@ -162,7 +165,18 @@ public class BulkImport {
         return StorageUtils.getBulkImportStorage(storage).getBulkImportUsersCount(appIdentifier, status);
     }
 
-    public static synchronized AuthRecipeUserInfo importUser(Main main, AppIdentifier appIdentifier,
+    public static AuthRecipeUserInfo importUser(Main main, AppIdentifier appIdentifier, BulkImportUser user)
+            throws StorageQueryException, InvalidConfigException, IOException, TenantOrAppNotFoundException,
+            DbInitException, BulkImportBatchInsertException {
+        importUserLock.lock();
+        try {
+            return importUserWhileHoldingLock(main, appIdentifier, user);
+        } finally {
+            importUserLock.unlock();
+        }
+    }
+
+    private static AuthRecipeUserInfo importUserWhileHoldingLock(Main main, AppIdentifier appIdentifier,
             BulkImportUser user)
             throws StorageQueryException, InvalidConfigException, IOException, TenantOrAppNotFoundException,
             DbInitException, BulkImportBatchInsertException {
@@ -787,7 +801,8 @@ public class BulkImport {
     }
 
 
-    private static synchronized Storage getBulkImportProxyStorage(Main main, TenantIdentifier tenantIdentifier)
+    // only called while holding importUserLock
+    private static Storage getBulkImportProxyStorage(Main main, TenantIdentifier tenantIdentifier)
             throws InvalidConfigException, IOException, TenantOrAppNotFoundException, DbInitException {
         String userPoolId = StorageLayer.getStorage(tenantIdentifier, main).getUserPoolId();
         if (userPoolToStorageMap.containsKey(userPoolId)) {
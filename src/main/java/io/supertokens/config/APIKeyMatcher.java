@@ -0,0 +1,69 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.config;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// The SHA-256 digests of a set of API keys, computed once when the config is loaded. A key from a request is checked
+// by comparing its digest with each of them using MessageDigest.isEqual, which takes the same time no matter where the
+// digests differ, and we always compare with all the keys, so the time taken does not say which key almost matched.
+public class APIKeyMatcher {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final byte[][] keyDigests;
+
+    private APIKeyMatcher(String[] keys) {
+        this.keyDigests = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            this.keyDigests[i] = digest(keys[i]);
+        }
+    }
+
+    // returns null if no keys are given
+    @Nullable
+    static APIKeyMatcher fromKeys(@Nullable String... keys) {
+        if (keys == null || keys.length == 0 || (keys.length == 1 && keys[0] == null)) {
+            return null;
+        }
+        return new APIKeyMatcher(keys);
+    }
+
+    public boolean matches(@Nonnull String key) {
+        byte[] digest = digest(key);
+        boolean matched = false;
+        for (byte[] keyDigest : this.keyDigests) {
+            matched |= MessageDigest.isEqual(keyDigest, digest);
+        }
+        return matched;
+    }
+
+    private static byte[] digest(String key) {
+        // digest() resets the MessageDigest, so it can be reused for the next key
+        return SHA_256.get().digest(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
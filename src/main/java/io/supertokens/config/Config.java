@@ -34,6 +34,7 @@ import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.utils.ConfigMapper;
 import org.jetbrains.annotations.TestOnly;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -46,6 +47,9 @@ public class Config extends ResourceDistributor.SingletonResource {
     public static final String RESOURCE_KEY = "io.supertokens.config.Config";
     private final Main main;
     private final CoreConfig core;
+    private final IPAccessFilter ipAccessFilter;
+    private final APIKeyMatcher apiKeyMatcher;
+    private final APIKeyMatcher superTokensSaaSSecretMatcher;
 
     private Config(Main main, String configFilePath) throws InvalidConfigException, IOException {
         this.main = main;
@@ -57,6 +61,9 @@ public class Config extends ResourceDistributor.SingletonResource {
         CoreConfig config = ConfigMapper.mapConfig(jsonConfig, CoreConfig.class);
         config.normalizeAndValidate(main, true);
         this.core = config;
+        this.ipAccessFilter = IPAccessFilter.fromConfig(config);
+        this.apiKeyMatcher = APIKeyMatcher.fromKeys(config.getAPIKeys());
+        this.superTokensSaaSSecretMatcher = APIKeyMatcher.fromKeys(config.getSuperTokensSaaSSecret());
     }
 
     private Config(Main main, JsonObject jsonConfig) throws IOException, InvalidConfigException {
@@ -64,6 +71,9 @@ public class Config extends ResourceDistributor.SingletonResource {
         CoreConfig config = ConfigMapper.mapConfig(jsonConfig, CoreConfig.class);
         config.normalizeAndValidate(main, false);
         this.core = config;
+        this.ipAccessFilter = IPAccessFilter.fromConfig(config);
+        this.apiKeyMatcher = APIKeyMatcher.fromKeys(config.getAPIKeys());
+        this.superTokensSaaSSecretMatcher = APIKeyMatcher.fromKeys(config.getSuperTokensSaaSSecret());
     }
 
     public static Config getInstance(TenantIdentifier tenantIdentifier, Main main)
@@ -296,6 +306,30 @@ public class Config extends ResourceDistributor.SingletonResource {
         return getInstance(tenantIdentifier, main).core;
     }
 
+    // returns null if the tenant has no IP access control
+    @Nullable
+    public static IPAccessFilter getIPAccessFilter(TenantIdentifier tenantIdentifier, Main main)
+            throws TenantOrAppNotFoundException {
+        return getInstance(tenantIdentifier, main).ipAccessFilter;
+    }
+
+    // returns null if the tenant has no api_keys
+    @Nullable
+    public static APIKeyMatcher getAPIKeyMatcher(TenantIdentifier tenantIdentifier, Main main)
+            throws TenantOrAppNotFoundException {
+        return getInstance(tenantIdentifier, main).apiKeyMatcher;
+    }
+
+    // returns null if there is no supertokens_saas_secret
+    @Nullable
+    public static APIKeyMatcher getSuperTokensSaaSSecretMatcher(Main main) {
+        try {
+            return getInstance(new TenantIdentifier(null, null, null), main).superTokensSaaSSecretMatcher;
+        } catch (TenantOrAppNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static CoreConfig getBaseConfig(Main main) {
         try {
             return getInstance(new TenantIdentifier(null, null, null), main).core;
@@ -97,6 +97,16 @@ public class CoreConfig {
     @ConfigDescription("Time in mins for how long a refresh token is valid for. [Default: 60 * 2400 (100 days)]")
     private double refresh_token_validity = 60 * 2400; // in mins
 
+    @EnvName("REFRESH_TOKEN_USE_DERIVED_KEY")
+    @NotConflictingInApp
+    @JsonProperty
+    @ConfigDescription(
+            "If true, new refresh tokens are created as V3 tokens, whose encryption key is derived once per master " +
+                    "key instead of once per token. Older cores cannot read V3 tokens, so only set this once every " +
+                    "core that shares the database has been upgraded. V2 and V3 tokens are read either way. " +
+                    "(Default: false)")
+    private boolean refresh_token_use_derived_key = false;
+
     @EnvName("PASSWORD_RESET_TOKEN_LIFETIME")
     @IgnoreForAnnotationCheck
     @JsonProperty
@@ -176,6 +186,24 @@ public class CoreConfig {
     @ConfigDescription("Time in hours for how frequently the dynamic signing key will change. [Default: 168 (1 week)]")
     private double access_token_dynamic_signing_key_update_interval = 168; // in hours
 
+    @EnvName("ACCESS_TOKEN_VERIFICATION_CACHE_SIZE")
+    @NotConflictingInApp
+    @JsonProperty
+    @ConfigDescription(
+            "The maximum number of verified access tokens to keep in memory per app, so that verifying the same " +
+                    "access token again does not need to check its signature. Set this to 0 to disable the cache. " +
+                    "(Default: 0)")
+    private int access_token_verification_cache_size = 0;
+
+    @EnvName("DASHBOARD_USER_SEARCH_CACHE_TTL")
+    @NotConflictingInApp
+    @JsonProperty
+    @ConfigDescription(
+            "Time in milliseconds for how long the results of a user search from the dashboard are kept in memory, " +
+                    "so that paging through or refreshing the same search does not run it again. Set this to 0 to " +
+                    "disable the cache. (Default: 0)")
+    private long dashboard_user_search_cache_ttl = 0;
+
     @EnvName("SUPERTOKENS_PORT")
     @ConfigYamlOnly
     @JsonProperty
@@ -196,6 +224,15 @@ public class CoreConfig {
     @ConfigDescription("Sets the max thread pool size for incoming http server requests. (Default: 10)")
     private int max_server_pool_size = 10;
 
+    @EnvName("SERVER_USE_VIRTUAL_THREADS")
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "If true, each incoming http server request is handled on its own virtual thread instead of a thread " +
+                    "from a pool of max_server_pool_size threads. This lets many more requests wait on the database " +
+                    "or on other services at the same time. (Default: false)")
+    private boolean server_use_virtual_threads = false;
+
     @EnvName("API_KEYS")
     @NotConflictingInApp
     @JsonProperty
@@ -255,6 +292,23 @@ public class CoreConfig {
                     "(Default: 1)")
     private int firebase_password_hashing_pool_size = 1;
 
+    @EnvName("BCRYPT_HASHING_POOL_SIZE")
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Number of concurrent bcrypt hashes that can happen at the same time for sign up or sign in requests. " +
+                    "(Default: same as max_server_pool_size)")
+    private int bcrypt_hashing_pool_size = 0;
+
+    @EnvName("PASSWORD_HASHING_MAX_WAIT_MS")
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "Time in milliseconds that a request waits for one of the password hashing pools to be free. If this is " +
+                    "exceeded, the request fails with a 503 response. If set to 0, requests wait for as long as " +
+                    "needed. (Default: 0)")
+    private long password_hashing_max_wait_ms = 0;
+
     @EnvName("BCRYPT_LOG_ROUNDS")
     @ConfigYamlOnly
     @JsonProperty
@@ -289,6 +343,16 @@ public class CoreConfig {
     @EnumProperty({"DEBUG", "INFO", "WARN", "ERROR", "NONE"})
     private String log_level = "INFO";
 
+    @EnvName("LOG_ASYNC_QUEUE_SIZE")
+    @ConfigYamlOnly
+    @JsonProperty
+    @ConfigDescription(
+            "The number of log messages that can wait to be written to the info and error logs. If this is more than " +
+                    "0, logs are written by a background thread, and INFO and DEBUG logs are dropped when the queue " +
+                    "is almost full so that requests never wait for the logs. If set to 0, logs are written by the " +
+                    "thread that logs them. (Default: 0)")
+    private int log_async_queue_size = 0;
+
     @EnvName("FIREBASE_PASSWORD_HASHING_SIGNER_KEY")
     @NotConflictingInApp
     @JsonProperty
@@ -517,6 +581,10 @@ public class CoreConfig {
         return log_level;
     }
 
+    public int getLogAsyncQueueSize() {
+        return log_async_queue_size;
+    }
+
     public Set<LOG_LEVEL> getLogLevels(Main main) {
         if (allowedLogLevels != null) {
             return allowedLogLevels;
@@ -562,6 +630,14 @@ public class CoreConfig {
         return firebase_password_hashing_pool_size;
     }
 
+    public int getBcryptHashingPoolSize() {
+        return bcrypt_hashing_pool_size;
+    }
+
+    public long getPasswordHashingMaxWaitMs() {
+        return password_hashing_max_wait_ms;
+    }
+
     public int getArgon2Iterations() {
         return argon2_iterations;
     }
@@ -610,6 +686,10 @@ public class CoreConfig {
         return (long) (refresh_token_validity * 60 * 1000);
     }
 
+    public boolean getRefreshTokenUseDerivedKey() {
+        return refresh_token_use_derived_key;
+    }
+
     public long getPasswordResetTokenLifetime() {
         return password_reset_token_lifetime;
     }
@@ -657,6 +737,14 @@ public class CoreConfig {
         return (long) (access_token_dynamic_signing_key_update_interval * 3600 * 1000);
     }
 
+    public int getAccessTokenVerificationCacheSize() {
+        return access_token_verification_cache_size;
+    }
+
+    public long getDashboardUserSearchCacheTTL() {
+        return dashboard_user_search_cache_ttl;
+    }
+
     public String[] getAPIKeys() {
         if (api_keys == null) {
             return null;
@@ -680,6 +768,10 @@ public class CoreConfig {
         return max_server_pool_size;
     }
 
+    public boolean getServerUseVirtualThreads() {
+        return server_use_virtual_threads;
+    }
+
     public boolean getHttpsEnabled() {
         return webserver_https_enabled;
     }
@@ -829,6 +921,14 @@ public class CoreConfig {
             throw new InvalidConfigException("'totp_rate_limit_cooldown_sec' must be > 0");
         }
 
+        if (access_token_verification_cache_size < 0) {
+            throw new InvalidConfigException("'access_token_verification_cache_size' must be >= 0");
+        }
+
+        if (dashboard_user_search_cache_ttl < 0) {
+            throw new InvalidConfigException("'dashboard_user_search_cache_ttl' must be >= 0");
+        }
+
         if (max_server_pool_size <= 0) {
             throw new InvalidConfigException(
                     "'max_server_pool_size' must be >= 1." +
@@ -898,7 +998,7 @@ public class CoreConfig {
                 throw new InvalidConfigException("'argon2_hashing_pool_size' must be >= 1");
             }
 
-            if (argon2_hashing_pool_size > max_server_pool_size) {
+            if (!server_use_virtual_threads && argon2_hashing_pool_size > max_server_pool_size) {
                 throw new InvalidConfigException(
                         "'argon2_hashing_pool_size' must be <= 'max_server_pool_size'");
             }
@@ -908,12 +1008,29 @@ public class CoreConfig {
             }
         }
 
+        if (bcrypt_hashing_pool_size < 0) {
+            throw new InvalidConfigException("'bcrypt_hashing_pool_size' must be >= 0");
+        }
+
+        // with virtual threads, max_server_pool_size no longer limits how many requests can hash at the same time
+        if (!server_use_virtual_threads && bcrypt_hashing_pool_size > max_server_pool_size) {
+            throw new InvalidConfigException("'bcrypt_hashing_pool_size' must be <= 'max_server_pool_size'");
+        }
+
+        if (password_hashing_max_wait_ms < 0) {
+            throw new InvalidConfigException("'password_hashing_max_wait_ms' must be >= 0");
+        }
+
         if (base_path != null && !base_path.equals("") && !base_path.equals("/")) {
             if (base_path.contains(" ")) {
                 throw new InvalidConfigException("Invalid characters in base_path config");
             }
         }
 
+        if (log_async_queue_size < 0) {
+            throw new InvalidConfigException("'log_async_queue_size' must be >= 0");
+        }
+
         if (!log_level.equalsIgnoreCase("info") && !log_level.equalsIgnoreCase("none")
                 && !log_level.equalsIgnoreCase("error") && !log_level.equalsIgnoreCase("warn")
                 && !log_level.equalsIgnoreCase("debug")) {
@@ -1059,6 +1176,12 @@ public class CoreConfig {
 
         firebase_password_hashing_pool_size = Math.max(1, firebase_password_hashing_pool_size);
 
+        if (bcrypt_hashing_pool_size == 0) {
+            // bcrypt hashes were not limited before this config was added, so by default we allow as many as there
+            // can be concurrent requests
+            bcrypt_hashing_pool_size = max_server_pool_size;
+        }
+
         if (api_keys != null) {
             String[] apiKeys = api_keys.trim().replaceAll("\\s", "").split(",");
             Arrays.sort(apiKeys);
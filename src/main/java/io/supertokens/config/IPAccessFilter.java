@@ -0,0 +1,73 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.config;
+
+import io.supertokens.pluginInterface.exceptions.InvalidConfigException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// The ip_allow_regex and ip_deny_regex of a tenant, compiled once when its config is loaded. The rules are the same as
+// the ones in tomcat's RemoteAddrFilter, which we used to create for every request.
+public class IPAccessFilter {
+
+    @Nullable
+    private final Pattern allow;
+
+    @Nullable
+    private final Pattern deny;
+
+    private IPAccessFilter(@Nullable Pattern allow, @Nullable Pattern deny) {
+        this.allow = allow;
+        this.deny = deny;
+    }
+
+    // returns null if the config has no IP access control
+    @Nullable
+    static IPAccessFilter fromConfig(CoreConfig config) throws InvalidConfigException {
+        String allow = config.getIpAllowRegex();
+        String deny = config.getIpDenyRegex();
+        if (allow == null && deny == null) {
+            return null;
+        }
+        return new IPAccessFilter(compile(allow, "ip_allow_regex"), compile(deny, "ip_deny_regex"));
+    }
+
+    private static Pattern compile(String regex, String configName) throws InvalidConfigException {
+        if (regex == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new InvalidConfigException("Provided regular expression is invalid for " + configName + " config");
+        }
+    }
+
+    public boolean isAllowed(@Nonnull String remoteAddr) {
+        if (this.deny != null && this.deny.matcher(remoteAddr).matches()) {
+            return false;
+        }
+        if (this.allow != null && this.allow.matcher(remoteAddr).matches()) {
+            return true;
+        }
+        // if only a deny regex is given, everything that it does not match is allowed
+        return this.deny != null && this.allow == null;
+    }
+}
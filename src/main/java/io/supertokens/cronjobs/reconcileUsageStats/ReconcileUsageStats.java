@@ -0,0 +1,75 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.cronjobs.reconcileUsageStats;
+
+import io.supertokens.Main;
+import io.supertokens.cronjobs.CronTask;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.usagestats.UsageStats;
+import org.jetbrains.annotations.TestOnly;
+
+// Counts the usage stats of the apps that keep them again, so that anything that was missed while keeping them
+// up-to-date from events is fixed.
+public class ReconcileUsageStats extends CronTask {
+
+    public static final String RESOURCE_KEY = "io.supertokens.cronjobs.reconcileUsageStats.ReconcileUsageStats";
+
+    private ReconcileUsageStats(Main main) {
+        super("ReconcileUsageStats", main, TenantIdentifier.BASE_TENANT);
+    }
+
+    public static ReconcileUsageStats init(Main main) {
+        return (ReconcileUsageStats) main.getResourceDistributor()
+                .setResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY, new ReconcileUsageStats(main));
+    }
+
+    @TestOnly
+    public static ReconcileUsageStats getInstance(Main main) {
+        try {
+            return (ReconcileUsageStats) main.getResourceDistributor()
+                    .getResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected void doTaskForTargetTenant(TenantIdentifier targetTenant) throws Exception {
+        UsageStats.reconcileAll(main);
+    }
+
+    @Override
+    public int getIntervalTimeSeconds() {
+        if (Main.isTesting) {
+            Integer interval = CronTaskTest.getInstance(main).getIntervalInSeconds(RESOURCE_KEY);
+            if (interval != null) {
+                return interval;
+            }
+        }
+        return 3600; // every hour
+    }
+
+    @Override
+    public int getInitialWaitTimeSeconds() {
+        if (Main.isTesting) {
+            return 0;
+        }
+        return getIntervalTimeSeconds();
+    }
+}
@@ -19,6 +19,7 @@ package io.supertokens.cronjobs.telemetry;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import io.supertokens.ActiveUsers;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.authRecipe.AuthRecipe;
@@ -29,7 +30,6 @@ import io.supertokens.dashboard.Dashboard;
 import io.supertokens.httpRequest.HttpRequest;
 import io.supertokens.httpRequest.HttpRequestMocking;
 import io.supertokens.multitenancy.Multitenancy;
-import io.supertokens.pluginInterface.ActiveUsersStorage;
 import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.Storage;
@@ -134,17 +134,11 @@ public class Telemetry extends CronTask {
             }
 
             { // MAUs
-                // Active users are always tracked on the public tenant, so we use the public tenant's storage
-                ActiveUsersStorage activeUsersStorage = (ActiveUsersStorage) StorageLayer.getStorage(
-                        app.getAsPublicTenantIdentifier(), main);
-
                 JsonArray mauArr = new JsonArray();
 
-                long now = System.currentTimeMillis();
-
-                for (int i = 1; i <= 31; i++) {
-                    long timestamp = now - (i * 24 * 60 * 60 * 1000L);
-                    int mau = activeUsersStorage.countUsersActiveSince(app, timestamp);
+                int[] maus = ActiveUsers.countUsersActiveSinceEachOfLastDays(main, app,
+                        System.currentTimeMillis(), 31);
+                for (int mau : maus) {
                     mauArr.add(new JsonPrimitive(mau));
                 }
 
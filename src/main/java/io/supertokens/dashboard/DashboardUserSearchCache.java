@@ -0,0 +1,160 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+
+package io.supertokens.dashboard;
+
+import io.supertokens.Main;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.pluginInterface.RECIPE_ID;
+import io.supertokens.pluginInterface.dashboard.DashboardSearchTags;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import org.jetbrains.annotations.TestOnly;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caches the ids of the users found by a search from the dashboard, so that the dashboard paging through or
+// refreshing the same search does not run the search queries again. Only the ids are cached, the users themselves are
+// always read from the db. Entries are kept for dashboard_user_search_cache_ttl, so a search may miss users that
+// signed up within that time.
+public class DashboardUserSearchCache extends ResourceDistributor.SingletonResource {
+    public static final String RESOURCE_KEY = "io.supertokens.dashboard.DashboardUserSearchCache";
+
+    // searches are made by people using the dashboard, so there should never be many of them at the same time
+    private static final int MAX_SIZE = 1000;
+
+    // removing expired entries requires going through the whole map, so we do it at most once in this interval
+    private static final long CLEANUP_INTERVAL_MS = 1000;
+
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastCleanupTime = 0;
+
+    private DashboardUserSearchCache() {
+    }
+
+    public static DashboardUserSearchCache getInstance(Main main, AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        try {
+            return (DashboardUserSearchCache) main.getResourceDistributor().getResource(appIdentifier, RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            // we only create the cache for apps that exist, same as in RequestStats
+            if (Multitenancy.getTenantInfo(main, appIdentifier.getAsPublicTenantIdentifier()) == null) {
+                throw e;
+            }
+            return (DashboardUserSearchCache) main.getResourceDistributor()
+                    .setResource(appIdentifier, RESOURCE_KEY, new DashboardUserSearchCache());
+        }
+    }
+
+    public static String getKey(TenantIdentifier tenantIdentifier, int limit, String timeJoinedOrder,
+                                @Nullable String paginationToken, @Nullable RECIPE_ID[] includeRecipeIds,
+                                @Nonnull DashboardSearchTags searchTags) {
+        RECIPE_ID[] recipeIds = includeRecipeIds == null ? null : includeRecipeIds.clone();
+        if (recipeIds != null) {
+            Arrays.sort(recipeIds);
+        }
+        return String.join(";", tenantIdentifier.getTenantId(), String.valueOf(limit), timeJoinedOrder,
+                String.valueOf(paginationToken), Arrays.toString(recipeIds), encodeTags(searchTags.emails),
+                encodeTags(searchTags.phoneNumbers), encodeTags(searchTags.providers));
+    }
+
+    // each tag is prefixed with its length, so that different lists of tags can't give the same key, whatever
+    // characters the tags contain. For example, the single tag "a, b" and the tags "a" and "b".
+    private static String encodeTags(@Nullable List<String> tags) {
+        if (tags == null) {
+            return "null";
+        }
+        StringBuilder result = new StringBuilder();
+        for (String tag : tags) {
+            result.append(tag.length()).append(':').append(tag);
+        }
+        return result.toString();
+    }
+
+    @Nullable
+    public CacheEntry get(@Nonnull String key) {
+        CacheEntry entry = this.cache.get(key);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+        if (entry.expiryTime < System.currentTimeMillis()) {
+            this.cache.remove(key, entry);
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        return entry;
+    }
+
+    public void put(@Nonnull String key, @Nonnull List<String> userIds, @Nullable String nextPaginationToken,
+                    long ttl) {
+        if (this.cache.size() >= MAX_SIZE) {
+            removeExpiredEntries();
+            if (this.cache.size() >= MAX_SIZE) {
+                return;
+            }
+        }
+        this.cache.put(key, new CacheEntry(List.copyOf(userIds), nextPaginationToken,
+                System.currentTimeMillis() + ttl));
+    }
+
+    private void removeExpiredEntries() {
+        long now = System.currentTimeMillis();
+        if (now - this.lastCleanupTime < CLEANUP_INTERVAL_MS) {
+            return;
+        }
+        this.lastCleanupTime = now;
+        this.cache.values().removeIf(entry -> entry.expiryTime < now);
+    }
+
+    @TestOnly
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    @TestOnly
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public static class CacheEntry {
+        // in the order in which they were returned by the search
+        public final List<String> userIds;
+
+        @Nullable
+        public final String nextPaginationToken;
+
+        final long expiryTime;
+
+        CacheEntry(List<String> userIds, @Nullable String nextPaginationToken, long expiryTime) {
+            this.userIds = userIds;
+            this.nextPaginationToken = nextPaginationToken;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
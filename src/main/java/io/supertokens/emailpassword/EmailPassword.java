@@ -59,6 +59,7 @@ import io.supertokens.pluginInterface.multitenancy.TenantConfig;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.utils.Utils;
 import io.supertokens.webserver.WebserverAPI;
 
@@ -113,6 +114,7 @@ public class EmailPassword {
         String hashedPassword = PasswordHashing.getInstance(main)
                 .createHashWithSalt(tenantIdentifier.toAppIdentifier(), password);
 
+        UsageStats.Generation usageStats = UsageStats.getGeneration(main, tenantIdentifier.toAppIdentifier());
         while (true) {
             String userId = Utils.getUUID();
             long timeJoined = System.currentTimeMillis();
@@ -120,6 +122,7 @@ public class EmailPassword {
             try {
                 AuthRecipeUserInfo newUser = StorageUtils.getEmailPasswordStorage(storage)
                         .signUp(tenantIdentifier, userId, email, hashedPassword, timeJoined);
+                UsageStats.userSignedUp(usageStats, tenantIdentifier);
 
                 if (Utils.isFakeEmail(email)) {
                     try {
@@ -188,7 +191,11 @@ public class EmailPassword {
 
         try {
             long timeJoined = System.currentTimeMillis();
+            UsageStats.Generation usageStats = UsageStats.getGeneration(main, tenantIdentifier.toAppIdentifier());
             response = createUserWithPasswordHash(tenantIdentifier, storage, email, passwordHash, timeJoined);
+            if (!response.didUserAlreadyExist) {
+                UsageStats.userSignedUp(usageStats, tenantIdentifier);
+            }
         } catch (DuplicateEmailException e) {
             AuthRecipeUserInfo[] allUsers = epStorage.listPrimaryUsersByEmail(tenantIdentifier, email);
             AuthRecipeUserInfo userInfoToBeUpdated = null;
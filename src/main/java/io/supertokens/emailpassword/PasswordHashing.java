@@ -16,6 +16,7 @@
 
 package io.supertokens.emailpassword;
 
+import com.google.gson.JsonObject;
 import de.mkammerer.argon2.Argon2;
 import de.mkammerer.argon2.Argon2Factory;
 import io.supertokens.Main;
@@ -23,34 +24,38 @@ import io.supertokens.ProcessState;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.config.Config;
 import io.supertokens.config.CoreConfig;
+import io.supertokens.emailpassword.exceptions.PasswordHashingOverloadedException;
 import io.supertokens.emailpassword.exceptions.UnsupportedPasswordHashingFormatException;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.webserver.LatencyHistogram;
 import org.jetbrains.annotations.TestOnly;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PasswordHashing extends ResourceDistributor.SingletonResource {
 
     private static final String RESOURCE_KEY = "io.supertokens.emailpassword.PasswordHashing";
     final static int ARGON2_SALT_LENGTH = 16;
     final static int ARGON2_HASH_LENGTH = 32;
-    final BlockingQueue<Object> argon2BoundedQueue;
-    final BlockingQueue<Object> firebaseSCryptBoundedQueue;
+    final HashingPool argon2Pool;
+    final HashingPool bcryptPool;
+    final HashingPool firebaseSCryptPool;
     final Main main;
 
     private final Map<String, String> cachedPasswordHashForTesting = new HashMap<>();
     public static boolean bypassHashCachingInTesting = false;
 
     private PasswordHashing(Main main) {
-        this.argon2BoundedQueue = new LinkedBlockingQueue<>(
-                Config.getBaseConfig(main).getArgon2HashingPoolSize());
-        this.firebaseSCryptBoundedQueue = new LinkedBlockingQueue<>(
+        this.argon2Pool = new HashingPool(Config.getBaseConfig(main).getArgon2HashingPoolSize());
+        this.bcryptPool = new HashingPool(Config.getBaseConfig(main).getBcryptHashingPoolSize());
+        this.firebaseSCryptPool = new HashingPool(
                 Config.getBaseConfig(main).getFirebaseSCryptPasswordHashingPoolSize());
         this.main = main;
     }
@@ -66,7 +71,7 @@ public class PasswordHashing extends ResourceDistributor.SingletonResource {
     public static PasswordHashing getInstance(Main main) {
         try {
             return (PasswordHashing) main.getResourceDistributor()
-                    .getResource(new TenantIdentifier(null, null, null), RESOURCE_KEY);
+                    .getResource(TenantIdentifier.BASE_TENANT, RESOURCE_KEY);
         } catch (TenantOrAppNotFoundException e) {
             throw new IllegalStateException(e);
         }
@@ -99,8 +104,8 @@ public class PasswordHashing extends ResourceDistributor.SingletonResource {
         if (Config.getConfig(tenantIdentifier, main).getPasswordHashingAlg() ==
                 CoreConfig.PASSWORD_HASHING_ALG.BCRYPT) {
             ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.PASSWORD_HASH_BCRYPT, null);
-            passwordHash = BCrypt.hashpw(password,
-                    BCrypt.gensalt(Config.getConfig(tenantIdentifier, main).getBcryptLogRounds()));
+            passwordHash = withConcurrencyLimited(() -> BCrypt.hashpw(password,
+                    BCrypt.gensalt(Config.getConfig(tenantIdentifier, main).getBcryptLogRounds())), this.bcryptPool);
         } else if (Config.getConfig(tenantIdentifier, main).getPasswordHashingAlg() ==
                 CoreConfig.PASSWORD_HASHING_ALG.ARGON2) {
             ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.PASSWORD_HASH_ARGON, null);
@@ -108,7 +113,7 @@ public class PasswordHashing extends ResourceDistributor.SingletonResource {
                     () -> argon2id.hash(Config.getConfig(tenantIdentifier, main).getArgon2Iterations(),
                             Config.getConfig(tenantIdentifier, main).getArgon2MemoryKb(),
                             Config.getConfig(tenantIdentifier, main).getArgon2Parallelism(),
-                            password.toCharArray()), this.argon2BoundedQueue);
+                            password.toCharArray()), this.argon2Pool);
         }
 
         try {
@@ -128,22 +133,45 @@ public class PasswordHashing extends ResourceDistributor.SingletonResource {
         T op() throws TenantOrAppNotFoundException;
     }
 
-    private <T> T withConcurrencyLimited(Func<T> func, BlockingQueue<Object> blockingQueue)
+    private <T> T withConcurrencyLimited(Func<T> func, HashingPool pool)
             throws TenantOrAppNotFoundException {
-        Object waiter = new Object();
+        long startTime = System.nanoTime();
+        if (!acquirePermit(pool.permits, Config.getBaseConfig(main).getPasswordHashingMaxWaitMs())) {
+            pool.rejected.increment();
+            throw new PasswordHashingOverloadedException(
+                    "Too many password hashing requests are waiting. Please try again later.");
+        }
+        long permitTime = System.nanoTime();
+        pool.waitTime.recordValue((permitTime - startTime) / 1000);
+        try {
+            return func.op();
+        } finally {
+            pool.permits.release();
+            pool.hashTime.recordValue((System.nanoTime() - permitTime) / 1000);
+        }
+    }
+
+    // waits for at most maxWaitMs (or forever if it's 0) for a permit. Interrupts don't stop the wait, but the thread's
+    // interrupt flag is restored once we are done waiting.
+    private static boolean acquirePermit(Semaphore permits, long maxWaitMs) {
+        if (maxWaitMs == 0) {
+            permits.acquireUninterruptibly();
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        boolean interrupted = false;
         try {
-            while (!blockingQueue.contains(waiter)) {
+            while (true) {
                 try {
-                    // put will wait for there to be an empty slot in the queue and return
-                    // only when there is a slot for waiter
-                    blockingQueue.put(waiter);
-                } catch (InterruptedException ignored) {
+                    return permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
                 }
             }
-
-            return func.op();
         } finally {
-            blockingQueue.remove(waiter);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
@@ -163,42 +191,86 @@ public class PasswordHashing extends ResourceDistributor.SingletonResource {
             ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.PASSWORD_VERIFY_ARGON, null);
             if (hash.startsWith("$argon2id")) {
                 return withConcurrencyLimited(() -> argon2id.verify(hash, password.toCharArray()),
-                        this.argon2BoundedQueue);
+                        this.argon2Pool);
             }
 
             if (hash.startsWith("$argon2i")) {
                 return withConcurrencyLimited(() -> argon2i.verify(hash, password.toCharArray()),
-                        this.argon2BoundedQueue);
+                        this.argon2Pool);
             }
 
             if (hash.startsWith("$argon2d")) {
                 return withConcurrencyLimited(() -> argon2d.verify(hash, password.toCharArray()),
-                        this.argon2BoundedQueue);
+                        this.argon2Pool);
             }
         } else if (PasswordHashingUtils.isInputHashInBcryptFormat(hash)) {
             ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.PASSWORD_VERIFY_BCRYPT, null);
             String bCryptPasswordHash = PasswordHashingUtils
                     .replaceUnsupportedIdentifierForBcryptPasswordHashVerification(hash);
-            return BCrypt.checkpw(password, bCryptPasswordHash);
+            return withConcurrencyLimited(() -> BCrypt.checkpw(password, bCryptPasswordHash), this.bcryptPool);
         } else if (ParsedFirebaseSCryptResponse.fromHashString(hash) != null) {
             ProcessState.getInstance(main).addState(ProcessState.PROCESS_STATE.PASSWORD_VERIFY_FIREBASE_SCRYPT, null);
             return withConcurrencyLimited(
                     () -> PasswordHashingUtils.verifyFirebaseSCryptPasswordHash(password, hash,
                             Config.getConfig(appIdentifier.getAsPublicTenantIdentifier(), main)
                                     .getFirebase_password_hashing_signer_key()),
-                    this.firebaseSCryptBoundedQueue);
+                    this.firebaseSCryptPool);
         }
 
         return false;
     }
 
+    public JsonObject getStats() {
+        JsonObject result = new JsonObject();
+        result.add("argon2", this.argon2Pool.getStats());
+        result.add("bcrypt", this.bcryptPool.getStats());
+        result.add("firebaseScrypt", this.firebaseSCryptPool.getStats());
+        return result;
+    }
+
+    // returns the number of hashes that are being computed right now
     @TestOnly
     public int getArgon2BlockedQueueSize() {
-        return this.argon2BoundedQueue.size();
+        return this.argon2Pool.getInUse();
+    }
+
+    @TestOnly
+    public int getBcryptBlockedQueueSize() {
+        return this.bcryptPool.getInUse();
     }
 
     @TestOnly
     public int getFirebaseSCryptBlockedQueueSize() {
-        return this.firebaseSCryptBoundedQueue.size();
+        return this.firebaseSCryptPool.getInUse();
+    }
+
+    // Limits how many hashes of one algorithm can be computed at the same time. The semaphore is fair, so threads get
+    // a permit in the order in which they started waiting for it.
+    static class HashingPool {
+        final int size;
+        final Semaphore permits;
+        final LongAdder rejected = new LongAdder();
+        final LatencyHistogram waitTime = new LatencyHistogram();
+        final LatencyHistogram hashTime = new LatencyHistogram();
+
+        HashingPool(int size) {
+            this.size = size;
+            this.permits = new Semaphore(size, true);
+        }
+
+        int getInUse() {
+            return this.size - this.permits.availablePermits();
+        }
+
+        JsonObject getStats() {
+            JsonObject result = new JsonObject();
+            result.addProperty("poolSize", this.size);
+            result.addProperty("inUse", getInUse());
+            result.addProperty("queueLength", this.permits.getQueueLength());
+            result.addProperty("rejected", this.rejected.sum());
+            result.add("waitTime", this.waitTime.getStats());
+            result.add("hashTime", this.hashTime.getStats());
+            return result;
+        }
     }
 }
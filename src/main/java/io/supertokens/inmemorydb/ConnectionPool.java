@@ -21,20 +21,34 @@ import org.sqlite.SQLiteConfig;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
 
 public class ConnectionPool extends ResourceDistributor.SingletonResource {
 
     private static final String RESOURCE_KEY = "io.supertokens.inmemorydb.ConnectionPool";
     private static String URL = "jdbc:sqlite:file::memory:?cache=shared";
 
+    // the maximum number of open connections that we keep around for reuse when they are not being used
+    private static final int MAX_IDLE_CONNECTIONS = 10;
+
     // we use this to keep all the information in memory across requests.
     private Connection alwaysAlive = null;
     private Lock lock = new Lock();
 
+    // used as a stack, so that the connection that was used last, whose statement cache is the most useful, is
+    // reused first
+    private final BlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>(MAX_IDLE_CONNECTIONS);
+    private volatile boolean closed = false;
+
     public ConnectionPool() throws SQLException {
+        this.alwaysAlive = createConnection();
+    }
+
+    private static Connection createConnection() throws SQLException {
         SQLiteConfig config = new SQLiteConfig();
         config.enforceForeignKeys(true);
-        this.alwaysAlive = DriverManager.getConnection(URL, config.toProperties());
+        return DriverManager.getConnection(URL, config.toProperties());
     }
 
     static boolean isAlreadyInitialised(Start start) {
@@ -50,10 +64,25 @@ public class ConnectionPool extends ResourceDistributor.SingletonResource {
         if (!start.enabled) {
             throw new SQLException("Storage layer disabled");
         }
-        SQLiteConfig config = new SQLiteConfig();
-        config.enforceForeignKeys(true);
-        return new ConnectionWithLocks(DriverManager.getConnection(URL, config.toProperties()),
-                ConnectionPool.getInstance(start));
+        ConnectionPool connectionPool = ConnectionPool.getInstance(start);
+        // we never wait for a connection to be returned, since a query can be run while the same thread holds
+        // another connection in a transaction
+        PooledConnection pooledConnection = connectionPool.idleConnections.pollFirst();
+        if (pooledConnection == null) {
+            pooledConnection = new PooledConnection(createConnection());
+        }
+        return new ConnectionWithLocks(pooledConnection, connectionPool);
+    }
+
+    void release(PooledConnection pooledConnection) {
+        if (this.closed || !this.idleConnections.offerFirst(pooledConnection)) {
+            pooledConnection.close();
+            return;
+        }
+        if (this.closed && this.idleConnections.remove(pooledConnection)) {
+            // the pool was closed while we were returning the connection
+            pooledConnection.close();
+        }
     }
 
     private static ConnectionPool getInstance(Start start) {
@@ -62,11 +91,17 @@ public class ConnectionPool extends ResourceDistributor.SingletonResource {
     }
 
     static void close(Start start) {
-        if (getInstance(start) == null) {
+        ConnectionPool connectionPool = getInstance(start);
+        if (connectionPool == null) {
             return;
         }
+        connectionPool.closed = true;
+        PooledConnection pooledConnection;
+        while ((pooledConnection = connectionPool.idleConnections.poll()) != null) {
+            pooledConnection.close();
+        }
         try {
-            getInstance(start).alwaysAlive.close();
+            connectionPool.alwaysAlive.close();
         } catch (Exception ignored) {
         }
     }
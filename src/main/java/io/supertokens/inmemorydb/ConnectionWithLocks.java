@@ -26,13 +26,21 @@ import java.util.concurrent.Executor;
 public class ConnectionWithLocks implements Connection {
 
     private Connection con;
+    private PooledConnection pooledConnection;
     private ConnectionPool connectionPool;
     private Set<String> lockedKeys = new HashSet<String>();
+    private boolean closed = false;
 
-    public synchronized void lock(String key) {
-        if (!this.lockedKeys.contains(key)) {
+    public void lock(String key) {
+        synchronized (this) {
+            if (this.lockedKeys.contains(key)) {
+                return;
+            }
+        }
+        // another connection can hold the key for a whole transaction, so we wait for it outside of the monitor
+        connectionPool.lock(key);
+        synchronized (this) {
             this.lockedKeys.add(key);
-            connectionPool.lock(key);
         }
     }
 
@@ -43,8 +51,9 @@ public class ConnectionWithLocks implements Connection {
         this.lockedKeys.clear();
     }
 
-    public ConnectionWithLocks(Connection con, ConnectionPool connectionPool) {
-        this.con = con;
+    ConnectionWithLocks(PooledConnection pooledConnection, ConnectionPool connectionPool) {
+        this.con = pooledConnection.getConnection();
+        this.pooledConnection = pooledConnection;
         this.connectionPool = connectionPool;
     }
 
@@ -55,7 +64,7 @@ public class ConnectionWithLocks implements Connection {
 
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        return con.prepareStatement(sql);
+        return pooledConnection.prepareStatement(sql);
     }
 
     @Override
@@ -98,16 +107,33 @@ public class ConnectionWithLocks implements Connection {
 
     @Override
     public void close() throws SQLException {
+        // the underlying connection is returned to the pool instead of being closed
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+        boolean reusable = false;
         try {
-            con.close();
+            if (!con.getAutoCommit()) {
+                con.rollback();
+                con.setAutoCommit(true);
+            }
+            reusable = true;
         } finally {
             this.unlockAllLocks();
+            if (reusable) {
+                connectionPool.release(pooledConnection);
+            } else {
+                pooledConnection.close();
+            }
         }
     }
 
     @Override
-    public boolean isClosed() throws SQLException {
-        return con.isClosed();
+    public synchronized boolean isClosed() throws SQLException {
+        return this.closed || con.isClosed();
     }
 
     @Override
@@ -16,35 +16,42 @@
 
 package io.supertokens.inmemorydb;
 
-import java.util.HashSet;
-import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+// Row locks for the in memory db, which does not support SELECT ... FOR UPDATE. Each locked key has its own fair
+// semaphore, so unlocking a key only wakes up the oldest thread waiting for that key. A key is removed once no thread
+// holds it or waits for it.
+//
+// We use a semaphore and not a ReentrantLock since the keys are held by a connection and not by a thread. Locking a
+// key that is already held blocks, even if it is held by the same thread, like before.
 class Lock {
 
-    private Set<String> lockedKeys = new HashSet<>();
-    private final Object waitMutex = new Object();
+    private final ConcurrentHashMap<String, KeyLock> keyLocks = new ConcurrentHashMap<>();
 
     void lock(String name) {
-        synchronized (this.waitMutex) {
-            while (true) {
-                if (!this.lockedKeys.contains(name)) {
-                    this.lockedKeys.add(name);
-                    return;
-                }
-
-                try {
-                    this.waitMutex.wait();
-                } catch (InterruptedException ignored) {
-                }
-            }
-        }
+        KeyLock keyLock = this.keyLocks.compute(name, (key, existing) -> {
+            KeyLock result = existing == null ? new KeyLock() : existing;
+            result.users++;
+            return result;
+        });
+        keyLock.semaphore.acquireUninterruptibly();
     }
 
     void unlock(String name) {
-        synchronized (this.waitMutex) {
-            this.lockedKeys.remove(name);
-            this.waitMutex.notifyAll();
+        KeyLock keyLock = this.keyLocks.get(name);
+        if (keyLock == null) {
+            return;
         }
+        keyLock.semaphore.release();
+        this.keyLocks.computeIfPresent(name, (key, existing) -> --existing.users == 0 ? null : existing);
     }
 
+    private static class KeyLock {
+        private final Semaphore semaphore = new Semaphore(1, true);
+
+        // the number of threads that hold or wait for this key. This is only changed inside compute calls of the
+        // map, which are atomic for a key.
+        private int users = 0;
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.inmemorydb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A connection to the in memory db that is kept open by ConnectionPool and reused across queries. It keeps the most
+// recently used prepared statements, so that running the same query again does not need to prepare it again.
+class PooledConnection {
+
+    private static final int STATEMENT_CACHE_SIZE = 100;
+
+    private final Connection connection;
+
+    // in access order, so that the least recently used statement is removed first
+    private final LinkedHashMap<String, CachedPreparedStatement> statementCache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPreparedStatement> eldest) {
+                    if (size() <= STATEMENT_CACHE_SIZE) {
+                        return false;
+                    }
+                    CachedPreparedStatement statement = eldest.getValue();
+                    if (statement.inUse) {
+                        statement.evicted = true;
+                    } else {
+                        statement.closeStatement();
+                    }
+                    return true;
+                }
+            };
+
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    Connection getConnection() {
+        return this.connection;
+    }
+
+    synchronized PreparedStatement prepareStatement(String sql) throws SQLException {
+        CachedPreparedStatement cached = this.statementCache.get(sql);
+        if (cached == null) {
+            cached = new CachedPreparedStatement(this.connection.prepareStatement(sql), this, sql);
+            this.statementCache.put(sql, cached);
+        } else if (cached.inUse) {
+            // the same query is already running on this connection, for example while going through its results,
+            // so we give out a separate statement that is closed as usual
+            return this.connection.prepareStatement(sql);
+        }
+        cached.inUse = true;
+        return cached;
+    }
+
+    synchronized void release(CachedPreparedStatement statement) {
+        if (!statement.inUse) {
+            return;
+        }
+        statement.inUse = false;
+        if (statement.evicted) {
+            statement.closeStatement();
+            return;
+        }
+        try {
+            statement.reset();
+        } catch (SQLException e) {
+            // we don't reuse a statement whose state we could not clear
+            this.statementCache.remove(statement.getSql(), statement);
+            statement.closeStatement();
+        }
+    }
+
+    synchronized void close() {
+        for (CachedPreparedStatement statement : this.statementCache.values()) {
+            statement.closeStatement();
+        }
+        this.statementCache.clear();
+        try {
+            this.connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package io.supertokens.inmemorydb;
 
 import com.google.gson.JsonObject;
+import io.supertokens.BulkActiveUsersStorage;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.inmemorydb.config.Config;
@@ -107,6 +108,8 @@ import io.supertokens.pluginInterface.webauthn.WebAuthNOptions;
 import io.supertokens.pluginInterface.webauthn.WebAuthNStoredCredential;
 import io.supertokens.pluginInterface.webauthn.exceptions.*;
 import io.supertokens.pluginInterface.webauthn.slqStorage.WebAuthNSQLStorage;
+import io.supertokens.session.BulkSessionStorage;
+import io.supertokens.userroles.BulkUserRolesStorage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 import org.sqlite.SQLiteException;
@@ -123,7 +126,7 @@ public class Start
         JWTRecipeSQLStorage, PasswordlessSQLStorage, UserMetadataSQLStorage, UserRolesSQLStorage, UserIdMappingStorage,
         UserIdMappingSQLStorage, MultitenancyStorage, MultitenancySQLStorage, TOTPSQLStorage, ActiveUsersStorage,
         ActiveUsersSQLStorage, DashboardSQLStorage, AuthRecipeSQLStorage, OAuthStorage, OAuthSQLStorage,
-        WebAuthNSQLStorage, SAMLStorage {
+        WebAuthNSQLStorage, SAMLStorage, BulkSessionStorage, BulkActiveUsersStorage, BulkUserRolesStorage {
 
     private static final Object appenderLock = new Object();
     private static final String ACCESS_TOKEN_SIGNING_KEY_NAME = "access_token_signing_key";
@@ -465,6 +468,27 @@ public class Start
         }
     }
 
+    @Override
+    public String[] deleteSessionsAndGetDeletedHandles(TenantIdentifier tenantIdentifier, String[] sessionHandles)
+            throws StorageQueryException {
+        try {
+            return SessionQueries.deleteSessionsAndGetDeletedHandles(this, tenantIdentifier, sessionHandles);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
+    @Override
+    public Map<String, List<String>> getAllNonExpiredSessionHandlesForUsers(AppIdentifier appIdentifier,
+                                                                             Set<String> userIds)
+            throws StorageQueryException {
+        try {
+            return SessionQueries.getAllNonExpiredSessionHandlesForUsers(this, appIdentifier, userIds);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
     @Override
     public String[] getAllNonExpiredSessionHandlesForUser(TenantIdentifier tenantIdentifier, String userId)
             throws StorageQueryException {
@@ -1347,6 +1371,28 @@ public class Start
         }
     }
 
+    @Override
+    public int[] countUsersActiveSinceEachOfLastDays(AppIdentifier appIdentifier, long now, int days)
+            throws StorageQueryException {
+        try {
+            return ActiveUsersQueries.countUsersActiveSinceEachOfLastDays(this, appIdentifier, now, days);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
+    @Override
+    public int[] countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+            AppIdentifier appIdentifier, long now, int days)
+            throws StorageQueryException {
+        try {
+            return ActiveUsersQueries.countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+                    this, appIdentifier, now, days);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
     @Override
     public void deleteUserActive_Transaction(TransactionConnection con, AppIdentifier appIdentifier, String userId)
             throws StorageQueryException {
@@ -2049,6 +2095,16 @@ public class Start
         }
     }
 
+    @Override
+    public Map<String, List<String>> getRolesForUsers(TenantIdentifier tenantIdentifier, List<String> userIds)
+            throws StorageQueryException {
+        try {
+            return UserRolesQueries.getRolesForUsers(this, tenantIdentifier, userIds);
+        } catch (SQLException e) {
+            throw new StorageQueryException(e);
+        }
+    }
+
     private String[] getRolesForUser(AppIdentifier appIdentifier, String userId) throws
             StorageQueryException {
         try {
@@ -165,6 +165,10 @@ public class SQLiteConfig {
         return "dashboard_user_sessions";
     }
 
+    public String getDashboardUserSearchIndexTable() {
+        return "dashboard_user_search_index";
+    }
+
     public String getOAuthClientsTable() {
         return "oauth_clients";
     }
@@ -1,6 +1,7 @@
 package io.supertokens.inmemorydb.queries;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import io.supertokens.inmemorydb.config.Config;
@@ -44,6 +45,66 @@ public class ActiveUsersQueries {
         });
     }
 
+    public static int[] countUsersActiveSinceEachOfLastDays(Start start, AppIdentifier appIdentifier, long now,
+                                                            int days)
+            throws SQLException, StorageQueryException {
+        long dayInMillis = 24 * 60 * 60 * 1000L;
+        // each user has one row, so we count the users by how many days before now they were last active (rounded
+        // up), and add up those counts to get the number of users active since each day
+        String QUERY = "SELECT (? - last_active_time + " + (dayInMillis - 1) + ") / " + dayInMillis
+                + " AS days_ago, COUNT(*) as total FROM " + Config.getConfig(start).getUserLastActiveTable()
+                + " WHERE app_id = ? AND last_active_time >= ? GROUP BY days_ago";
+
+        return execute(start, QUERY, pst -> {
+            pst.setLong(1, now);
+            pst.setString(2, appIdentifier.getAppId());
+            pst.setLong(3, now - days * dayInMillis);
+        }, result -> getActiveSinceEachDay(result, days));
+    }
+
+    // same as countUsersActiveSinceEachOfLastDays, but only counts the users that
+    // countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSince would count
+    public static int[] countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+            Start start, AppIdentifier appIdentifier, long now, int days)
+            throws SQLException, StorageQueryException {
+        long dayInMillis = 24 * 60 * 60 * 1000L;
+        String QUERY = "SELECT (? - last_active_time + " + (dayInMillis - 1) + ") / " + dayInMillis
+                + " AS days_ago, COUNT(*) as total FROM " + Config.getConfig(start).getUserLastActiveTable()
+                + " WHERE app_id = ? AND last_active_time >= ? AND ("
+                + "   user_id IN (" // users with more than one login method
+                + "     SELECT primary_or_recipe_user_id FROM " + Config.getConfig(start).getAppIdToUserIdTable()
+                + "     WHERE app_id = ? GROUP BY primary_or_recipe_user_id HAVING COUNT(user_id) > 1"
+                + "   )"
+                + "   OR user_id IN (" // TOTP users
+                + "     SELECT user_id FROM " + Config.getConfig(start).getTotpUsersTable() + " WHERE app_id = ?"
+                + "   )"
+                + " ) GROUP BY days_ago";
+
+        return execute(start, QUERY, pst -> {
+            pst.setLong(1, now);
+            pst.setString(2, appIdentifier.getAppId());
+            pst.setLong(3, now - days * dayInMillis);
+            pst.setString(4, appIdentifier.getAppId());
+            pst.setString(5, appIdentifier.getAppId());
+        }, result -> getActiveSinceEachDay(result, days));
+    }
+
+    private static int[] getActiveSinceEachDay(ResultSet result, int days) throws SQLException {
+        int[] activeOnDay = new int[days + 1];
+        while (result.next()) {
+            // users that were active after the given time are counted as active on the last day
+            activeOnDay[Math.max(0, result.getInt("days_ago"))] += result.getInt("total");
+        }
+
+        int[] activeSince = new int[days];
+        int total = activeOnDay[0];
+        for (int i = 1; i <= days; i++) {
+            total += activeOnDay[i];
+            activeSince[i - 1] = total;
+        }
+        return activeSince;
+    }
+
     public static int countUsersActiveSinceAndHasMoreThanOneLoginMethod(Start start, AppIdentifier appIdentifier,
                                                                         long sinceTime)
             throws SQLException, StorageQueryException {
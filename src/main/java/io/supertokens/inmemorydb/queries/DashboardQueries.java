@@ -21,21 +21,34 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 
 import io.supertokens.inmemorydb.ResultSetValueExtractor;
 import io.supertokens.inmemorydb.Start;
 import io.supertokens.inmemorydb.config.Config;
+import io.supertokens.pluginInterface.RECIPE_ID;
 import io.supertokens.pluginInterface.RowMapper;
 import io.supertokens.pluginInterface.dashboard.DashboardSessionInfo;
 import io.supertokens.pluginInterface.dashboard.DashboardUser;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.execute;
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.update;
+import static io.supertokens.pluginInterface.RECIPE_ID.EMAIL_PASSWORD;
+import static io.supertokens.pluginInterface.RECIPE_ID.PASSWORDLESS;
+import static io.supertokens.pluginInterface.RECIPE_ID.THIRD_PARTY;
+import static io.supertokens.pluginInterface.RECIPE_ID.WEBAUTHN;
 
 public class DashboardQueries {
+
+    static final String SEARCH_TOKEN_EMAIL = "email";
+    static final String SEARCH_TOKEN_EMAIL_DOMAIN = "email_domain";
+    static final String SEARCH_TOKEN_PHONE = "phone";
+    static final String SEARCH_TOKEN_PROVIDER = "provider";
+
     public static String getQueryToCreateDashboardUsersTable(Start start) {
         String dashboardUsersTable = Config.getConfig(start).getDashboardUsersTable();
         // @formatter:off
@@ -73,6 +86,151 @@ public class DashboardQueries {
                 + Config.getConfig(start).getDashboardSessionsTable() + "(expiry);";
     }
 
+    // The lower cased emails, email domains, phone numbers and third party ids of the users of each tenant, so that the
+    // dashboard can search for users by a prefix of these with a range lookup on the primary key, instead of a LIKE on
+    // every row of each recipe's table. The rows are added and updated by the triggers below, and removed with the
+    // user (or when the user is removed from the tenant) by the foreign key.
+    static String getQueryToCreateDashboardUserSearchIndexTable(Start start) {
+        String tableName = Config.getConfig(start).getDashboardUserSearchIndexTable();
+        // @formatter:off
+        return "CREATE TABLE IF NOT EXISTS " + tableName + " ("
+                + "app_id VARCHAR(64) DEFAULT 'public',"
+                + "tenant_id VARCHAR(64) DEFAULT 'public',"
+                + "user_id CHAR(36) NOT NULL,"
+                + "recipe_id VARCHAR(128) NOT NULL,"
+                + "token_type VARCHAR(16) NOT NULL,"
+                + "token VARCHAR(256) NOT NULL,"
+                + "PRIMARY KEY (app_id, tenant_id, recipe_id, token_type, token, user_id),"
+                + "FOREIGN KEY (app_id, tenant_id, user_id)"
+                + " REFERENCES " + Config.getConfig(start).getUsersTable() +
+                "(app_id, tenant_id, user_id) ON DELETE CASCADE"
+                + ");";
+        // @formatter:on
+    }
+
+    static String getQueryToCreateDashboardUserSearchIndexUserIdIndex(Start start) {
+        return "CREATE INDEX dashboard_user_search_index_user_id_index ON "
+                + Config.getConfig(start).getDashboardUserSearchIndexTable() + "(app_id, tenant_id, user_id);";
+    }
+
+    static List<String> getQueriesToCreateDashboardUserSearchIndexTriggers(Start start) {
+        String emailPasswordTable = Config.getConfig(start).getEmailPasswordUserToTenantTable();
+        String thirdPartyUsersTable = Config.getConfig(start).getThirdPartyUsersTable();
+        String thirdPartyTable = Config.getConfig(start).getThirdPartyUserToTenantTable();
+        String passwordlessTable = Config.getConfig(start).getPasswordlessUserToTenantTable();
+        String webauthnTable = Config.getConfig(start).getWebAuthNUserToTenantTable();
+        String newUser = "NEW.app_id, NEW.tenant_id, NEW.user_id";
+
+        List<String> queries = new ArrayList<>();
+
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_emailpassword_insert",
+                "AFTER INSERT ON " + emailPasswordTable,
+                getQueriesToAddEmailSearchTokens(start, EMAIL_PASSWORD, newUser, "NEW.email", "", null)));
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_emailpassword_update",
+                "AFTER UPDATE OF email ON " + emailPasswordTable,
+                getQueryToDeleteSearchTokensOfNewUser(start, SEARCH_TOKEN_EMAIL, SEARCH_TOKEN_EMAIL_DOMAIN)
+                        + getQueriesToAddEmailSearchTokens(start, EMAIL_PASSWORD, newUser, "NEW.email", "", null)));
+
+        // the email of a third party user is in the users table of the recipe, which has a row for each user in the
+        // app, and is added before the user is added to any tenant
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_thirdparty_insert",
+                "AFTER INSERT ON " + thirdPartyTable,
+                getQueryToAddSearchToken(start, THIRD_PARTY, SEARCH_TOKEN_PROVIDER, newUser,
+                        "lower(NEW.third_party_id)", "", null)
+                        + getQueriesToAddEmailSearchTokens(start, THIRD_PARTY, newUser, "tp.email",
+                        " FROM " + thirdPartyUsersTable + " AS tp",
+                        "tp.app_id = NEW.app_id AND tp.user_id = NEW.user_id")));
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_thirdparty_update",
+                "AFTER UPDATE OF email ON " + thirdPartyUsersTable,
+                "DELETE FROM " + Config.getConfig(start).getDashboardUserSearchIndexTable()
+                        + " WHERE app_id = NEW.app_id AND user_id = NEW.user_id AND token_type IN ('"
+                        + SEARCH_TOKEN_EMAIL + "', '" + SEARCH_TOKEN_EMAIL_DOMAIN + "');"
+                        + getQueriesToAddEmailSearchTokens(start, THIRD_PARTY,
+                        "tp_tenants.app_id, tp_tenants.tenant_id, tp_tenants.user_id", "NEW.email",
+                        " FROM " + thirdPartyTable + " AS tp_tenants",
+                        "tp_tenants.app_id = NEW.app_id AND tp_tenants.user_id = NEW.user_id")));
+
+        String passwordlessTokens = getQueriesToAddEmailSearchTokens(start, PASSWORDLESS, newUser, "NEW.email", "",
+                null)
+                + getQueryToAddSearchToken(start, PASSWORDLESS, SEARCH_TOKEN_PHONE, newUser,
+                "lower(NEW.phone_number)", "", "NEW.phone_number IS NOT NULL");
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_passwordless_insert",
+                "AFTER INSERT ON " + passwordlessTable, passwordlessTokens));
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_passwordless_update",
+                "AFTER UPDATE OF email, phone_number ON " + passwordlessTable,
+                getQueryToDeleteSearchTokensOfNewUser(start, SEARCH_TOKEN_EMAIL, SEARCH_TOKEN_EMAIL_DOMAIN,
+                        SEARCH_TOKEN_PHONE) + passwordlessTokens));
+
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_webauthn_insert",
+                "AFTER INSERT ON " + webauthnTable,
+                getQueriesToAddEmailSearchTokens(start, WEBAUTHN, newUser, "NEW.email", "", null)));
+        queries.add(getQueryToCreateTrigger("dashboard_user_search_index_webauthn_update",
+                "AFTER UPDATE OF email ON " + webauthnTable,
+                getQueryToDeleteSearchTokensOfNewUser(start, SEARCH_TOKEN_EMAIL, SEARCH_TOKEN_EMAIL_DOMAIN)
+                        + getQueriesToAddEmailSearchTokens(start, WEBAUTHN, newUser, "NEW.email", "", null)));
+
+        return queries;
+    }
+
+    private static String getQueryToCreateTrigger(String name, String event, String statements) {
+        return "CREATE TRIGGER IF NOT EXISTS " + name + " " + event + " FOR EACH ROW BEGIN " + statements + " END;";
+    }
+
+    private static String getQueryToDeleteSearchTokensOfNewUser(Start start, String... tokenTypes) {
+        return "DELETE FROM " + Config.getConfig(start).getDashboardUserSearchIndexTable()
+                + " WHERE app_id = NEW.app_id AND tenant_id = NEW.tenant_id AND user_id = NEW.user_id"
+                + " AND token_type IN ('" + String.join("', '", tokenTypes) + "');";
+    }
+
+    // an email is indexed as is, and by its domain, so that searching for "example" finds "someone@example.com" like
+    // the LIKE '%@example%' that we used before
+    private static String getQueriesToAddEmailSearchTokens(Start start, RECIPE_ID recipeId, String userColumns,
+                                                           String emailExpression, String from,
+                                                           @Nullable String condition) {
+        String prefix = condition == null ? "" : condition + " AND ";
+        return getQueryToAddSearchToken(start, recipeId, SEARCH_TOKEN_EMAIL, userColumns,
+                "lower(" + emailExpression + ")", from, prefix + emailExpression + " IS NOT NULL")
+                + getQueryToAddSearchToken(start, recipeId, SEARCH_TOKEN_EMAIL_DOMAIN, userColumns,
+                "lower(substr(" + emailExpression + ", instr(" + emailExpression + ", '@') + 1))", from,
+                prefix + "instr(" + emailExpression + ", '@') > 0");
+    }
+
+    private static String getQueryToAddSearchToken(Start start, RECIPE_ID recipeId, String tokenType,
+                                                   String userColumns, String tokenExpression, String from,
+                                                   @Nullable String condition) {
+        return "INSERT OR IGNORE INTO " + Config.getConfig(start).getDashboardUserSearchIndexTable()
+                + "(app_id, tenant_id, user_id, recipe_id, token_type, token)"
+                + " SELECT " + userColumns + ", '" + recipeId.toString() + "', '" + tokenType + "', "
+                + tokenExpression + from + (condition == null ? "" : " WHERE " + condition) + ";";
+    }
+
+    // returns a query for the ids of the users of the recipe in the tenant that have a token of one of the given types
+    // that starts with one of the given tags. The parameters of the query are added to queryList.
+    static String getQueryToSearchUserIds(Start start, TenantIdentifier tenantIdentifier, RECIPE_ID recipeId,
+                                          List<String> tags, String[] tokenTypes, List<String> queryList) {
+        StringBuilder QUERY = new StringBuilder("SELECT user_id FROM ")
+                .append(Config.getConfig(start).getDashboardUserSearchIndexTable())
+                .append(" WHERE app_id = ? AND tenant_id = ? AND recipe_id = ? AND (");
+        queryList.add(tenantIdentifier.getAppId());
+        queryList.add(tenantIdentifier.getTenantId());
+        queryList.add(recipeId.toString());
+        boolean first = true;
+        for (String tag : tags) {
+            for (String tokenType : tokenTypes) {
+                if (!first) {
+                    QUERY.append(" OR ");
+                }
+                first = false;
+                // char(1114111) is the largest code point, so this matches all the tokens that start with the tag
+                QUERY.append("(token_type = '").append(tokenType)
+                        .append("' AND token >= lower(?) AND token < lower(?) || char(1114111))");
+                queryList.add(tag);
+                queryList.add(tag);
+            }
+        }
+        return QUERY.append(")").toString();
+    }
+
     public static void createDashboardUser(Start start, AppIdentifier appIdentifier, String userId, String email,
                                            String passwordHash, long timeJoined)
             throws SQLException, StorageQueryException {
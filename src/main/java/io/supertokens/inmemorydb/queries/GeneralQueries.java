@@ -517,6 +517,19 @@ public class GeneralQueries {
             update(start, WebAuthNQueries.getQueryToCreateWebAuthNCredentialsUserIdIndex(start), NO_OP_SETTER);
         }
 
+        // this must be created after the tables of the recipes, since its triggers are on those tables
+        if (!doesTableExists(start, Config.getConfig(start).getDashboardUserSearchIndexTable())) {
+            getInstance(main).addState(CREATING_NEW_TABLE, null);
+            update(start, DashboardQueries.getQueryToCreateDashboardUserSearchIndexTable(start), NO_OP_SETTER);
+
+            // index
+            update(start, DashboardQueries.getQueryToCreateDashboardUserSearchIndexUserIdIndex(start), NO_OP_SETTER);
+
+            for (String query : DashboardQueries.getQueriesToCreateDashboardUserSearchIndexTriggers(start)) {
+                update(start, query, NO_OP_SETTER);
+            }
+        }
+
         // SAML tables
         if (!doesTableExists(start, Config.getConfig(start).getSAMLClientsTable())) {
             getInstance(main).addState(CREATING_NEW_TABLE, null);
@@ -736,207 +749,76 @@ public class GeneralQueries {
             {
                 StringBuilder USER_SEARCH_TAG_CONDITION = new StringBuilder();
 
+                // each recipe's users are looked up by prefix in the search index table, see DashboardQueries
                 {
                     // check if we should search through the emailpassword table
                     if (dashboardSearchTags.shouldEmailPasswordTableBeSearched()) {
-                        String QUERY = "SELECT  allAuthUsersTable.*" + " FROM " + getConfig(start).getUsersTable()
-                                + " AS allAuthUsersTable" +
-                                " JOIN " + getConfig(start).getEmailPasswordUserToTenantTable()
-                                + " AS emailpasswordTable ON allAuthUsersTable.app_id = emailpasswordTable.app_id AND "
-                                + "allAuthUsersTable.tenant_id = emailpasswordTable.tenant_id AND "
-                                + "allAuthUsersTable.user_id = emailpasswordTable.user_id";
-
-                        // attach email tags to queries
-                        QUERY = QUERY +
-                                " WHERE (emailpasswordTable.app_id = ? AND emailpasswordTable.tenant_id = ?) AND"
-                                + " ( emailpasswordTable.email LIKE ? OR emailpasswordTable.email LIKE ? ";
-                        queryList.add(tenantIdentifier.getAppId());
-                        queryList.add(tenantIdentifier.getTenantId());
-                        queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                        queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-                        for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                            QUERY += " OR emailpasswordTable.email LIKE ? OR emailpasswordTable.email LIKE ?";
-                            queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                        }
-
-                        QUERY += " )";
-
-                        USER_SEARCH_TAG_CONDITION.append("SELECT * FROM ( ").append(QUERY)
-                                .append(" LIMIT 1000) AS emailpasswordResultTable");
+                        List<String> subQueryList = new ArrayList<>();
+                        String subQuery = DashboardQueries.getQueryToSearchUserIds(start, tenantIdentifier,
+                                EMAIL_PASSWORD, dashboardSearchTags.emails, EMAIL_SEARCH_TOKENS, subQueryList);
+                        appendSearchQuery(start, USER_SEARCH_TAG_CONDITION, queryList, tenantIdentifier,
+                                "emailpasswordResultTable", subQuery, subQueryList);
                     }
                 }
 
                 {
                     // check if we should search through the thirdparty table
                     if (dashboardSearchTags.shouldThirdPartyTableBeSearched()) {
-                        String QUERY = "SELECT  allAuthUsersTable.*" + " FROM " + getConfig(start).getUsersTable()
-                                + " AS allAuthUsersTable"
-                                + " JOIN " + getConfig(start).getThirdPartyUserToTenantTable()
-                                +
-                                " AS thirdPartyToTenantTable ON allAuthUsersTable.app_id = thirdPartyToTenantTable" +
-                                ".app_id AND"
-                                + " allAuthUsersTable.tenant_id = thirdPartyToTenantTable.tenant_id AND"
-                                + " allAuthUsersTable.user_id = thirdPartyToTenantTable.user_id"
-                                + " JOIN " + getConfig(start).getThirdPartyUsersTable()
-                                + " AS thirdPartyTable ON thirdPartyToTenantTable.app_id = thirdPartyTable.app_id AND"
-                                + " thirdPartyToTenantTable.user_id = thirdPartyTable.user_id";
+                        List<String> subQueries = new ArrayList<>();
+                        List<String> subQueryList = new ArrayList<>();
 
                         // check if email tag is present
                         if (dashboardSearchTags.emails != null) {
-
-                            QUERY +=
-                                    " WHERE (thirdPartyToTenantTable.app_id = ? AND thirdPartyToTenantTable.tenant_id" +
-                                            " = ?)"
-                                            + " AND ( thirdPartyTable.email LIKE ? OR thirdPartyTable.email LIKE ?";
-                            queryList.add(tenantIdentifier.getAppId());
-                            queryList.add(tenantIdentifier.getTenantId());
-                            queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-
-                            for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                                QUERY += " OR thirdPartyTable.email LIKE ? OR thirdPartyTable.email LIKE ?";
-                                queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                                queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                            }
-
-                            QUERY += " )";
-
+                            subQueries.add(DashboardQueries.getQueryToSearchUserIds(start, tenantIdentifier,
+                                    THIRD_PARTY, dashboardSearchTags.emails, EMAIL_SEARCH_TOKENS, subQueryList));
                         }
 
                         // check if providers tag is present
                         if (dashboardSearchTags.providers != null) {
-                            if (dashboardSearchTags.emails != null) {
-                                QUERY += " AND ";
-                            } else {
-                                QUERY += " WHERE (thirdPartyToTenantTable.app_id = ? AND thirdPartyToTenantTable" +
-                                        ".tenant_id = ?) AND ";
-                                queryList.add(tenantIdentifier.getAppId());
-                                queryList.add(tenantIdentifier.getTenantId());
-                            }
-
-                            QUERY += " ( thirdPartyTable.third_party_id LIKE ?";
-                            queryList.add(dashboardSearchTags.providers.get(0) + "%");
-                            for (int i = 1; i < dashboardSearchTags.providers.size(); i++) {
-                                QUERY += " OR thirdPartyTable.third_party_id LIKE ?";
-                                queryList.add(dashboardSearchTags.providers.get(i) + "%");
-                            }
-
-                            QUERY += " )";
+                            subQueries.add(DashboardQueries.getQueryToSearchUserIds(start, tenantIdentifier,
+                                    THIRD_PARTY, dashboardSearchTags.providers,
+                                    new String[]{DashboardQueries.SEARCH_TOKEN_PROVIDER}, subQueryList));
                         }
 
-                        // check if we need to append this to an existing search query
-                        if (USER_SEARCH_TAG_CONDITION.length() != 0) {
-                            USER_SEARCH_TAG_CONDITION.append(" UNION ").append("SELECT * FROM ( ").append(QUERY)
-                                    .append(" LIMIT 1000) AS thirdPartyResultTable");
-
-                        } else {
-                            USER_SEARCH_TAG_CONDITION.append("SELECT * FROM ( ").append(QUERY)
-                                    .append(" LIMIT 1000) AS thirdPartyResultTable");
-
-                        }
+                        // a user must match both the email and the provider tags if both are given
+                        appendSearchQuery(start, USER_SEARCH_TAG_CONDITION, queryList, tenantIdentifier,
+                                "thirdPartyResultTable", String.join(" INTERSECT ", subQueries), subQueryList);
                     }
                 }
 
                 {
                     // check if we should search through the passwordless table
                     if (dashboardSearchTags.shouldPasswordlessTableBeSearched()) {
-                        String QUERY = "SELECT  allAuthUsersTable.*" + " FROM " + getConfig(start).getUsersTable()
-                                + " AS allAuthUsersTable" +
-                                " JOIN " + getConfig(start).getPasswordlessUserToTenantTable()
-                                + " AS passwordlessTable ON allAuthUsersTable.app_id = passwordlessTable.app_id AND"
-                                + " allAuthUsersTable.tenant_id = passwordlessTable.tenant_id AND"
-                                + " allAuthUsersTable.user_id = passwordlessTable.user_id";
+                        List<String> subQueries = new ArrayList<>();
+                        List<String> subQueryList = new ArrayList<>();
 
                         // check if email tag is present
                         if (dashboardSearchTags.emails != null) {
-
-                            QUERY = QUERY + " WHERE (passwordlessTable.app_id = ? AND passwordlessTable.tenant_id = ?)"
-                                    + " AND ( passwordlessTable.email LIKE ? OR passwordlessTable.email LIKE ?";
-                            queryList.add(tenantIdentifier.getAppId());
-                            queryList.add(tenantIdentifier.getTenantId());
-                            queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-                            for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                                QUERY += " OR passwordlessTable.email LIKE ? OR passwordlessTable.email LIKE ?";
-                                queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                                queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                            }
-
-                            QUERY += " )";
+                            subQueries.add(DashboardQueries.getQueryToSearchUserIds(start, tenantIdentifier,
+                                    PASSWORDLESS, dashboardSearchTags.emails, EMAIL_SEARCH_TOKENS, subQueryList));
                         }
 
                         // check if phone tag is present
                         if (dashboardSearchTags.phoneNumbers != null) {
-
-                            if (dashboardSearchTags.emails != null) {
-                                QUERY += " AND ";
-                            } else {
-                                QUERY += " WHERE (passwordlessTable.app_id = ? AND passwordlessTable.tenant_id = ?) " +
-                                        "AND ";
-                                queryList.add(tenantIdentifier.getAppId());
-                                queryList.add(tenantIdentifier.getTenantId());
-                            }
-
-                            QUERY += " ( passwordlessTable.phone_number LIKE ?";
-                            queryList.add(dashboardSearchTags.phoneNumbers.get(0) + "%");
-                            for (int i = 1; i < dashboardSearchTags.phoneNumbers.size(); i++) {
-                                QUERY += " OR passwordlessTable.phone_number LIKE ?";
-                                queryList.add(dashboardSearchTags.phoneNumbers.get(i) + "%");
-                            }
-
-                            QUERY += " )";
+                            subQueries.add(DashboardQueries.getQueryToSearchUserIds(start, tenantIdentifier,
+                                    PASSWORDLESS, dashboardSearchTags.phoneNumbers,
+                                    new String[]{DashboardQueries.SEARCH_TOKEN_PHONE}, subQueryList));
                         }
 
-                        // check if we need to append this to an existing search query
-                        if (USER_SEARCH_TAG_CONDITION.length() != 0) {
-                            USER_SEARCH_TAG_CONDITION.append(" UNION ").append("SELECT * FROM ( ").append(QUERY)
-                                    .append(" LIMIT 1000) AS passwordlessResultTable");
-
-                        } else {
-                            USER_SEARCH_TAG_CONDITION.append("SELECT * FROM ( ").append(QUERY)
-                                    .append(" LIMIT 1000) AS passwordlessResultTable");
-
-                        }
+                        // a user must match both the email and the phone tags if both are given
+                        appendSearchQuery(start, USER_SEARCH_TAG_CONDITION, queryList, tenantIdentifier,
+                                "passwordlessResultTable", String.join(" INTERSECT ", subQueries), subQueryList);
                     }
                 }
 
                 {
                     // check if we should search through the webauthn table
                     if (dashboardSearchTags.shouldWebauthnTableBeSearched()) {
-                        String QUERY = "SELECT  allAuthUsersTable.*" + " FROM " + getConfig(start).getUsersTable()
-                                + " AS allAuthUsersTable" +
-                                " JOIN " + getConfig(start).getWebAuthNUserToTenantTable()
-                                + " AS webauthnTable ON allAuthUsersTable.app_id = webauthnTable.app_id AND "
-                                + "allAuthUsersTable.tenant_id = webauthnTable.tenant_id AND "
-                                + "allAuthUsersTable.user_id = webauthnTable.user_id";
-
-                        // attach email tags to queries
-                        QUERY = QUERY +
-                                " WHERE (webauthnTable.app_id = ? AND webauthnTable.tenant_id = ?) AND"
-                                + " ( webauthnTable.email LIKE ? OR webauthnTable.email LIKE ? ";
-                        queryList.add(tenantIdentifier.getAppId());
-                        queryList.add(tenantIdentifier.getTenantId());
-                        queryList.add(dashboardSearchTags.emails.get(0) + "%");
-                        queryList.add("%@" + dashboardSearchTags.emails.get(0) + "%");
-                        for (int i = 1; i < dashboardSearchTags.emails.size(); i++) {
-                            QUERY += " OR webauthnTable.email LIKE ? OR webauthnTable.email LIKE ?";
-                            queryList.add(dashboardSearchTags.emails.get(i) + "%");
-                            queryList.add("%@" + dashboardSearchTags.emails.get(i) + "%");
-                        }
-
-                        QUERY += " )";
-
-                        // check if we need to append this to an existing search query
-                        if (USER_SEARCH_TAG_CONDITION.length() != 0) {
-                            USER_SEARCH_TAG_CONDITION.append(" UNION ").append("SELECT * FROM ( ").append(QUERY)
-                                    .append(" LIMIT 1000) AS webauthnResultTable");
-
-                        } else {
-                            USER_SEARCH_TAG_CONDITION.append("SELECT * FROM ( ").append(QUERY)
-                                    .append(" LIMIT 1000) AS webauthnResultTable");
-
-                        }
+                        List<String> subQueryList = new ArrayList<>();
+                        String subQuery = DashboardQueries.getQueryToSearchUserIds(start, tenantIdentifier,
+                                WEBAUTHN, dashboardSearchTags.emails, EMAIL_SEARCH_TOKENS, subQueryList);
+                        appendSearchQuery(start, USER_SEARCH_TAG_CONDITION, queryList, tenantIdentifier,
+                                "webauthnResultTable", subQuery, subQueryList);
                     }
                 }
 
@@ -1064,6 +946,27 @@ public class GeneralQueries {
         return finalResult;
     }
 
+    private static final String[] EMAIL_SEARCH_TOKENS = new String[]{DashboardQueries.SEARCH_TOKEN_EMAIL,
+            DashboardQueries.SEARCH_TOKEN_EMAIL_DOMAIN};
+
+    // adds a query for the users of the tenant whose ids are returned by userIdsQuery to the union of search results
+    private static void appendSearchQuery(Start start, StringBuilder searchQuery, List<String> queryList,
+                                          TenantIdentifier tenantIdentifier, String alias, String userIdsQuery,
+                                          List<String> userIdsQueryList) {
+        String QUERY = "SELECT allAuthUsersTable.* FROM " + getConfig(start).getUsersTable()
+                + " AS allAuthUsersTable WHERE allAuthUsersTable.user_id IN (" + userIdsQuery + ")"
+                + " AND allAuthUsersTable.app_id = ? AND allAuthUsersTable.tenant_id = ?";
+        queryList.addAll(userIdsQueryList);
+        queryList.add(tenantIdentifier.getAppId());
+        queryList.add(tenantIdentifier.getTenantId());
+
+        // check if we need to append this to an existing search query
+        if (searchQuery.length() != 0) {
+            searchQuery.append(" UNION ");
+        }
+        searchQuery.append("SELECT * FROM ( ").append(QUERY).append(" LIMIT 1000) AS ").append(alias);
+    }
+
     public static void makePrimaryUser_Transaction(Start start, Connection sqlCon, AppIdentifier appIdentifier,
                                                    String userId)
             throws SQLException, StorageQueryException {
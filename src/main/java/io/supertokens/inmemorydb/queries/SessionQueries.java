@@ -33,7 +33,11 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.execute;
 import static io.supertokens.inmemorydb.QueryExecutorTemplate.update;
@@ -248,6 +252,53 @@ public class SessionQueries {
         });
     }
 
+    // the number of handles that we delete in one query. SQLite limits the number of parameters in a query, so a
+    // large revoke is split into several queries.
+    private static final int DELETE_SESSIONS_CHUNK_SIZE = 1000;
+
+    public static String[] deleteSessionsAndGetDeletedHandles(Start start, TenantIdentifier tenantIdentifier,
+                                                              String[] sessionHandles)
+            throws SQLException, StorageQueryException {
+        List<String> deletedHandles = new ArrayList<>();
+        for (int from = 0; from < sessionHandles.length; from += DELETE_SESSIONS_CHUNK_SIZE) {
+            String[] chunk = Arrays.copyOfRange(sessionHandles, from,
+                    Math.min(from + DELETE_SESSIONS_CHUNK_SIZE, sessionHandles.length));
+            deletedHandles.addAll(deleteSessionsAndGetDeletedHandlesInOneQuery(start, tenantIdentifier, chunk));
+        }
+        return deletedHandles.toArray(new String[0]);
+    }
+
+    private static List<String> deleteSessionsAndGetDeletedHandlesInOneQuery(Start start,
+                                                                             TenantIdentifier tenantIdentifier,
+                                                                             String[] sessionHandles)
+            throws SQLException, StorageQueryException {
+        StringBuilder QUERY = new StringBuilder(
+                "DELETE FROM " + Config.getConfig(start).getSessionInfoTable()
+                        + " WHERE app_id = ? AND tenant_id = ? AND session_handle IN (");
+        for (int i = 0; i < sessionHandles.length; i++) {
+            if (i == sessionHandles.length - 1) {
+                QUERY.append("?)");
+            } else {
+                QUERY.append("?, ");
+            }
+        }
+        QUERY.append(" RETURNING session_handle");
+
+        return execute(start, QUERY.toString(), pst -> {
+            pst.setString(1, tenantIdentifier.getAppId());
+            pst.setString(2, tenantIdentifier.getTenantId());
+            for (int i = 0; i < sessionHandles.length; i++) {
+                pst.setString(i + 3, sessionHandles[i]);
+            }
+        }, result -> {
+            List<String> deletedHandles = new ArrayList<>();
+            while (result.next()) {
+                deletedHandles.add(result.getString("session_handle"));
+            }
+            return deletedHandles;
+        });
+    }
+
     public static void deleteSessionsOfUser(Start start, AppIdentifier appIdentifier, String userId)
             throws SQLException, StorageQueryException {
         String QUERY = "DELETE FROM " + getConfig(start).getSessionInfoTable()
@@ -331,6 +382,40 @@ public class SessionQueries {
         });
     }
 
+    public static Map<String, List<String>> getAllNonExpiredSessionHandlesForUsers(Start start,
+                                                                             AppIdentifier appIdentifier,
+                                                                             Set<String> userIds)
+            throws SQLException, StorageQueryException {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        String[] userIdsArray = userIds.toArray(new String[0]);
+        StringBuilder QUERY = new StringBuilder("SELECT tenant_id, session_handle FROM "
+                + getConfig(start).getSessionInfoTable() + " WHERE app_id = ? AND expires_at >= ? AND user_id IN (");
+        for (int i = 0; i < userIdsArray.length; i++) {
+            if (i == userIdsArray.length - 1) {
+                QUERY.append("?)");
+            } else {
+                QUERY.append("?, ");
+            }
+        }
+
+        return execute(start, QUERY.toString(), pst -> {
+            pst.setString(1, appIdentifier.getAppId());
+            pst.setLong(2, currentTimeMillis());
+            for (int i = 0; i < userIdsArray.length; i++) {
+                pst.setString(i + 3, userIdsArray[i]);
+            }
+        }, result -> {
+            Map<String, List<String>> sessionHandlesByTenantId = new HashMap<>();
+            while (result.next()) {
+                sessionHandlesByTenantId.computeIfAbsent(result.getString("tenant_id"), k -> new ArrayList<>())
+                        .add(result.getString("session_handle"));
+            }
+            return sessionHandlesByTenantId;
+        });
+    }
+
     public static void deleteAllExpiredSessions(Start start) throws SQLException, StorageQueryException {
         String QUERY = "DELETE FROM " + getConfig(start).getSessionInfoTable() + " WHERE expires_at <= ?";
 
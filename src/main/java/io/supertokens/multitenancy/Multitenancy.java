@@ -256,6 +256,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
         try {
             StorageLayer.getMultitenancyStorage(main).createTenant(newTenant);
             creationInSharedDbSucceeded = true;
+            MultitenancyHelper.getInstance(main).markTenantsAsChangedInDb();
             // we do not want to refresh the resources for this new tenant here cause
             // it will cause creation of signing keys in the key_value table, which depends on
             // the tenant being there in the tenants table. But that insertion is done in the addTenantIdInUserPool
@@ -276,6 +277,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
             if (!creationInSharedDbSucceeded) {
                 try {
                     StorageLayer.getMultitenancyStorage(main).overwriteTenantConfig(newTenant);
+                    MultitenancyHelper.getInstance(main).markTenantsAsChangedInDb();
                     tenantsThatChanged = MultitenancyHelper.getInstance(main)
                             .refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(false);
 
@@ -330,6 +332,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
             // but not from the main table.
         }
         boolean didExist = StorageLayer.getMultitenancyStorage(main).deleteTenantInfoInBaseStorage(tenantIdentifier);
+        MultitenancyHelper.getInstance(main).markTenantsAsChangedInDb();
         MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
         return didExist;
     }
@@ -352,6 +355,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
             // but not from the main table.
         }
         boolean didExist = StorageLayer.getMultitenancyStorage(main).deleteAppInfoInBaseStorage(appIdentifier);
+        MultitenancyHelper.getInstance(main).markTenantsAsChangedInDb();
         MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
         return didExist;
     }
@@ -389,6 +393,7 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
         }
         boolean didExist = StorageLayer.getMultitenancyStorage(main)
                 .deleteConnectionUriDomainInfoInBaseStorage(connectionUriDomain);
+        MultitenancyHelper.getInstance(main).markTenantsAsChangedInDb();
         MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
         return didExist;
     }
@@ -575,62 +580,29 @@ public class Multitenancy extends ResourceDistributor.SingletonResource {
         return finalDidExist;
     }
 
+    // The returned config is shared and must not be modified.
     public static TenantConfig getTenantInfo(Main main, TenantIdentifier tenantIdentifier) {
         // we do not refresh the tenant list here cause this function is called
         // often from all the APIs and anyway, we have a cronjob that refreshes this list
         // regularly.
-        TenantConfig[] tenants = MultitenancyHelper.getInstance(main).getAllTenants();
-        for (TenantConfig t : tenants) {
-            if (t.tenantIdentifier.equals(tenantIdentifier)) {
-                return t;
-            }
-        }
-        return null;
+        return MultitenancyHelper.getInstance(main).getTenantInfo(tenantIdentifier);
     }
 
     public static TenantConfig[] getAllTenantsForApp(AppIdentifier appIdentifier, Main main) {
-        MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
-        TenantConfig[] tenants = MultitenancyHelper.getInstance(main).getAllTenants();
-        List<TenantConfig> tenantList = new ArrayList<>();
-
-        for (TenantConfig t : tenants) {
-            if (!t.tenantIdentifier.toAppIdentifier().equals(appIdentifier)) {
-                continue;
-            }
-            tenantList.add(t);
-        }
-
-        TenantConfig[] finalResult = new TenantConfig[tenantList.size()];
-        for (int i = 0; i < tenantList.size(); i++) {
-            finalResult[i] = tenantList.get(i);
-        }
-        return finalResult;
+        MultitenancyHelper.getInstance(main).refreshTenantsInCoreIfTenantsVersionChanged(true);
+        return MultitenancyHelper.getInstance(main).getAllTenantsForApp(appIdentifier);
     }
 
     public static TenantConfig[] getAllAppsAndTenantsForConnectionUriDomain(String connectionUriDomain, Main main) {
         if (connectionUriDomain == null) {
             connectionUriDomain = TenantIdentifier.DEFAULT_CONNECTION_URI;
         }
-        MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
-        TenantConfig[] tenants = MultitenancyHelper.getInstance(main).getAllTenants();
-        List<TenantConfig> tenantList = new ArrayList<>();
-
-        for (TenantConfig t : tenants) {
-            if (!t.tenantIdentifier.getConnectionUriDomain().equals(connectionUriDomain)) {
-                continue;
-            }
-            tenantList.add(t);
-        }
-
-        TenantConfig[] finalResult = new TenantConfig[tenantList.size()];
-        for (int i = 0; i < tenantList.size(); i++) {
-            finalResult[i] = tenantList.get(i);
-        }
-        return finalResult;
+        MultitenancyHelper.getInstance(main).refreshTenantsInCoreIfTenantsVersionChanged(true);
+        return MultitenancyHelper.getInstance(main).getAllTenantsForConnectionUriDomain(connectionUriDomain);
     }
 
     public static TenantConfig[] getAllTenants(Main main) {
-        MultitenancyHelper.getInstance(main).refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
+        MultitenancyHelper.getInstance(main).refreshTenantsInCoreIfTenantsVersionChanged(true);
         return MultitenancyHelper.getInstance(main).getAllTenants();
     }
 
@@ -28,6 +28,7 @@ import io.supertokens.jwt.exceptions.UnsupportedJWTSigningAlgorithmException;
 import io.supertokens.multitenancy.exception.BadPermissionException;
 import io.supertokens.multitenancy.exception.CannotModifyBaseConfigException;
 import io.supertokens.output.Logging;
+import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.exceptions.InvalidConfigException;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
@@ -51,18 +52,28 @@ import static io.supertokens.multitenancy.Multitenancy.getTenantInfo;
 public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
 
     public static final String RESOURCE_KEY = "io.supertokens.multitenancy.Multitenancy";
+
+    // Every time a core changes the tenants table, it saves a new random value against this key in the base storage.
+    // This lets us check if the list of tenants has changed with a single row read, instead of reading and comparing
+    // all the tenants.
+    public static final String TENANTS_VERSION_DB_KEY = "TENANTS_VERSION";
     private Main main;
-    private volatile TenantConfig[] tenantConfigs;
+    // replaced as a whole when the list of tenants changes, and never modified after being published
+    private volatile TenantsSnapshot tenantsSnapshot;
+
+    // the value of TENANTS_VERSION_DB_KEY when tenantsSnapshot was last refreshed from the db
+    private volatile String tenantsVersion;
 
-    // when the core has `supertokens_saas_load_only_cud` set, the tenantConfigs array will be filtered
+    // when the core has `supertokens_saas_load_only_cud` set, the tenants in tenantsSnapshot will be filtered
     // based on the config value. However, we need to keep all the list of CUDs from the db to be able
     // to check if the CUD is present in the DB or not, while processing the requests.
     private volatile Set<String> dangerous_allCUDsFromDb = new HashSet<>();
 
     private MultitenancyHelper(Main main) throws StorageQueryException {
         this.main = main;
+        this.tenantsVersion = getTenantsVersionFromDb();
         TenantConfig[] allTenantsFromDb = getAllTenantsFromDb();
-        this.tenantConfigs = this.getFilteredTenantConfigs(allTenantsFromDb);
+        this.tenantsSnapshot = new TenantsSnapshot(this.getFilteredTenantConfigs(allTenantsFromDb));
         Set<String> cuds = new HashSet<>();
         for (TenantConfig config : allTenantsFromDb) {
             cuds.add(config.tenantIdentifier.getConnectionUriDomain());
@@ -118,44 +129,81 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
         return StorageLayer.getMultitenancyStorage(main).getAllTenants();
     }
 
+    private String getTenantsVersionFromDb() throws StorageQueryException {
+        if (StorageLayer.getBaseStorage(main).getType() != STORAGE_TYPE.SQL) {
+            return null;
+        }
+        try {
+            KeyValueInfo version = StorageLayer.getBaseStorage(main)
+                    .getKeyValue(TenantIdentifier.BASE_TENANT, TENANTS_VERSION_DB_KEY);
+            return version == null ? null : version.value;
+        } catch (TenantOrAppNotFoundException e) {
+            // the base tenant is not in the db yet
+            return null;
+        }
+    }
+
+    // This must be called after every change to the tenants table, so that all cores know that they need to refresh
+    // their list of tenants.
+    public void markTenantsAsChangedInDb() throws StorageQueryException {
+        if (StorageLayer.getBaseStorage(main).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+        try {
+            StorageLayer.getBaseStorage(main).setKeyValue(TenantIdentifier.BASE_TENANT, TENANTS_VERSION_DB_KEY,
+                    new KeyValueInfo(UUID.randomUUID().toString(), System.currentTimeMillis()));
+        } catch (TenantOrAppNotFoundException ignored) {
+            // this happens only while the base tenant itself is being created on an empty db, and every core
+            // creates it on its own in that case
+        }
+    }
+
+    // Unlike refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged, this only reads the tenants
+    // version from the db, and does the full refresh only if some core has changed the tenants since our last
+    // refresh. Changes made to the db without going through a core, and changes to the config.yaml file, are picked
+    // up by the SyncCoreConfigWithDb cronjob, which does a full refresh.
+    public List<TenantIdentifier> refreshTenantsInCoreIfTenantsVersionChanged(boolean reloadAllResources) {
+        try {
+            if (Objects.equals(getTenantsVersionFromDb(), this.tenantsVersion)) {
+                return new ArrayList<>();
+            }
+        } catch (StorageQueryException e) {
+            Logging.error(main, TenantIdentifier.BASE_TENANT, e.getMessage(), false, e);
+            // we fall back to the full refresh below
+        }
+        return refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(reloadAllResources);
+    }
+
     @WithinOtelSpan
     public List<TenantIdentifier> refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(
             boolean reloadAllResources) {
         try {
             return main.getResourceDistributor().withResourceDistributorLock(() -> {
                 try {
+                    // we read the version before the tenants, so that if the tenants change while we are reading
+                    // them, the next version check will see a new version and refresh again
+                    String versionFromDb = getTenantsVersionFromDb();
                     TenantConfig[] tenantsFromDb = getAllTenantsFromDb();
                     TenantConfig[] filteredTenantsFromDb = this.getFilteredTenantConfigs(tenantsFromDb);
+                    TenantConfig[] tenantsInMemory = this.tenantsSnapshot.tenantConfigs;
 
-                    Map<ResourceDistributor.KeyClass, JsonObject> normalizedTenantsFromDb =
-                            Config.getNormalisedConfigsForAllTenants(
-                                    filteredTenantsFromDb, Config.getBaseConfigAsJsonObject(main));
-
-                    Map<ResourceDistributor.KeyClass, JsonObject> normalizedTenantsFromMemory =
-                            Config.getNormalisedConfigsForAllTenants(
-                                    this.tenantConfigs, Config.getBaseConfigAsJsonObject(main));
-
-                    List<TenantIdentifier> tenantsThatChanged = new ArrayList<>();
-
-                    for (Map.Entry<ResourceDistributor.KeyClass, JsonObject> entry :
-                            normalizedTenantsFromMemory.entrySet()) {
-                        JsonObject tenantConfigFromMemory = entry.getValue();
-                        JsonObject tenantConfigFromDb = normalizedTenantsFromDb.get(entry.getKey());
-
-                        if (!tenantConfigFromMemory.equals(tenantConfigFromDb)) {
-                            tenantsThatChanged.add(entry.getKey().getTenantIdentifier());
-                        }
-                    }
+                    List<TenantIdentifier> tenantsThatChanged =
+                            getTenantsWithChangedCoreConfig(tenantsInMemory, filteredTenantsFromDb);
 
                     boolean sameNumberOfTenants =
-                            filteredTenantsFromDb.length == this.tenantConfigs.length;
+                            filteredTenantsFromDb.length == tenantsInMemory.length;
 
                     Set<String> cuds = new HashSet<>();
                     for (TenantConfig tenant : tenantsFromDb) {
                         cuds.add(tenant.tenantIdentifier.getConnectionUriDomain());
                     }
                     this.dangerous_allCUDsFromDb = cuds;
-                    this.tenantConfigs = filteredTenantsFromDb;
+                    this.tenantsVersion = versionFromDb;
+                    if (!Arrays.equals(filteredTenantsFromDb, tenantsInMemory)) {
+                        // this also picks up changes that are not in the core config, like the third party
+                        // providers or the first factors of a tenant
+                        this.tenantsSnapshot = new TenantsSnapshot(filteredTenantsFromDb);
+                    }
                     if (tenantsThatChanged.size() == 0 && sameNumberOfTenants) {
                         return tenantsThatChanged;
                     }
@@ -184,6 +232,47 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
         }
     }
 
+    // The normalised config of a tenant is made from its own core config, the core config of the public tenant of its
+    // app, the core config of the public tenant of its connection uri domain, and the config.yaml file (see
+    // Config.getNormalisedConfigsForAllTenants). When comparing the tenants in memory with the ones in the db, the
+    // config.yaml file is the same for both. So a tenant's normalised config can only have changed if one of the other
+    // three core configs has changed, and we compare just those instead of normalising the configs of all tenants
+    // twice.
+    private static List<TenantIdentifier> getTenantsWithChangedCoreConfig(TenantConfig[] tenantsInMemory,
+                                                                          TenantConfig[] tenantsFromDb) {
+        Map<TenantIdentifier, JsonObject> coreConfigsFromDb = new HashMap<>();
+        for (TenantConfig tenant : tenantsFromDb) {
+            coreConfigsFromDb.put(tenant.tenantIdentifier, tenant.coreConfig);
+        }
+
+        Set<TenantIdentifier> tenantsWithChangedCoreConfig = new HashSet<>();
+        for (TenantConfig tenant : tenantsInMemory) {
+            if (!Objects.equals(tenant.coreConfig, coreConfigsFromDb.get(tenant.tenantIdentifier))) {
+                tenantsWithChangedCoreConfig.add(tenant.tenantIdentifier);
+            }
+        }
+
+        List<TenantIdentifier> result = new ArrayList<>();
+        if (tenantsWithChangedCoreConfig.isEmpty()) {
+            return result;
+        }
+        for (TenantConfig tenant : tenantsInMemory) {
+            TenantIdentifier tenantIdentifier = tenant.tenantIdentifier;
+            if (tenantIdentifier.equals(TenantIdentifier.BASE_TENANT)) {
+                // the base tenant's config comes from the config.yaml file
+                continue;
+            }
+            if (tenantsWithChangedCoreConfig.contains(tenantIdentifier)
+                    || tenantsWithChangedCoreConfig.contains(new TenantIdentifier(
+                    tenantIdentifier.getConnectionUriDomain(), tenantIdentifier.getAppId(), null))
+                    || tenantsWithChangedCoreConfig.contains(new TenantIdentifier(
+                    tenantIdentifier.getConnectionUriDomain(), null, null))) {
+                result.add(tenantIdentifier);
+            }
+        }
+        return result;
+    }
+
     public void forceReloadAllResources(List<TenantIdentifier> tenantsThatChanged) {
         try {
             main.getResourceDistributor().withResourceDistributorLock(() -> {
@@ -204,37 +293,21 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
     }
 
     public void loadConfig(List<TenantIdentifier> tenantsThatChanged) throws IOException, InvalidConfigException {
-        Config.loadAllTenantConfig(main, this.tenantConfigs, tenantsThatChanged);
+        Config.loadAllTenantConfig(main, this.tenantsSnapshot.tenantConfigs, tenantsThatChanged);
     }
 
     public void loadStorageLayer() throws IOException, InvalidConfigException {
-        StorageLayer.loadAllTenantStorage(main, this.tenantConfigs);
+        StorageLayer.loadAllTenantStorage(main, this.tenantsSnapshot.tenantConfigs);
     }
 
     public void loadFeatureFlag(List<TenantIdentifier> tenantsThatChanged) {
-        List<AppIdentifier> apps = new ArrayList<>();
-        Set<AppIdentifier> appsSet = new HashSet<>();
-        for (TenantConfig t : this.tenantConfigs) {
-            if (appsSet.contains(t.tenantIdentifier.toAppIdentifier())) {
-                continue;
-            }
-            apps.add(t.tenantIdentifier.toAppIdentifier());
-            appsSet.add(t.tenantIdentifier.toAppIdentifier());
-        }
+        List<AppIdentifier> apps = new ArrayList<>(this.tenantsSnapshot.tenantsByApp.keySet());
         FeatureFlag.loadForAllTenants(main, apps, tenantsThatChanged);
     }
 
     public void loadSigningKeys(List<TenantIdentifier> tenantsThatChanged)
             throws UnsupportedJWTSigningAlgorithmException {
-        List<AppIdentifier> apps = new ArrayList<>();
-        Set<AppIdentifier> appsSet = new HashSet<>();
-        for (TenantConfig t : this.tenantConfigs) {
-            if (appsSet.contains(t.tenantIdentifier.toAppIdentifier())) {
-                continue;
-            }
-            apps.add(t.tenantIdentifier.toAppIdentifier());
-            appsSet.add(t.tenantIdentifier.toAppIdentifier());
-        }
+        List<AppIdentifier> apps = new ArrayList<>(this.tenantsSnapshot.tenantsByApp.keySet());
         AccessTokenSigningKey.loadForAllTenants(main, apps, tenantsThatChanged);
         RefreshTokenKey.loadForAllTenants(main, apps, tenantsThatChanged);
         SAMLCertificate.loadForAllTenants(main, apps, tenantsThatChanged);
@@ -248,12 +321,27 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
     }
 
     public TenantConfig[] getAllTenants() {
-        // Capture the volatile reference first so the loop operates on a stable snapshot,
-        // even if a refresh reassigns tenantConfigs mid-iteration.
-        TenantConfig[] snapshot = this.tenantConfigs;
-        TenantConfig[] result = new TenantConfig[snapshot.length];
-        for (int i = 0; i < snapshot.length; i++) {
-            result[i] = new TenantConfig(snapshot[i]);
+        return copyOf(this.tenantsSnapshot.tenantConfigs);
+    }
+
+    // The returned config is shared with all other callers and must not be modified. Callers that want to build an
+    // updated config from it should create a new TenantConfig instead.
+    public TenantConfig getTenantInfo(TenantIdentifier tenantIdentifier) {
+        return this.tenantsSnapshot.tenantsByIdentifier.get(tenantIdentifier);
+    }
+
+    public TenantConfig[] getAllTenantsForApp(AppIdentifier appIdentifier) {
+        return copyOf(this.tenantsSnapshot.tenantsByApp.getOrDefault(appIdentifier, NO_TENANTS));
+    }
+
+    public TenantConfig[] getAllTenantsForConnectionUriDomain(String connectionUriDomain) {
+        return copyOf(this.tenantsSnapshot.tenantsByConnectionUriDomain.getOrDefault(connectionUriDomain, NO_TENANTS));
+    }
+
+    private static TenantConfig[] copyOf(TenantConfig[] tenantConfigs) {
+        TenantConfig[] result = new TenantConfig[tenantConfigs.length];
+        for (int i = 0; i < tenantConfigs.length; i++) {
+            result[i] = new TenantConfig(tenantConfigs[i]);
         }
         return result;
     }
@@ -276,6 +364,42 @@ public class MultitenancyHelper extends ResourceDistributor.SingletonResource {
         return this.dangerous_allCUDsFromDb.contains(cud);
     }
 
+    private static final TenantConfig[] NO_TENANTS = new TenantConfig[0];
+
+    // All the tenants loaded in the core, indexed by tenant, app and connection uri domain. The arrays in the maps
+    // keep the order of the tenants in tenantConfigs.
+    private static class TenantsSnapshot {
+        private final TenantConfig[] tenantConfigs;
+        private final Map<TenantIdentifier, TenantConfig> tenantsByIdentifier;
+        private final Map<AppIdentifier, TenantConfig[]> tenantsByApp;
+        private final Map<String, TenantConfig[]> tenantsByConnectionUriDomain;
+
+        private TenantsSnapshot(TenantConfig[] tenantConfigs) {
+            Map<TenantIdentifier, TenantConfig> byIdentifier = new HashMap<>();
+            Map<AppIdentifier, List<TenantConfig>> byApp = new LinkedHashMap<>();
+            Map<String, List<TenantConfig>> byConnectionUriDomain = new LinkedHashMap<>();
+            for (TenantConfig t : tenantConfigs) {
+                byIdentifier.put(t.tenantIdentifier, t);
+                byApp.computeIfAbsent(t.tenantIdentifier.toAppIdentifier(), k -> new ArrayList<>()).add(t);
+                byConnectionUriDomain.computeIfAbsent(t.tenantIdentifier.getConnectionUriDomain(),
+                        k -> new ArrayList<>()).add(t);
+            }
+
+            this.tenantConfigs = tenantConfigs.clone();
+            this.tenantsByIdentifier = Collections.unmodifiableMap(byIdentifier);
+            this.tenantsByApp = Collections.unmodifiableMap(toArrays(byApp));
+            this.tenantsByConnectionUriDomain = Collections.unmodifiableMap(toArrays(byConnectionUriDomain));
+        }
+
+        private static <K> Map<K, TenantConfig[]> toArrays(Map<K, List<TenantConfig>> input) {
+            Map<K, TenantConfig[]> result = new LinkedHashMap<>();
+            for (Map.Entry<K, List<TenantConfig>> entry : input.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toArray(NO_TENANTS));
+            }
+            return result;
+        }
+    }
+
     public static boolean isEmailPasswordEnabled(TenantConfig tenantConfig, SemVer version) {
         if (version.greaterThanOrEqualTo(SemVer.v5_1)) {
             return true;
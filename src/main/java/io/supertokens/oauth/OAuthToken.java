@@ -54,7 +54,8 @@ public class OAuthToken {
             @Nonnull Main main, @Nonnull String token)
             throws TenantOrAppNotFoundException, TryRefreshTokenException, StorageQueryException,
             UnsupportedJWTSigningAlgorithmException, StorageTransactionLogicException {
-        List<JWTSigningKeyInfo> keyInfoList = SigningKeys.getInstance(appIdentifier, main).getAllKeys();
+        SigningKeys signingKeys = SigningKeys.getInstance(appIdentifier, main);
+        List<JWTSigningKeyInfo> keyInfoList = signingKeys.getAllKeys();
         Exception error = null;
         JWT.JWTInfo jwtInfo = null;
         JWT.JWTPreParseInfo preParseJWTInfo = null;
@@ -69,14 +70,14 @@ public class OAuthToken {
         for (JWTSigningKeyInfo keyInfo : keyInfoList) {
             try {
                 jwtInfo = JWT.verifyJWTAndGetPayload(preParseJWTInfo,
-                        ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey);
+                        signingKeys.getVerificationKey((JWTAsymmetricSigningKeyInfo) keyInfo));
                 error = null;
                 break;
             } catch (NoSuchAlgorithmException e) {
                 // This basically should never happen, but it means, that can't verify any
                 // tokens, no need to retry
                 throw new TryRefreshTokenException(e);
-            } catch (KeyException | JWTException e) {
+            } catch (KeyException | JWTException | InvalidKeySpecException e) {
                 error = e;
             }
         }
@@ -19,79 +19,71 @@ package io.supertokens.output;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.LayoutBase;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 class CustomLayout extends LayoutBase<ILoggingEvent> {
 
-    private String processID;
-    private String coreVersion;
-    private boolean useStructuredLogging = false;
+    // same format as the SimpleDateFormat we used before, but thread safe, so we create it only once
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter
+            .ofPattern("dd MMM yyyy HH:mm:ss:SSS Z")
+            .withZone(ZoneId.systemDefault());
 
-    CustomLayout(String processID, String coreVersion) {
+    private final String processID;
+    private final String coreVersion;
+    private final boolean useStructuredLogging;
+
+    CustomLayout(String processID, String coreVersion, boolean useStructuredLogging) {
         super();
         this.processID = processID;
         this.coreVersion = coreVersion;
-        this.useStructuredLogging = Boolean.parseBoolean(System.getenv("USE_STRUCTURED_LOGGING"));
+        this.useStructuredLogging = useStructuredLogging;
     }
 
     @Override
     public String doLayout(ILoggingEvent event) {
-        JsonObject msgObj = new Gson().fromJson(event.getMessage(), JsonObject.class);
-        DateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy HH:mm:ss:SSS Z");
+        LogEvent logEvent = getLogEvent(event);
+        String timestamp = DATE_FORMATTER.format(Instant.ofEpochMilli(event.getTimeStamp()));
 
         if (useStructuredLogging) {
-            msgObj.addProperty("timestamp", dateFormat.format(new Date(event.getTimeStamp())));
-            msgObj.addProperty("level", event.getLevel().toString());
-            msgObj.addProperty("pid", this.processID);
-            msgObj.addProperty("coreVersion", "v" + coreVersion);
-            msgObj.addProperty("threadName", event.getThreadName());
-            msgObj.addProperty("callerData", event.getCallerData()[1].toString());
-
-            return msgObj.toString() + CoreConstants.LINE_SEPARATOR;
+            StringWriter stringWriter = new StringWriter();
+            try (JsonWriter writer = new JsonWriter(stringWriter)) {
+                writer.beginObject();
+                logEvent.writeFields(writer);
+                writer.name("timestamp").value(timestamp);
+                writer.name("level").value(event.getLevel().toString());
+                writer.name("pid").value(this.processID);
+                writer.name("coreVersion").value("v" + coreVersion);
+                writer.name("threadName").value(event.getThreadName());
+                if (logEvent.callerData != null) {
+                    writer.name("callerData").value(logEvent.callerData);
+                }
+                writer.endObject();
+            } catch (IOException e) {
+                // a StringWriter does not throw
+                throw new IllegalStateException(e);
+            }
+
+            return stringWriter.append(CoreConstants.LINE_SEPARATOR).toString();
         } else {
-            String msg = msgObj.get("message").getAsString();
-            String tenantId = "Tenant(" + msgObj.get("tenant").getAsJsonObject().get("connectionUriDomain").getAsString()
-                    + ", " + msgObj.get("tenant").getAsJsonObject().get("appId").getAsString()
-                    + ", " + msgObj.get("tenant").getAsJsonObject().get("tenantId").getAsString()
+            String tenantId = "Tenant(" + logEvent.tenantIdentifier.getConnectionUriDomain()
+                    + ", " + logEvent.tenantIdentifier.getAppId()
+                    + ", " + logEvent.tenantIdentifier.getTenantId()
                     + ")";
 
             StringBuilder sbuf = new StringBuilder();
 
-            if (msgObj.has("exception")) {
-                JsonArray stackTraceObj = msgObj.get("exception").getAsJsonArray();
-                sbuf.append(dateFormat.format(new Date(event.getTimeStamp())));
-                sbuf.append(" | ");
-
-                sbuf.append(event.getLevel());
-                sbuf.append(" | ");
-
-                sbuf.append("pid: ");
-                sbuf.append(this.processID);
-                sbuf.append(" | ");
+            if (logEvent.exceptionLines != null) {
+                appendPrefix(sbuf, timestamp, event, tenantId);
 
-                sbuf.append("v" + coreVersion);
-                sbuf.append(" | ");
-
-                sbuf.append("[");
-                sbuf.append(event.getThreadName());
-                sbuf.append("] thread");
-                sbuf.append(" | ");
-
-                sbuf.append(event.getCallerData()[1]);
-                sbuf.append(" | ");
-
-                sbuf.append(tenantId);
-                sbuf.append(" | ");
-
-                for (JsonElement stackTraceElement : stackTraceObj) {
-                    sbuf.append(stackTraceElement.getAsString());
+                for (String stackTraceElement : logEvent.exceptionLines) {
+                    sbuf.append(stackTraceElement);
                     sbuf.append(CoreConstants.LINE_SEPARATOR);
                 }
 
@@ -99,37 +91,47 @@ class CustomLayout extends LayoutBase<ILoggingEvent> {
                 sbuf.append(CoreConstants.LINE_SEPARATOR);
             }
 
-            sbuf.append(dateFormat.format(new Date(event.getTimeStamp())));
-            sbuf.append(" | ");
+            appendPrefix(sbuf, timestamp, event, tenantId);
+
+            sbuf.append(logEvent.message);
 
-            sbuf.append(event.getLevel());
-            sbuf.append(" | ");
+            sbuf.append(CoreConstants.LINE_SEPARATOR);
+            sbuf.append(CoreConstants.LINE_SEPARATOR);
 
-            sbuf.append("pid: ");
-            sbuf.append(this.processID);
-            sbuf.append(" | ");
+            return sbuf.toString();
+        }
 
-            sbuf.append("v" + coreVersion);
-            sbuf.append(" | ");
+    }
 
-            sbuf.append("[");
-            sbuf.append(event.getThreadName());
-            sbuf.append("] thread");
-            sbuf.append(" | ");
+    private void appendPrefix(StringBuilder sbuf, String timestamp, ILoggingEvent event, String tenantId) {
+        sbuf.append(timestamp);
+        sbuf.append(" | ");
 
-            sbuf.append(event.getCallerData()[1]);
-            sbuf.append(" | ");
+        sbuf.append(event.getLevel());
+        sbuf.append(" | ");
 
-            sbuf.append(tenantId);
-            sbuf.append(" | ");
+        sbuf.append("pid: ");
+        sbuf.append(this.processID);
+        sbuf.append(" | ");
 
-            sbuf.append(msg);
+        sbuf.append("v").append(coreVersion);
+        sbuf.append(" | ");
 
-            sbuf.append(CoreConstants.LINE_SEPARATOR);
-            sbuf.append(CoreConstants.LINE_SEPARATOR);
+        sbuf.append("[");
+        sbuf.append(event.getThreadName());
+        sbuf.append("] thread");
+        sbuf.append(" | ");
 
-            return sbuf.toString();
-        }
+        sbuf.append(tenantId);
+        sbuf.append(" | ");
+    }
 
+    private static LogEvent getLogEvent(ILoggingEvent event) {
+        Object[] arguments = event.getArgumentArray();
+        if (arguments != null && arguments.length == 1 && arguments[0] instanceof LogEvent) {
+            return (LogEvent) arguments[0];
+        }
+        // not logged through Logging
+        return new LogEvent(TenantIdentifier.BASE_TENANT, event.getFormattedMessage(), null, null);
     }
 }
@@ -27,8 +27,8 @@ class LayoutWrappingEncoder extends EncoderBase<ILoggingEvent> {
 
     private Layout<ILoggingEvent> layout;
 
-    LayoutWrappingEncoder(String processID, String coreVersion) {
-        layout = new CustomLayout(processID, coreVersion);
+    LayoutWrappingEncoder(String processID, String coreVersion, boolean useStructuredLogging) {
+        layout = new CustomLayout(processID, coreVersion, useStructuredLogging);
     }
 
     @Override
@@ -0,0 +1,89 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.output;
+
+import com.google.gson.stream.JsonWriter;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.StringWriter;
+
+// A message logged through Logging. It is passed to logback as is, so that CustomLayout can format it without
+// serialising it to JSON and parsing it back first.
+class LogEvent {
+
+    @Nonnull
+    final TenantIdentifier tenantIdentifier;
+
+    @Nonnull
+    final String message;
+
+    // the lines of the stack trace of the exception that was logged with the message, if any
+    @Nullable
+    final String[] exceptionLines;
+
+    // the code that called Logging. This is only captured for structured logs, as finding it means walking the stack
+    @Nullable
+    final String callerData;
+
+    LogEvent(@Nonnull TenantIdentifier tenantIdentifier, @Nonnull String message, @Nullable String[] exceptionLines,
+             @Nullable String callerData) {
+        this.tenantIdentifier = tenantIdentifier;
+        this.message = message;
+        this.exceptionLines = exceptionLines;
+        this.callerData = callerData;
+    }
+
+    // writes the fields of the message, in the same shape as the JSON we used to pass to logback
+    void writeFields(JsonWriter writer) throws IOException {
+        writer.name("message").value(this.message);
+        writer.name("tenant").beginObject();
+        writer.name("connectionUriDomain").value(this.tenantIdentifier.getConnectionUriDomain());
+        writer.name("appId").value(this.tenantIdentifier.getAppId());
+        writer.name("tenantId").value(this.tenantIdentifier.getTenantId());
+        writer.endObject();
+        if (this.exceptionLines != null) {
+            writer.name("exception").beginArray();
+            for (String line : this.exceptionLines) {
+                writer.value(line);
+            }
+            writer.endArray();
+        }
+    }
+
+    String toJson() {
+        StringWriter stringWriter = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(stringWriter)) {
+            writer.beginObject();
+            writeFields(writer);
+            writer.endObject();
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return stringWriter.toString();
+    }
+
+    @Override
+    public String toString() {
+        // logback calls this when it needs the formatted message of the event, for example before handing it to the
+        // async appender
+        return this.message;
+    }
+}
@@ -19,12 +19,11 @@ package io.supertokens.output;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ConsoleAppender;
 import ch.qos.logback.core.FileAppender;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.config.Config;
@@ -39,11 +38,14 @@ import io.supertokens.version.Version;
 import io.supertokens.webserver.Webserver;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
+
 public class Logging extends ResourceDistributor.SingletonResource {
 
     private static final String RESOURCE_ID = "io.supertokens.output.Logging";
     private final Logger infoLogger;
     private final Logger errorLogger;
+    private final boolean useStructuredLogging;
 
     public static final String ANSI_RESET = "\u001B[0m";
     public static final String ANSI_BLACK = "\u001B[30m";
@@ -62,6 +64,8 @@ public class Logging extends ResourceDistributor.SingletonResource {
         Level newLevel = Level.toLevel(Config.getBaseConfig(main).getLogLevel(), Level.INFO); // Default to INFO if invalid
         rootLogger.setLevel(newLevel);
 
+        this.useStructuredLogging = Boolean.parseBoolean(System.getenv("USE_STRUCTURED_LOGGING"));
+
         this.infoLogger = Config.getBaseConfig(main).getInfoLogPath(main).equals("null")
                 ? createLoggerForConsole(main, "io.supertokens.Info", LOG_LEVEL.INFO)
                 : createLoggerForFile(main, Config.getBaseConfig(main).getInfoLogPath(main),
@@ -118,40 +122,43 @@ public class Logging extends ResourceDistributor.SingletonResource {
         }
         try {
             msg = msg.trim();
-            if (getInstance(main) != null) {
-                String formattedMsg = getFormattedMessage(tenantIdentifier, msg);
-                getInstance(main).infoLogger.debug(formattedMsg);
-                TelemetryProvider.getInstance(main).createLogEvent(tenantIdentifier, formattedMsg, "debug");
+            Logging instance = getInstance(main);
+            if (instance != null) {
+                LogEvent logEvent = createLogEvent(instance, tenantIdentifier, msg, null);
+                instance.infoLogger.debug("{}", logEvent);
+                createTelemetryLogEvent(main, logEvent, "debug");
             }
         } catch (NullPointerException e) {
             // sometimes logger.debug throws a null pointer exception...
         }
     }
 
-    private static String getFormattedMessage(TenantIdentifier tenantIdentifier, String msg, Exception e) {
-        JsonObject msgObj = new JsonObject();
-        msgObj.addProperty("message", msg);
-        msgObj.add("tenant", new JsonObject());
-        msgObj.getAsJsonObject("tenant").addProperty("connectionUriDomain", tenantIdentifier.getConnectionUriDomain());
-        msgObj.getAsJsonObject("tenant").addProperty("appId", tenantIdentifier.getAppId());
-        msgObj.getAsJsonObject("tenant").addProperty("tenantId", tenantIdentifier.getTenantId());
-
+    private static LogEvent createLogEvent(Logging instance, TenantIdentifier tenantIdentifier, String msg,
+                                           Exception e) {
+        Objects.requireNonNull(tenantIdentifier);
+        String[] exceptionLines = null;
         if (e != null) {
-            String stackTrace = Utils.throwableStacktraceToString(e);
-            String[] stackTraceArr = stackTrace.split("\n");
-            JsonArray stackTraceArrObj = new JsonArray();
-            for (String stackTraceElement : stackTraceArr) {
-                stackTraceArrObj.add(new JsonPrimitive(stackTraceElement));
-            }
-
-            msgObj.add("exception", stackTraceArrObj);
+            exceptionLines = Utils.throwableStacktraceToString(e).split("\n");
         }
+        // finding the caller means walking the stack, so we only do it for structured logs, which include it
+        String callerData = instance != null && instance.useStructuredLogging ? getCallerData() : null;
+        return new LogEvent(tenantIdentifier, msg, exceptionLines, callerData);
+    }
 
-        return msgObj.toString();
+    private static String getCallerData() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .dropWhile(frame -> frame.getClassName().equals(Logging.class.getName()))
+                .findFirst()
+                .map(frame -> frame.toStackTraceElement().toString())
+                .orElse(null));
     }
 
-    private static String getFormattedMessage(TenantIdentifier tenantIdentifier, String msg) {
-        return getFormattedMessage(tenantIdentifier, msg, null);
+    private static void createTelemetryLogEvent(Main main, LogEvent logEvent, String logLevel) {
+        TelemetryProvider telemetryProvider = TelemetryProvider.getInstance(main);
+        // the log is sent to the collector as JSON, which we only need to create if there is a collector
+        if (telemetryProvider.isEnabled()) {
+            telemetryProvider.createLogEvent(logEvent.tenantIdentifier, logEvent.toJson(), logLevel);
+        }
     }
 
     public static void info(Main main, TenantIdentifier tenantIdentifier, String msg, boolean toConsoleAsWell) {
@@ -167,13 +174,14 @@ public class Logging extends ResourceDistributor.SingletonResource {
                     systemOut(prependTenantIdentifierToMessage(tenantIdentifier, msg));
                 }
             }
-            msg = getFormattedMessage(tenantIdentifier, msg);
+            Logging instance = getInstance(main);
+            LogEvent logEvent = createLogEvent(instance, tenantIdentifier, msg, null);
 
-            if (getInstance(main) != null) {
-                getInstance(main).infoLogger.info(msg);
+            if (instance != null) {
+                instance.infoLogger.info("{}", logEvent);
             }
 
-            TelemetryProvider.getInstance(main).createLogEvent(tenantIdentifier, msg, "info");
+            createTelemetryLogEvent(main, logEvent, "info");
         } catch (NullPointerException ignored) {
         }
     }
@@ -184,10 +192,11 @@ public class Logging extends ResourceDistributor.SingletonResource {
         }
         try {
             msg = msg.trim();
-            msg = getFormattedMessage(tenantIdentifier, msg);
-            if (getInstance(main) != null) {
-                getInstance(main).errorLogger.warn(msg);
-                TelemetryProvider.getInstance(main).createLogEvent(tenantIdentifier, msg, "warn");
+            Logging instance = getInstance(main);
+            if (instance != null) {
+                LogEvent logEvent = createLogEvent(instance, tenantIdentifier, msg, null);
+                instance.errorLogger.warn("{}", logEvent);
+                createTelemetryLogEvent(main, logEvent, "warn");
             }
         } catch (NullPointerException ignored) {
         }
@@ -206,12 +215,13 @@ public class Logging extends ResourceDistributor.SingletonResource {
         }
         try {
             err = err.trim();
-            if (getInstance(main) != null) {
-                String formattedMessage = getFormattedMessage(tenantIdentifier, err);
-                getInstance(main).errorLogger.error(formattedMessage);
-                TelemetryProvider.getInstance(main).createLogEvent(tenantIdentifier, formattedMessage, "error");
+            Logging instance = getInstance(main);
+            if (instance != null) {
+                LogEvent logEvent = createLogEvent(instance, tenantIdentifier, err, null);
+                instance.errorLogger.error("{}", logEvent);
+                createTelemetryLogEvent(main, logEvent, "error");
             }
-            if (toConsoleAsWell || getInstance(main) == null) {
+            if (toConsoleAsWell || instance == null) {
                 systemErr(prependTenantIdentifierToMessage(tenantIdentifier, err));
             }
         } catch (NullPointerException ignored) {
@@ -241,13 +251,13 @@ public class Logging extends ResourceDistributor.SingletonResource {
             }
             if (message != null) {
                 message = message.trim();
-                if (getInstance(main) != null) {
-                    getInstance(main).errorLogger.error(getFormattedMessage(tenantIdentifier, message, e));
-                    TelemetryProvider.getInstance(main)
-                            .createLogEvent(tenantIdentifier, getFormattedMessage(tenantIdentifier, message, e),
-                                    "error");
+                Logging instance = getInstance(main);
+                if (instance != null) {
+                    LogEvent logEvent = createLogEvent(instance, tenantIdentifier, message, e);
+                    instance.errorLogger.error("{}", logEvent);
+                    createTelemetryLogEvent(main, logEvent, "error");
                 }
-                if (toConsoleAsWell || getInstance(main) == null) {
+                if (toConsoleAsWell || instance == null) {
                     systemErr(prependTenantIdentifierToMessage(tenantIdentifier, message));
                 }
             }
@@ -282,7 +292,7 @@ public class Logging extends ResourceDistributor.SingletonResource {
     private Logger createLoggerForFile(Main main, String file, String name) {
         LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
         LayoutWrappingEncoder ple = new LayoutWrappingEncoder(main.getProcessId(),
-                Version.getVersion(main).getCoreVersion());
+                Version.getVersion(main).getCoreVersion(), this.useStructuredLogging);
         ple.setContext(lc);
         ple.start();
         FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
@@ -292,7 +302,7 @@ public class Logging extends ResourceDistributor.SingletonResource {
         fileAppender.start();
 
         Logger logger = (Logger) LoggerFactory.getLogger(name);
-        logger.addAppender(fileAppender);
+        logger.addAppender(wrapInAsyncAppenderIfEnabled(main, lc, fileAppender));
         logger.setAdditive(false); /* set to true if root should log too */
 
         return logger;
@@ -301,7 +311,7 @@ public class Logging extends ResourceDistributor.SingletonResource {
     private Logger createLoggerForConsole(Main main, String name, LOG_LEVEL logLevel) {
         LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
         LayoutWrappingEncoder ple = new LayoutWrappingEncoder(main.getProcessId(),
-                Version.getVersion(main).getCoreVersion());
+                Version.getVersion(main).getCoreVersion(), this.useStructuredLogging);
         ple.setContext(lc);
         ple.start();
         ConsoleAppender<ILoggingEvent> logConsoleAppender = new ConsoleAppender<>();
@@ -311,9 +321,28 @@ public class Logging extends ResourceDistributor.SingletonResource {
         logConsoleAppender.start();
 
         Logger logger = (Logger) LoggerFactory.getLogger(name);
-        logger.addAppender(logConsoleAppender);
+        logger.addAppender(wrapInAsyncAppenderIfEnabled(main, lc, logConsoleAppender));
         logger.setAdditive(false); /* set to true if root should log too */
 
         return logger;
     }
+
+    private static Appender<ILoggingEvent> wrapInAsyncAppenderIfEnabled(Main main, LoggerContext lc,
+                                                                        Appender<ILoggingEvent> appender) {
+        int queueSize = Config.getBaseConfig(main).getLogAsyncQueueSize();
+        if (queueSize == 0) {
+            return appender;
+        }
+        // The logs are formatted and written by a background thread. When the queue is 80% full, INFO and DEBUG logs
+        // are dropped, and when it is full, all logs are dropped, so that the thread that logs never waits.
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(lc);
+        asyncAppender.setQueueSize(queueSize);
+        asyncAppender.setNeverBlock(true);
+        // we capture the caller ourselves in LogEvent when needed
+        asyncAppender.setIncludeCallerData(false);
+        asyncAppender.addAppender(appender);
+        asyncAppender.start();
+        return asyncAppender;
+    }
 }
@@ -46,6 +46,7 @@ import io.supertokens.pluginInterface.passwordless.PasswordlessImportUser;
 import io.supertokens.pluginInterface.passwordless.exception.*;
 import io.supertokens.pluginInterface.passwordless.sqlStorage.PasswordlessSQLStorage;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.utils.Utils;
 import org.jetbrains.annotations.TestOnly;
 
@@ -459,8 +460,10 @@ public class Passwordless {
 
         if (user == null) {
             long timeJoined = System.currentTimeMillis();
+            UsageStats.Generation usageStats = UsageStats.getGeneration(main, tenantIdentifier.toAppIdentifier());
             user = createPasswordlessUser(tenantIdentifier, storage, consumedDevice.email,
                     consumedDevice.phoneNumber, timeJoined);
+            UsageStats.userSignedUp(usageStats, tenantIdentifier);
 
             // Set email as verified, if using email
             if (setEmailVerified && consumedDevice.email != null) {
@@ -0,0 +1,40 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.session;
+
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk session queries that a storage can optionally implement. Session uses these when the storage implements
+// this interface, and falls back to the per session queries of SessionStorage otherwise.
+public interface BulkSessionStorage {
+
+    // deletes the given sessions and returns the handles of the ones that existed, in a single query
+    String[] deleteSessionsAndGetDeletedHandles(TenantIdentifier tenantIdentifier, String[] sessionHandles)
+            throws StorageQueryException;
+
+    // returns the handles of the non expired sessions of the given users, in all the tenants of the app that are in
+    // this storage, keyed by tenant id. This is done in a single query.
+    Map<String, List<String>> getAllNonExpiredSessionHandlesForUsers(AppIdentifier appIdentifier,
+                                                                      Set<String> userIds)
+            throws StorageQueryException;
+}
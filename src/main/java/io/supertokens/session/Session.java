@@ -52,6 +52,7 @@ import io.supertokens.session.info.TokenInfo;
 import io.supertokens.session.jwt.JWT;
 import io.supertokens.session.refreshToken.RefreshToken;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.useridmapping.UserIdMapping;
 import io.supertokens.useridmapping.UserIdType;
 import io.supertokens.utils.Utils;
@@ -178,10 +179,12 @@ public class Session {
                 recipeUserId, primaryUserId, Utils.hashSHA256(refreshToken.token), null, userDataInJWT, antiCsrfToken,
                 null, version, useStaticKey);
 
+        UsageStats.Generation usageStats = UsageStats.getGeneration(main, tenantIdentifier.toAppIdentifier());
         StorageUtils.getSessionStorage(storage)
                 .createNewSession(tenantIdentifier, sessionHandle, recipeUserId,
                         Utils.hashSHA256(Utils.hashSHA256(refreshToken.token)), userDataInDatabase, refreshToken.expiry,
                         userDataInJWT, refreshToken.createdTime, useStaticKey);
+        UsageStats.sessionCreated(usageStats, tenantIdentifier);
 
         TokenInfo idRefreshToken = new TokenInfo(UUID.randomUUID().toString(), refreshToken.expiry,
                 refreshToken.createdTime);
@@ -342,7 +345,10 @@ public class Session {
             StorageTransactionLogicException, TryRefreshTokenException, UnauthorisedException,
             UnsupportedJWTSigningAlgorithmException, AccessTokenPayloadError, TenantOrAppNotFoundException {
 
-        AccessTokenInfo accessToken = AccessToken.getInfoFromAccessToken(appIdentifier, main, token,
+        // if we are going to check the db for blacklisting anyway, there is not much point in using the cache
+        AccessTokenInfo accessToken = checkDatabase
+                ? AccessToken.getInfoFromAccessToken(appIdentifier, main, token, doAntiCsrfCheck && enableAntiCsrf)
+                : AccessToken.getInfoFromAccessTokenUsingCache(appIdentifier, main, token,
                 doAntiCsrfCheck && enableAntiCsrf);
         TenantIdentifier tenantIdentifier = accessToken.tenantIdentifier;
         Storage storage = StorageLayer.getStorage(accessToken.tenantIdentifier, main);
@@ -808,8 +814,10 @@ public class Session {
                 continue;
             }
 
+            UsageStats.Generation usageStats = UsageStats.getGeneration(main, appIdentifier);
             String[] sessionHandlesRevokedForTenant = revokeSessionUsingSessionHandles(tenantIdentifier, tenantStorage,
                     sessionHandlesForTenant);
+            UsageStats.sessionsRevoked(usageStats, tenantIdentifier, sessionHandlesRevokedForTenant.length);
             revokedSessionHandles.addAll(Arrays.asList(sessionHandlesRevokedForTenant));
         }
 
@@ -820,6 +828,11 @@ public class Session {
                                                              Storage storage,
                                                              String[] sessionHandles)
             throws StorageQueryException {
+        if (storage instanceof BulkSessionStorage) {
+            return ((BulkSessionStorage) storage).deleteSessionsAndGetDeletedHandles(tenantIdentifier,
+                    sessionHandles);
+        }
+
         Set<String> validHandles = new HashSet<>();
 
         if (sessionHandles.length > 1) {
@@ -913,16 +926,37 @@ public class Session {
             }
         }
 
-        for (String currUserId : userIds) {
-            for (TenantConfig tenant : tenants) {
-                try {
-                    sessionHandles.addAll(Arrays.asList(getAllNonExpiredSessionHandlesForUser(
-                            tenant.tenantIdentifier, StorageLayer.getStorage(tenant.tenantIdentifier, main),
-                            currUserId, false)));
+        // tenants that share a user pool share the same storage, so we can query all of them at once
+        Map<Storage, List<TenantIdentifier>> tenantsByStorage = new LinkedHashMap<>();
+        for (TenantConfig tenant : tenants) {
+            try {
+                tenantsByStorage.computeIfAbsent(StorageLayer.getStorage(tenant.tenantIdentifier, main),
+                        k -> new ArrayList<>()).add(tenant.tenantIdentifier);
+            } catch (TenantOrAppNotFoundException e) {
+                // this might happen when a tenant was deleted after the tenant list was fetched
+                // it is okay to exclude that tenant in the results here
+            }
+        }
 
-                } catch (TenantOrAppNotFoundException e) {
-                    // this might happen when a tenant was deleted after the tenant list was fetched
-                    // it is okay to exclude that tenant in the results here
+        for (Map.Entry<Storage, List<TenantIdentifier>> entry : tenantsByStorage.entrySet()) {
+            Storage tenantsStorage = entry.getKey();
+            if (tenantsStorage instanceof BulkSessionStorage) {
+                Map<String, List<String>> sessionHandlesByTenantId = ((BulkSessionStorage) tenantsStorage)
+                        .getAllNonExpiredSessionHandlesForUsers(appIdentifier, userIds);
+                // the storage may have sessions of tenants that are no longer in our tenant list, which we skip
+                for (TenantIdentifier tenantIdentifier : entry.getValue()) {
+                    List<String> sessionHandlesForTenant = sessionHandlesByTenantId.get(
+                            tenantIdentifier.getTenantId());
+                    if (sessionHandlesForTenant != null) {
+                        sessionHandles.addAll(sessionHandlesForTenant);
+                    }
+                }
+                continue;
+            }
+            for (String currUserId : userIds) {
+                for (TenantIdentifier tenantIdentifier : entry.getValue()) {
+                    sessionHandles.addAll(Arrays.asList(getAllNonExpiredSessionHandlesForUser(
+                            tenantIdentifier, tenantsStorage, currUserId, false)));
                 }
             }
         }
@@ -64,7 +64,8 @@ public class AccessToken {
                                                           boolean doAntiCsrfCheck)
             throws StorageQueryException, StorageTransactionLogicException, TryRefreshTokenException,
             TenantOrAppNotFoundException, UnsupportedJWTSigningAlgorithmException {
-        List<JWTSigningKeyInfo> keyInfoList = SigningKeys.getInstance(appIdentifier, main).getAllKeys();
+        SigningKeys signingKeys = SigningKeys.getInstance(appIdentifier, main);
+        List<JWTSigningKeyInfo> keyInfoList = signingKeys.getAllKeys();
         Exception error = null;
         JWT.JWTInfo jwtInfo = null;
         JWT.JWTPreParseInfo preParseJWTInfo = null;
@@ -78,18 +79,18 @@ public class AccessToken {
         if (preParseJWTInfo.version != VERSION.V1 && preParseJWTInfo.version != VERSION.V2) {
             String kid = preParseJWTInfo.kid;
 
-            JWTSigningKeyInfo keyInfo = SigningKeys.getInstance(appIdentifier, main).getSigningKeyById(kid);
+            JWTSigningKeyInfo keyInfo = signingKeys.getSigningKeyById(kid);
 
             if (keyInfo == null) {
                 error = new TryRefreshTokenException("Key not found");
             } else {
                 try {
                     jwtInfo = JWT.verifyJWTAndGetPayload(preParseJWTInfo,
-                            ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey);
+                            signingKeys.getVerificationKey((JWTAsymmetricSigningKeyInfo) keyInfo));
                 } catch (NoSuchAlgorithmException e) {
                     // This basically should never happen, but it means, that can't verify any tokens, no need to retry
                     throw new TryRefreshTokenException(e);
-                } catch (JWTException e) {
+                } catch (JWTException | InvalidKeySpecException e) {
                     // This basically should never happen, but it means, that the token structure is wrong, can't verify
                     throw new TryRefreshTokenException(e);
                 } catch (InvalidKeyException e) {
@@ -101,13 +102,13 @@ public class AccessToken {
             for (JWTSigningKeyInfo keyInfo : keyInfoList) {
                 try {
                     jwtInfo = JWT.verifyJWTAndGetPayload(preParseJWTInfo,
-                            ((JWTAsymmetricSigningKeyInfo) keyInfo).publicKey);
+                            signingKeys.getVerificationKey((JWTAsymmetricSigningKeyInfo) keyInfo));
                     error = null;
                     break;
                 } catch (NoSuchAlgorithmException e) {
                     // This basically should never happen, but it means, that can't verify any tokens, no need to retry
                     throw new TryRefreshTokenException(e);
-                } catch (KeyException | JWTException e) {
+                } catch (KeyException | JWTException | InvalidKeySpecException e) {
                     /*
                      * There are a couple of reasons the verification could fail:
                      * 1) The access token is "corrupted" - this is a rare scenario since it probably means
@@ -142,7 +143,7 @@ public class AccessToken {
                 ProcessState.getInstance(main).addState(PROCESS_STATE.RETRYING_ACCESS_TOKEN_JWT_VERIFICATION, error);
 
                 // remove key from memory and retry
-                SigningKeys.getInstance(appIdentifier, main).updateKeyCacheIfNotChanged(keyInfoList);
+                signingKeys.updateKeyCacheIfNotChanged(keyInfoList);
                 return AccessToken.getInfoFromAccessToken(appIdentifier, main, token, false, doAntiCsrfCheck);
             }
             throw new TryRefreshTokenException(error);
@@ -169,6 +170,42 @@ public class AccessToken {
         return getInfoFromAccessToken(appIdentifier, main, token, true, doAntiCsrfCheck);
     }
 
+    /**
+     * Same as getInfoFromAccessToken, but the result may come from {@link AccessTokenVerificationCache} if it is
+     * enabled for the app (access_token_verification_cache_size > 0). Callers that need to check the session in the
+     * db anyway (blacklisting) should not use this.
+     */
+    public static AccessTokenInfo getInfoFromAccessTokenUsingCache(AppIdentifier appIdentifier, @Nonnull Main main,
+                                                                   @Nonnull String token,
+                                                                   boolean doAntiCsrfCheck)
+            throws StorageQueryException, StorageTransactionLogicException, TryRefreshTokenException,
+            TenantOrAppNotFoundException, UnsupportedJWTSigningAlgorithmException {
+        int cacheSize = Config.getConfig(appIdentifier.getAsPublicTenantIdentifier(), main)
+                .getAccessTokenVerificationCacheSize();
+        if (cacheSize <= 0) {
+            return getInfoFromAccessToken(appIdentifier, main, token, true, doAntiCsrfCheck);
+        }
+
+        // we read this before verifying so that if the keys are refreshed in the meantime, the cached result is
+        // considered outdated
+        Object keyCacheVersion = SigningKeys.getInstance(appIdentifier, main).getKeyCacheVersion();
+        AccessTokenVerificationCache cache = AccessTokenVerificationCache.getInstance(main, appIdentifier);
+
+        AccessTokenInfo tokenInfo = cache.get(token, keyCacheVersion);
+        if (tokenInfo == null) {
+            // we do the anti-csrf check below so that the cached result doesn't depend on it
+            tokenInfo = getInfoFromAccessToken(appIdentifier, main, token, true, false);
+            cache.put(token, tokenInfo, keyCacheVersion, cacheSize);
+        }
+
+        if (doAntiCsrfCheck && tokenInfo.antiCsrfToken == null) {
+            throw new TryRefreshTokenException(
+                    "Access token does not contain all the information. Maybe the structure has changed?");
+        }
+
+        return tokenInfo;
+    }
+
     @TestOnly
     public static AccessTokenInfo getInfoFromAccessToken(@Nonnull Main main,
                                                          @Nonnull String token,
@@ -424,6 +461,12 @@ public class AccessToken {
             this.tenantIdentifier = tenantIdentifier;
         }
 
+        AccessTokenInfo copy() {
+            return new AccessTokenInfo(sessionHandle, recipeUserId, primaryUserId, refreshTokenHash1, expiryTime,
+                    parentRefreshTokenHash1, userData.deepCopy(), antiCsrfToken, timeCreated, version,
+                    tenantIdentifier);
+        }
+
         static AccessTokenInfo fromJSON(AppIdentifier appIdentifier, JsonObject payload, VERSION version)
                 throws TryRefreshTokenException {
             JsonElement parentRefreshTokenHash = payload.get("parentRefreshTokenHash1");
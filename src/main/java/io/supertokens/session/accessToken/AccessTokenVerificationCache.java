@@ -0,0 +1,144 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.session.accessToken;
+
+import com.google.gson.JsonObject;
+import io.supertokens.Main;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.session.accessToken.AccessToken.AccessTokenInfo;
+import org.jetbrains.annotations.TestOnly;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caches the result of verifying an access token, so that verifying the same token again (which SDKs do a lot within
+// the lifetime of a token) does not need to check the signature and parse the payload again. Entries are only valid
+// until the token expires, or until the signing keys of the app are refreshed.
+public class AccessTokenVerificationCache extends ResourceDistributor.SingletonResource {
+    public static final String RESOURCE_KEY = "io.supertokens.session.accessToken.AccessTokenVerificationCache";
+
+    // removing expired entries requires going through the whole map, so we do it at most once in this interval
+    private static final long CLEANUP_INTERVAL_MS = 1000;
+
+    // keyed by the signature part of the token
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastCleanupTime = 0;
+
+    private AccessTokenVerificationCache() {
+    }
+
+    public static AccessTokenVerificationCache getInstance(Main main, AppIdentifier appIdentifier)
+            throws TenantOrAppNotFoundException {
+        try {
+            return (AccessTokenVerificationCache) main.getResourceDistributor()
+                    .getResource(appIdentifier, RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            // we only create the cache for apps that exist, same as in RequestStats
+            if (Multitenancy.getTenantInfo(main, appIdentifier.getAsPublicTenantIdentifier()) == null) {
+                throw e;
+            }
+            return (AccessTokenVerificationCache) main.getResourceDistributor()
+                    .setResource(appIdentifier, RESOURCE_KEY, new AccessTokenVerificationCache());
+        }
+    }
+
+    @Nullable
+    AccessTokenInfo get(@Nonnull String token, @Nonnull Object keyCacheVersion) {
+        String signature = getSignature(token);
+        CacheEntry entry = this.cache.get(signature);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+        if (entry.keyCacheVersion != keyCacheVersion || entry.tokenInfo.expiryTime < System.currentTimeMillis()) {
+            this.cache.remove(signature, entry);
+            this.misses.increment();
+            return null;
+        }
+        if (!entry.token.equals(token)) {
+            // someone reused the signature of a verified token with a different header or payload
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        return entry.tokenInfo.copy();
+    }
+
+    void put(@Nonnull String token, @Nonnull AccessTokenInfo tokenInfo, @Nonnull Object keyCacheVersion,
+             int maxSize) {
+        if (this.cache.size() >= maxSize) {
+            removeExpiredEntries();
+            if (this.cache.size() >= maxSize) {
+                // the cache is full of tokens that are still valid, so we don't add this one. Those tokens will
+                // expire soon enough and make space for new ones.
+                return;
+            }
+        }
+        this.cache.put(getSignature(token), new CacheEntry(token, tokenInfo.copy(), keyCacheVersion));
+    }
+
+    private void removeExpiredEntries() {
+        long now = System.currentTimeMillis();
+        if (now - this.lastCleanupTime < CLEANUP_INTERVAL_MS) {
+            return;
+        }
+        this.lastCleanupTime = now;
+        this.cache.values().removeIf(entry -> entry.tokenInfo.expiryTime < now);
+    }
+
+    private static String getSignature(String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+
+    public JsonObject getStats() {
+        JsonObject result = new JsonObject();
+        result.addProperty("hits", this.hits.sum());
+        result.addProperty("misses", this.misses.sum());
+        result.addProperty("size", this.cache.size());
+        return result;
+    }
+
+    @TestOnly
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    @TestOnly
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    private static class CacheEntry {
+        final String token;
+        final AccessTokenInfo tokenInfo;
+        final Object keyCacheVersion;
+
+        CacheEntry(String token, AccessTokenInfo tokenInfo, Object keyCacheVersion) {
+            this.token = token;
+            this.tokenInfo = tokenInfo;
+            this.keyCacheVersion = keyCacheVersion;
+        }
+    }
+}
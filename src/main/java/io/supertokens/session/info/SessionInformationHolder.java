@@ -19,11 +19,8 @@ package io.supertokens.session.info;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
-import io.supertokens.utils.Utils;
-
 public class SessionInformationHolder {
 
     @Nonnull
@@ -51,10 +48,42 @@ public class SessionInformationHolder {
         this.antiCsrfToken = antiCsrfToken;
     }
 
+    // This is called for every session that is created, verified or refreshed, so we build the JSON ourselves
+    // instead of having Gson find the fields using reflection each time. The output is the same: the session is
+    // written with its null fields, and the other null fields are left out.
     public JsonObject toJsonObject() {
-        JsonObject json = new Gson().toJsonTree(this).getAsJsonObject();
-        json.add("session", Utils.toJsonTreeWithNulls(session));
+        JsonObject result = new JsonObject();
+        result.add("session", sessionInfoToJsonObject(this.session));
+        addTokenInfo(result, "accessToken", this.accessToken);
+        addTokenInfo(result, "refreshToken", this.refreshToken);
+        addTokenInfo(result, "idRefreshToken", this.idRefreshToken);
+        if (this.antiCsrfToken != null) {
+            result.addProperty("antiCsrfToken", this.antiCsrfToken);
+        }
+        return result;
+    }
+
+    private static JsonObject sessionInfoToJsonObject(SessionInfo session) {
+        JsonObject result = new JsonObject();
+        result.addProperty("handle", session.handle);
+        result.addProperty("userId", session.userId);
+        result.addProperty("recipeUserId", session.recipeUserId);
+        // the APIs can change the returned object, so it must not share the session's payload
+        result.add("userDataInJWT", session.userDataInJWT == null ? null : session.userDataInJWT.deepCopy());
+        result.addProperty("tenantId", session.tenantId);
+        return result;
+    }
 
-        return json;
+    private static void addTokenInfo(JsonObject result, String name, TokenInfo tokenInfo) {
+        if (tokenInfo == null) {
+            return;
+        }
+        JsonObject tokenInfoJson = new JsonObject();
+        if (tokenInfo.token != null) {
+            tokenInfoJson.addProperty("token", tokenInfo.token);
+        }
+        tokenInfoJson.addProperty("expiry", tokenInfo.expiry);
+        tokenInfoJson.addProperty("createdTime", tokenInfo.createdTime);
+        result.add(name, tokenInfoJson);
     }
 }
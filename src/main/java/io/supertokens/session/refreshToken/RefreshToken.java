@@ -20,6 +20,7 @@ import com.google.gson.Gson;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
 import io.supertokens.config.Config;
+import io.supertokens.config.CoreConfig;
 import io.supertokens.exceptions.UnauthorisedException;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
@@ -35,6 +36,7 @@ import javax.annotation.Nullable;
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
@@ -57,7 +59,8 @@ public class RefreshToken {
                                                            @Nonnull Main main, @Nonnull String token)
             throws UnauthorisedException, StorageQueryException, StorageTransactionLogicException,
             TenantOrAppNotFoundException {
-        String key = RefreshTokenKey.getInstance(appIdentifier, main).getKey();
+        RefreshTokenKey refreshTokenKey = RefreshTokenKey.getInstance(appIdentifier, main);
+        String key = refreshTokenKey.getKey();
         try {
             TYPE tokenType = getTypeFromToken(token);
 
@@ -68,7 +71,12 @@ public class RefreshToken {
                         "Refresh token split with dot yielded an array of length: " + splittedToken.length);
             }
             String nonce = splittedToken[1];
-            String decrypted = Utils.decrypt(splittedToken[0], key);
+            String decrypted;
+            if (tokenType == TYPE.FREE_OPTIMISED_DERIVED_KEY) {
+                decrypted = Utils.decrypt(splittedToken[0], refreshTokenKey.getEncryptionKey());
+            } else {
+                decrypted = Utils.decrypt(splittedToken[0], key);
+            }
             RefreshTokenPayload tokenPayload = new Gson().fromJson(decrypted, RefreshTokenPayload.class);
             if (tokenPayload.userId == null || tokenPayload.sessionHandle == null
                     || !nonce.equals(tokenPayload.nonce)) {
@@ -108,22 +116,29 @@ public class RefreshToken {
             throws NoSuchAlgorithmException, StorageQueryException, NoSuchPaddingException, InvalidKeyException,
             IllegalBlockSizeException, BadPaddingException, StorageTransactionLogicException,
             InvalidAlgorithmParameterException, InvalidKeySpecException, TenantOrAppNotFoundException {
-        String key = RefreshTokenKey.getInstance(tenantIdentifier.toAppIdentifier(), main).getKey();
+        RefreshTokenKey refreshTokenKey = RefreshTokenKey.getInstance(tenantIdentifier.toAppIdentifier(), main);
+        CoreConfig config = Config.getConfig(tenantIdentifier, main);
         String nonce = Utils.hashSHA256(UUID.randomUUID().toString());
         RefreshTokenPayload payload = new RefreshTokenPayload(sessionHandle, userId, parentRefreshTokenHash1, nonce,
                 antiCsrfToken, tenantIdentifier.getTenantId());
         String payloadSerialised = new Gson().toJson(payload);
-        String encryptedPayload = Utils.encrypt(payloadSerialised, key);
-        String token = encryptedPayload + "." + nonce + "." + TYPE.FREE_OPTIMISED.toString();
+        // V3 tokens can't be read by older cores, so they are only created once this is enabled
+        String token;
+        if (config.getRefreshTokenUseDerivedKey()) {
+            SecretKey key = refreshTokenKey.getEncryptionKey();
+            token = Utils.encrypt(payloadSerialised, key) + "." + nonce + "."
+                    + TYPE.FREE_OPTIMISED_DERIVED_KEY.toString();
+        } else {
+            String key = refreshTokenKey.getKey();
+            token = Utils.encrypt(payloadSerialised, key) + "." + nonce + "." + TYPE.FREE_OPTIMISED.toString();
+        }
         long now = System.currentTimeMillis();
-        return new TokenInfo(token,
-                now + Config.getConfig(tenantIdentifier, main).getRefreshTokenValidityInMillis(),
-                now);
+        return new TokenInfo(token, now + config.getRefreshTokenValidityInMillis(), now);
     }
 
     private static TYPE getTypeFromToken(String token) throws InvalidRefreshTokenFormatException {
         try {
-            // token format can <random_uuid>.V0 || <encrypted part>.<nonce>.V1
+            // token format can <random_uuid>.V0 || <encrypted part>.<nonce>.V1 (or V2 / V3)
             String[] splitted = token.split("\\.");
             String typeStr = splitted[splitted.length - 1];
             TYPE t = TYPE.fromString(typeStr);
@@ -137,7 +152,9 @@ public class RefreshToken {
     }
 
     public enum TYPE {
-        FREE("V0"), PAID("V1"), FREE_OPTIMISED("V2");
+        // V3 tokens have the same format as V2 tokens, but the AES key is derived from the master key only once (with
+        // a fixed salt) instead of once per token (with the IV as the salt).
+        FREE("V0"), PAID("V1"), FREE_OPTIMISED("V2"), FREE_OPTIMISED_DERIVED_KEY("V3");
 
         private String version;
 
@@ -35,6 +35,9 @@ import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.utils.Utils;
 import org.jetbrains.annotations.TestOnly;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.HashMap;
@@ -48,6 +51,11 @@ public class RefreshTokenKey extends ResourceDistributor.SingletonResource {
     private String key;
     private final AppIdentifier appIdentifier;
 
+    // This is used to derive the AES key for refresh tokens of type V3. Since the salt is fixed, the derived key only
+    // depends on the master key, and so we can compute it once and reuse it.
+    private static final byte[] ENCRYPTION_KEY_SALT = "supertokens-refresh-token-v3".getBytes(StandardCharsets.UTF_8);
+    private volatile SecretKey encryptionKey;
+
     private RefreshTokenKey(AppIdentifier appIdentifier, Main main) throws
             TenantOrAppNotFoundException {
         this.main = main;
@@ -109,6 +117,22 @@ public class RefreshTokenKey extends ResourceDistributor.SingletonResource {
         return this.key;
     }
 
+    /**
+     * Returns the AES key that is used to encrypt / decrypt refresh tokens of type
+     * {@link RefreshToken.TYPE#FREE_OPTIMISED_DERIVED_KEY}. The key is derived from the master key (see
+     * {@link #getKey()}) only once per instance.
+     */
+    public SecretKey getEncryptionKey() throws StorageQueryException, StorageTransactionLogicException,
+            TenantOrAppNotFoundException, NoSuchAlgorithmException, InvalidKeySpecException {
+        SecretKey result = this.encryptionKey;
+        if (result == null) {
+            // it's OK if multiple threads end up doing this at the same time since they will all derive the same key
+            result = new SecretKeySpec(Utils.pbkdf2(getKey().toCharArray(), ENCRYPTION_KEY_SALT, 100, 32 * 8), "AES");
+            this.encryptionKey = result;
+        }
+        return result;
+    }
+
     private String maybeGenerateNewKeyAndUpdateInDb()
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException {
         SessionStorage storage = (SessionStorage) StorageLayer.getStorage(
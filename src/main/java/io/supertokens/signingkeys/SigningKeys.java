@@ -40,6 +40,8 @@ import java.security.PublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -53,6 +55,16 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
     private List<KeyInfo> dynamicKeys;
     private List<JWTSigningKeyInfo> staticKeys;
 
+    // parsed public keys used for verifying access tokens, keyed by kid. This is cleared whenever the key lists above
+    // are refreshed so that it never holds a key that is no longer known to this instance.
+    private final Map<String, VerificationKey> verificationKeys = new ConcurrentHashMap<>();
+
+    // This is replaced every time the key lists are refreshed. Anything derived from the keys (like cached token
+    // verification results) can compare this by reference to know if it's still up-to-date.
+    private volatile Object keyCacheVersion = new Object();
+
+    private final ReentrantLock keyCacheUpdateLock = new ReentrantLock();
+
 
     public static SigningKeys getInstance(AppIdentifier appIdentifier, Main main)
             throws TenantOrAppNotFoundException {
@@ -218,11 +230,22 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
                 .getAccessTokenDynamicSigningKeyUpdateIntervalInMillis();
     }
 
-    // This function is synchronized because we only want a single function to clear (and refresh) the key cache.
-    // If multiple threads try to refresh it at the same time, we can avoid multiple trips to the DB by checking if
-    // their info is
+    // This function holds keyCacheUpdateLock because we only want a single function to clear (and refresh) the key
+    // cache. If multiple threads try to refresh it at the same time, we can avoid multiple trips to the DB by checking
+    // if their info is
     // up-to-date, i.e.: if all currently cached keys were known to them.
-    public synchronized void updateKeyCacheIfNotChanged(List<JWTSigningKeyInfo> oldKeyInfo)
+    public void updateKeyCacheIfNotChanged(List<JWTSigningKeyInfo> oldKeyInfo)
+            throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
+            UnsupportedJWTSigningAlgorithmException {
+        keyCacheUpdateLock.lock();
+        try {
+            updateKeyCacheIfNotChangedWhileHoldingLock(oldKeyInfo);
+        } finally {
+            keyCacheUpdateLock.unlock();
+        }
+    }
+
+    private void updateKeyCacheIfNotChangedWhileHoldingLock(List<JWTSigningKeyInfo> oldKeyInfo)
             throws StorageQueryException, StorageTransactionLogicException, TenantOrAppNotFoundException,
             UnsupportedJWTSigningAlgorithmException {
         // we cannot use read write locks for keyInfo because in getKey, we would
@@ -241,6 +264,8 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
             ProcessState.getInstance(this.main)
                     .addState(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, null);
             this.dynamicKeys = AccessTokenSigningKey.getInstance(appIdentifier, main).getOrCreateAndGetSigningKeys();
+            this.verificationKeys.clear();
+            this.keyCacheVersion = new Object();
         }
 
         if (this.staticKeys == null ||
@@ -251,6 +276,44 @@ public class SigningKeys extends ResourceDistributor.SingletonResource {
             ProcessState.getInstance(this.main)
                     .addState(ProcessState.PROCESS_STATE.UPDATING_ACCESS_TOKEN_SIGNING_KEYS, null);
             this.staticKeys = JWTSigningKey.getInstance(appIdentifier, main).getAllSigningKeys();
+            this.verificationKeys.clear();
+            this.keyCacheVersion = new Object();
+        }
+    }
+
+    public Object getKeyCacheVersion() {
+        return this.keyCacheVersion;
+    }
+
+    /**
+     * Returns the parsed public key that should be used to verify a token signed with the given key. Parsing the
+     * base64 encoded key is relatively expensive, so the result is cached per kid until the key cache is refreshed
+     * in updateKeyCacheIfNotChanged.
+     *
+     * @param keyInfo The key (as returned by getAllKeys or getSigningKeyById) to get the public key for
+     * @return The parsed public key
+     * @throws NoSuchAlgorithmException If there is an error when using Java's cryptography packages
+     * @throws InvalidKeySpecException  If the stored public key is not a valid key
+     */
+    public PublicKey getVerificationKey(JWTAsymmetricSigningKeyInfo keyInfo)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        VerificationKey cached = this.verificationKeys.get(keyInfo.keyId);
+        // we also compare the key string in case a key with the same id was replaced in the db
+        if (cached != null && cached.publicKeyString.equals(keyInfo.publicKey)) {
+            return cached.publicKey;
+        }
+        PublicKey publicKey = getPublicKeyFromString(keyInfo.publicKey, JWTSigningKey.SupportedAlgorithms.RS256);
+        this.verificationKeys.put(keyInfo.keyId, new VerificationKey(keyInfo.publicKey, publicKey));
+        return publicKey;
+    }
+
+    private static class VerificationKey {
+        final String publicKeyString;
+        final PublicKey publicKey;
+
+        VerificationKey(String publicKeyString, PublicKey publicKey) {
+            this.publicKeyString = publicKeyString;
+            this.publicKey = publicKey;
         }
     }
 
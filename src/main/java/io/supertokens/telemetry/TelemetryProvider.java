@@ -63,6 +63,10 @@ public class TelemetryProvider extends ResourceDistributor.SingletonResource imp
                 .setResource(TenantIdentifier.BASE_TENANT, RESOURCE_ID, new TelemetryProvider(main));
     }
 
+    public boolean isEnabled() {
+        return openTelemetry != null;
+    }
+
     @Override
     public void createLogEvent(TenantIdentifier tenantIdentifier, String logMessage,
                                String logLevel) {
@@ -40,6 +40,7 @@ import io.supertokens.pluginInterface.thirdparty.exception.DuplicateThirdPartyUs
 import io.supertokens.pluginInterface.thirdparty.exception.DuplicateUserIdException;
 import io.supertokens.pluginInterface.thirdparty.sqlStorage.ThirdPartySQLStorage;
 import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.utils.Utils;
 import org.jetbrains.annotations.TestOnly;
 
@@ -168,8 +169,12 @@ public class ThirdParty {
             throw new TenantOrAppNotFoundException(tenantIdentifier);
         }
 
+        UsageStats.Generation usageStats = UsageStats.getGeneration(main, tenantIdentifier.toAppIdentifier());
         SignInUpResponse response = signInUpHelper(tenantIdentifier, storage, thirdPartyId, thirdPartyUserId,
                 email);
+        if (response.createdNewUser) {
+            UsageStats.userSignedUp(usageStats, tenantIdentifier);
+        }
 
         if (isEmailVerified) {
             for (LoginMethod lM : response.user.loginMethods) {
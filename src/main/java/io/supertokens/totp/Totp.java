@@ -3,11 +3,13 @@ package io.supertokens.totp;
 import com.eatthepath.otp.TimeBasedOneTimePasswordGenerator;
 import io.supertokens.Main;
 import io.supertokens.ResourceDistributor;
+import io.supertokens.authRecipe.AuthRecipe;
 import io.supertokens.config.Config;
 import io.supertokens.featureflag.exceptions.FeatureNotEnabledException;
 import io.supertokens.mfa.Mfa;
 import io.supertokens.pluginInterface.Storage;
 import io.supertokens.pluginInterface.StorageUtils;
+import io.supertokens.pluginInterface.authRecipe.AuthRecipeUserInfo;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
@@ -23,6 +25,7 @@ import io.supertokens.pluginInterface.totp.sqlStorage.TOTPSQLStorage;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.totp.exceptions.InvalidTotpException;
 import io.supertokens.totp.exceptions.LimitReachedException;
+import io.supertokens.usagestats.UsageStats;
 import org.apache.commons.codec.binary.Base32;
 import org.jetbrains.annotations.TestOnly;
 
@@ -97,8 +100,11 @@ public class Totp {
 
         if (deviceName != null) {
             TOTPSQLStorage totpStorage = StorageUtils.getTOTPStorage(storage);
+            UsageStats.Generation usageStats = UsageStats.getGeneration(main, appIdentifier);
+            // we only need to know this if the app keeps its usage stats
+            boolean isFirstDevice = usageStats != null && totpStorage.getDevices(appIdentifier, userId).length == 0;
             try {
-                return totpStorage.startTransaction(con -> {
+                TOTPDevice createdDevice = totpStorage.startTransaction(con -> {
                     try {
                         TOTPDevice existingDevice = totpStorage.getDeviceByName_Transaction(con, appIdentifier, userId,
                                 deviceName);
@@ -118,6 +124,14 @@ public class Totp {
                         throw new StorageTransactionLogicException(e);
                     }
                 });
+                if (isFirstDevice) {
+                    // the user has TOTP enabled now. They were already counted if they have more than one login method
+                    AuthRecipeUserInfo user = AuthRecipe.getUserById(appIdentifier, storage, userId);
+                    if (user == null || !user.getSupertokensUserId().equals(userId) || user.loginMethods.length == 1) {
+                        UsageStats.userWithMoreThanOneLoginMethodOrTOTPEnabledAdded(usageStats);
+                    }
+                }
+                return createdDevice;
             } catch (StorageTransactionLogicException e) {
                 if (e.actualException instanceof DeviceAlreadyExistsException) {
                     throw (DeviceAlreadyExistsException) e.actualException;
@@ -472,8 +486,8 @@ public class Totp {
             throws StorageQueryException, UnknownDeviceException,
             StorageTransactionLogicException {
         try {
-            removeDevice(ResourceDistributor.getAppForTesting().toAppIdentifier(), StorageLayer.getStorage(main),
-                    userId, deviceName);
+            removeDevice(main, ResourceDistributor.getAppForTesting().toAppIdentifier(),
+                    StorageLayer.getStorage(main), userId, deviceName);
         } catch (TenantOrAppNotFoundException e) {
             throw new IllegalStateException(e);
         }
@@ -482,7 +496,7 @@ public class Totp {
     /**
      * Delete device and also delete the user if deleting the last device
      */
-    public static void removeDevice(AppIdentifier appIdentifier, Storage storage, String userId,
+    public static void removeDevice(Main main, AppIdentifier appIdentifier, Storage storage, String userId,
                                     String deviceName)
             throws StorageQueryException, UnknownDeviceException,
             StorageTransactionLogicException, TenantOrAppNotFoundException {
@@ -506,7 +520,6 @@ public class Totp {
                 totpStorage.commitTransaction(con);
                 return null;
             });
-            return;
         } catch (StorageTransactionLogicException e) {
             if (e.actualException instanceof UnknownDeviceException) {
                 throw (UnknownDeviceException) e.actualException;
@@ -0,0 +1,319 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.usagestats;
+
+import io.supertokens.ActiveUsers;
+import io.supertokens.Main;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.pluginInterface.Storage;
+import io.supertokens.pluginInterface.authRecipe.AuthRecipeStorage;
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantConfig;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.pluginInterface.session.sqlStorage.SessionSQLStorage;
+import io.supertokens.storageLayer.StorageLayer;
+import org.jetbrains.annotations.TestOnly;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The usage stats of an app that are reported in the paid feature stats. Counting these from the db is expensive, so
+// they are counted once, kept up-to-date from the events that change them, and counted again by the
+// ReconcileUsageStats cron, which fixes anything that the events missed (like sessions that expired, or users that were
+// added by a bulk import).
+//
+// Sign ups, creating or revoking sessions, deleting or linking users and creating a user's first TOTP device update the
+// counts directly. The changes of other events, like unlinking users, adding users to or removing them from tenants,
+// or removing TOTP devices, can't be known without counting again. The cron fixes the counts for those.
+//
+// The MAUs of users with more than one login method or TOTP change with every sign in. Storages that can count them
+// with one grouped query count them each time they are read, like the other MAUs. The other storages need a query for
+// each of the last 31 days, so the ReconcileUsageStats cron counts them for those and they are served from here.
+//
+// The stats of an app are only kept after they have been read once, so apps that never read them don't pay for them.
+public class UsageStats extends ResourceDistributor.SingletonResource {
+
+    private static final String RESOURCE_KEY = "io.supertokens.usagestats.UsageStats";
+
+    // null until the stats are counted for the first time
+    private volatile Counts counts = null;
+
+    private volatile boolean outdated = true;
+
+    // true while the stats are being counted
+    private volatile boolean counting = false;
+
+    // held while the stats are counted, so that only one thread queries the db for them at a time
+    private final ReentrantLock countLock = new ReentrantLock();
+
+    // counted by the ReconcileUsageStats cron if the storages of the app can't count them with one grouped query. null
+    // until the cron has counted them.
+    private volatile int[] mauWithMoreThanOneLoginMethodOrTOTPEnabled = null;
+
+    private UsageStats() {
+    }
+
+    // returns the stats of the app, counting them first if they have not been counted yet or if they are outdated
+    public static UsageStats getInstance(Main main, AppIdentifier appIdentifier)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        UsageStats stats = getInstanceIfExists(main, appIdentifier);
+        if (stats == null) {
+            // we only create the stats for apps that exist
+            StorageLayer.getStorage(appIdentifier.getAsPublicTenantIdentifier(), main);
+            stats = (UsageStats) main.getResourceDistributor()
+                    .setResource(appIdentifier, RESOURCE_KEY, new UsageStats());
+        }
+        if (stats.outdated) {
+            stats.countLock.lock();
+            try {
+                // another thread may have counted them while we were waiting for the lock
+                if (stats.outdated) {
+                    stats.countWhileHoldingLock(main, appIdentifier);
+                }
+            } finally {
+                stats.countLock.unlock();
+            }
+        }
+        return stats;
+    }
+
+    @Nullable
+    private static UsageStats getInstanceIfExists(Main main, AppIdentifier appIdentifier) {
+        try {
+            return (UsageStats) main.getResourceDistributor().getResource(appIdentifier, RESOURCE_KEY);
+        } catch (TenantOrAppNotFoundException e) {
+            return null;
+        }
+    }
+
+    // counts the stats of all the apps that keep them again
+    public static void reconcileAll(Main main) throws StorageQueryException {
+        Map<ResourceDistributor.KeyClass, ResourceDistributor.SingletonResource> allStats =
+                main.getResourceDistributor().getAllResourcesWithResourceKey(RESOURCE_KEY);
+        for (Map.Entry<ResourceDistributor.KeyClass, ResourceDistributor.SingletonResource> entry :
+                allStats.entrySet()) {
+            AppIdentifier appIdentifier = entry.getKey().getTenantIdentifier().toAppIdentifier();
+            UsageStats stats = (UsageStats) entry.getValue();
+            stats.countLock.lock();
+            try {
+                stats.countWhileHoldingLock(main, appIdentifier);
+                if (!ActiveUsers.canCountUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledInBulk(main,
+                        appIdentifier)) {
+                    stats.mauWithMoreThanOneLoginMethodOrTOTPEnabled = ActiveUsers
+                            .countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+                                    main, appIdentifier, System.currentTimeMillis(), 31);
+                }
+            } catch (TenantOrAppNotFoundException e) {
+                // the app was deleted
+                main.getResourceDistributor().removeResource(appIdentifier, RESOURCE_KEY);
+            } finally {
+                stats.countLock.unlock();
+            }
+        }
+    }
+
+    private void countWhileHoldingLock(Main main, AppIdentifier appIdentifier)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        // we clear this before counting, so that an event that happens while we are counting makes the stats outdated
+        // again (see markOutdatedIfCountedSince)
+        this.outdated = false;
+        this.counting = true;
+        try {
+            this.counts = Counts.count(main, appIdentifier);
+        } catch (StorageQueryException | TenantOrAppNotFoundException | RuntimeException e) {
+            this.outdated = true;
+            throw e;
+        } finally {
+            this.counting = false;
+        }
+    }
+
+    // Events that update the counts directly get the generation of the counts before they write their change to the
+    // db, and apply the change to that generation only. A count that runs after the write includes the change, so
+    // applying it to the counts that replaced the generation would count it twice.
+    //
+    // Returns null if the app does not keep its stats.
+    @Nullable
+    public static Generation getGeneration(Main main, AppIdentifier appIdentifier) {
+        UsageStats stats = getInstanceIfExists(main, appIdentifier);
+        return stats == null ? null : new Generation(stats, stats.counts);
+    }
+
+    public static void userSignedUp(@Nullable Generation generation, TenantIdentifier tenantIdentifier) {
+        if (generation != null && generation.counts != null) {
+            generation.counts.getTenantCounts(tenantIdentifier.getTenantId()).usersCount.incrementAndGet();
+        }
+        markOutdatedIfCountedSince(generation);
+    }
+
+    public static void sessionCreated(@Nullable Generation generation, TenantIdentifier tenantIdentifier) {
+        if (generation != null && generation.counts != null) {
+            generation.counts.getTenantCounts(tenantIdentifier.getTenantId()).sessionsCount.incrementAndGet();
+        }
+        markOutdatedIfCountedSince(generation);
+    }
+
+    public static void sessionsRevoked(@Nullable Generation generation, TenantIdentifier tenantIdentifier,
+                                       int numberOfSessions) {
+        if (numberOfSessions == 0) {
+            return;
+        }
+        if (generation != null && generation.counts != null) {
+            generation.counts.getTenantCounts(tenantIdentifier.getTenantId()).sessionsCount
+                    .addAndGet(-numberOfSessions);
+        }
+        markOutdatedIfCountedSince(generation);
+    }
+
+    // The change of the event is in the db now. If the stats have been counted since the generation was taken, or
+    // are being counted, we can't tell if that count includes the change, so the stats are counted again the next
+    // time they are read. counting is read before counts: a count that starts after that read started after the
+    // change was written, so it includes the change.
+    private static void markOutdatedIfCountedSince(@Nullable Generation generation) {
+        if (generation == null) {
+            return;
+        }
+        UsageStats stats = generation.stats;
+        if (stats.counting || stats.counts != generation.counts) {
+            stats.outdated = true;
+        }
+    }
+
+    // each tenant id in the list has one user less, because the user was deleted or linked to a user that is in the
+    // tenant too
+    public static void usersRemoved(@Nullable Generation generation, List<String> tenantIds) {
+        if (tenantIds.isEmpty()) {
+            return;
+        }
+        if (generation != null && generation.counts != null) {
+            for (String tenantId : tenantIds) {
+                generation.counts.getTenantCounts(tenantId).usersCount.decrementAndGet();
+            }
+        }
+        markOutdatedIfCountedSince(generation);
+    }
+
+    // a user that was not counted before now has more than one login method or TOTP enabled
+    public static void userWithMoreThanOneLoginMethodOrTOTPEnabledAdded(@Nullable Generation generation) {
+        if (generation != null && generation.counts != null) {
+            generation.counts.usersCountWithMoreThanOneLoginMethodOrTOTPEnabled.incrementAndGet();
+        }
+        markOutdatedIfCountedSince(generation);
+    }
+
+    public long getUsersCount(String tenantId) {
+        TenantCounts tenantCounts = this.counts.tenants.get(tenantId);
+        // the count can be off for a short while if an event happened while we were counting, so we make sure it's
+        // never negative
+        return tenantCounts == null ? 0 : Math.max(0, tenantCounts.usersCount.get());
+    }
+
+    // this includes expired sessions that have not been deleted yet, like the number of sessions in the db does
+    public long getSessionsCount(String tenantId) {
+        TenantCounts tenantCounts = this.counts.tenants.get(tenantId);
+        return tenantCounts == null ? 0 : Math.max(0, tenantCounts.sessionsCount.get());
+    }
+
+    public int getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled() {
+        return Math.max(0, this.counts.usersCountWithMoreThanOneLoginMethodOrTOTPEnabled.get());
+    }
+
+    // the element at index i is the number of these users that were active since (i + 1) days before now. Returns null
+    // if the cron has not counted them yet for an app whose storages can't count them with one grouped query.
+    @Nullable
+    public int[] getMauWithMoreThanOneLoginMethodOrTOTPEnabled(Main main, AppIdentifier appIdentifier)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        if (ActiveUsers.canCountUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledInBulk(main, appIdentifier)) {
+            return ActiveUsers.countUsersThatHaveMoreThanOneLoginMethodOrTOTPEnabledAndActiveSinceEachOfLastDays(
+                    main, appIdentifier, System.currentTimeMillis(), 31);
+        }
+        return this.mauWithMoreThanOneLoginMethodOrTOTPEnabled;
+    }
+
+    @TestOnly
+    public boolean isOutdated() {
+        return this.outdated;
+    }
+
+    public static class Generation {
+        private final UsageStats stats;
+
+        // null if the stats had not been counted yet
+        @Nullable
+        private final Counts counts;
+
+        private Generation(UsageStats stats, @Nullable Counts counts) {
+            this.stats = stats;
+            this.counts = counts;
+        }
+    }
+
+    private static class Counts {
+        // tenant id -> counts. Tenants that are created after counting are added when something happens in them.
+        private final Map<String, TenantCounts> tenants = new ConcurrentHashMap<>();
+
+        private final AtomicInteger usersCountWithMoreThanOneLoginMethodOrTOTPEnabled;
+
+        private Counts(int usersCountWithMoreThanOneLoginMethodOrTOTPEnabled) {
+            this.usersCountWithMoreThanOneLoginMethodOrTOTPEnabled = new AtomicInteger(
+                    usersCountWithMoreThanOneLoginMethodOrTOTPEnabled);
+        }
+
+        private TenantCounts getTenantCounts(String tenantId) {
+            return this.tenants.computeIfAbsent(tenantId, k -> new TenantCounts(0, 0));
+        }
+
+        private static Counts count(Main main, AppIdentifier appIdentifier)
+                throws StorageQueryException, TenantOrAppNotFoundException {
+            int usersCountWithMoreThanOneLoginMethodOrTOTPEnabled = 0;
+            for (Storage storage : StorageLayer.getStoragesForApp(main, appIdentifier)) {
+                usersCountWithMoreThanOneLoginMethodOrTOTPEnabled += ((AuthRecipeStorage) storage)
+                        .getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled(appIdentifier);
+            }
+
+            Counts counts = new Counts(usersCountWithMoreThanOneLoginMethodOrTOTPEnabled);
+
+            for (TenantConfig tenantConfig : Multitenancy.getAllTenantsForApp(appIdentifier, main)) {
+                Storage storage = StorageLayer.getStorage(tenantConfig.tenantIdentifier, main);
+                long usersCount = ((AuthRecipeStorage) storage).getUsersCount(tenantConfig.tenantIdentifier, null);
+                long sessionsCount = ((SessionSQLStorage) storage).getNumberOfSessions(tenantConfig.tenantIdentifier);
+                counts.tenants.put(tenantConfig.tenantIdentifier.getTenantId(),
+                        new TenantCounts(usersCount, sessionsCount));
+            }
+            return counts;
+        }
+    }
+
+    private static class TenantCounts {
+        private final AtomicLong usersCount;
+
+        private final AtomicLong sessionsCount;
+
+        private TenantCounts(long usersCount, long sessionsCount) {
+            this.usersCount = new AtomicLong(usersCount);
+            this.sessionsCount = new AtomicLong(sessionsCount);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+
+package io.supertokens.userroles;
+
+import io.supertokens.pluginInterface.exceptions.StorageQueryException;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+
+import java.util.List;
+import java.util.Map;
+
+// Bulk user role queries that a storage can optionally implement. UserRoles uses these when the storage implements
+// this interface, and falls back to one getRolesForUser query per user otherwise.
+public interface BulkUserRolesStorage {
+
+    // returns the roles of the given users in the tenant, keyed by user id. Users without roles are not in the
+    // result. This is done in a single query.
+    Map<String, List<String>> getRolesForUsers(TenantIdentifier tenantIdentifier, List<String> userIds)
+            throws StorageQueryException;
+}
@@ -225,6 +225,30 @@ public class UserRoles {
         return StorageUtils.getUserRolesStorage(storage).getRolesForUser(tenantIdentifier, userId);
     }
 
+    // retrieve the roles of each of the given users, keyed by user id. Users without roles map to an empty array
+    public static Map<String, String[]> getRolesForUsers(TenantIdentifier tenantIdentifier, Storage storage,
+                                                         List<String> userIds)
+            throws StorageQueryException {
+        Map<String, String[]> result = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return result;
+        }
+        if (storage instanceof BulkUserRolesStorage) {
+            Map<String, List<String>> rolesByUserId = ((BulkUserRolesStorage) storage)
+                    .getRolesForUsers(tenantIdentifier, userIds);
+            for (String userId : userIds) {
+                result.put(userId, rolesByUserId.getOrDefault(userId, Collections.emptyList()).toArray(String[]::new));
+            }
+            return result;
+        }
+        for (String userId : userIds) {
+            if (!result.containsKey(userId)) {
+                result.put(userId, getRolesForUser(tenantIdentifier, storage, userId));
+            }
+        }
+        return result;
+    }
+
     @TestOnly
     public static String[] getRolesForUser(Main main, String userId)
             throws StorageQueryException {
@@ -16,10 +16,12 @@
 
 package io.supertokens.utils;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.google.i18n.phonenumbers.NumberParseException;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 import com.google.i18n.phonenumbers.Phonenumber;
@@ -44,6 +46,7 @@ import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -64,6 +67,10 @@ import java.util.regex.Pattern;
 
 public class Utils {
 
+    // Gson instances are thread safe, so we share this one. It does not escape HTML characters, so that the JSON it
+    // writes is the same as JsonElement.toString().
+    private static final Gson GSON_WITH_NULLS = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+
     /**
      * Normalizes a phone number by trimming and formatting it according to the
      * E.164 standard.
@@ -216,6 +223,31 @@ public class Utils {
         byte[] key = pbkdf2(masterKey.toCharArray(), iv, 100, 32 * 8);
         SecretKey secretKey = new SecretKeySpec(key, "AES");
 
+        return encryptWithIV(plaintext, secretKey, iv);
+    }
+
+    /**
+     * Encrypts text with an already derived AES key. Unlike {@link #encrypt(String, String)}, the key is not
+     * re-derived from the IV, so the same key can be reused (and cached) across calls. A new random IV is still
+     * generated for every call.
+     *
+     * @param plaintext - text to encrypt
+     * @param secretKey - AES key used to encrypt
+     * @return String base64 encoded IV followed by the encrypted data
+     */
+    public static String encrypt(String plaintext, SecretKey secretKey)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        // Nonce should be 12 bytes
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+
+        return encryptWithIV(plaintext, secretKey, iv);
+    }
+
+    private static String encryptWithIV(String plaintext, SecretKey secretKey, byte[] iv)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
         Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
         GCMParameterSpec parameterSpec = new GCMParameterSpec(128, iv);
 
@@ -255,6 +287,31 @@ public class Utils {
         // Prepare your key/password
         SecretKey secretKey = new SecretKeySpec(Utils.pbkdf2(masterkey.toCharArray(), iv, 100, 32 * 8), "AES");
 
+        return decryptWithIV(byteBuffer, secretKey, iv);
+    }
+
+    /**
+     * Decrypts text that was encrypted using {@link #encrypt(String, SecretKey)}
+     *
+     * @param encdata   - base64 encoded input data
+     * @param secretKey - AES key used to decrypt
+     * @return String decrypted (original) text
+     */
+    public static String decrypt(String encdata, SecretKey secretKey)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Decoder decoder = Base64.getDecoder();
+        ByteBuffer byteBuffer = ByteBuffer.wrap(decoder.decode(encdata));
+
+        byte[] iv = new byte[12];
+        byteBuffer.get(iv);
+
+        return decryptWithIV(byteBuffer, secretKey, iv);
+    }
+
+    private static String decryptWithIV(ByteBuffer byteBuffer, SecretKey secretKey, byte[] iv)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
         // get the rest of encrypted data
         byte[] cipherBytes = new byte[byteBuffer.remaining()];
         byteBuffer.get(cipherBytes);
@@ -306,14 +363,20 @@ public class Utils {
 
     public static boolean verifyWithPublicKey(String content, String signature, String publicKey, boolean urlEncoded)
             throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
-        Signature sign = Signature.getInstance("SHA256withRSA");
         Base64.Decoder keyDecoder = Base64.getDecoder();
         X509EncodedKeySpec ks = new X509EncodedKeySpec(keyDecoder.decode(publicKey));
         KeyFactory kf = KeyFactory.getInstance("RSA");
         PublicKey pub = kf.generatePublic(ks);
 
+        return verifyWithPublicKey(content, signature, pub, urlEncoded);
+    }
+
+    public static boolean verifyWithPublicKey(String content, String signature, PublicKey publicKey,
+                                              boolean urlEncoded)
+            throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        Signature sign = Signature.getInstance("SHA256withRSA");
         Base64.Decoder decoder = urlEncoded ? Base64.getUrlDecoder() : Base64.getDecoder();
-        sign.initVerify(pub);
+        sign.initVerify(publicKey);
         sign.update(stringToBytes(content));
         return sign.verify(decoder.decode(signature));
     }
@@ -431,7 +494,12 @@ public class Utils {
     }
 
     public static JsonElement toJsonTreeWithNulls(Object src) {
-        return new GsonBuilder().serializeNulls().create().toJsonTree(src);
+        return GSON_WITH_NULLS.toJsonTree(src);
+    }
+
+    // writes the JSON in the same way as JsonElement.toString(), but without creating a String of it first
+    public static void writeJson(JsonElement json, Writer writer) {
+        GSON_WITH_NULLS.toJson(json, new JsonWriter(writer));
     }
 
 
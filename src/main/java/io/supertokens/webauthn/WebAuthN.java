@@ -48,6 +48,7 @@ import io.supertokens.pluginInterface.webauthn.WebAuthNStorage;
 import io.supertokens.pluginInterface.webauthn.WebAuthNStoredCredential;
 import io.supertokens.pluginInterface.webauthn.exceptions.*;
 import io.supertokens.pluginInterface.webauthn.slqStorage.WebAuthNSQLStorage;
+import io.supertokens.usagestats.UsageStats;
 import io.supertokens.useridmapping.UserIdMapping;
 import io.supertokens.utils.Utils;
 import io.supertokens.webauthn.data.WebAuthNSignInUpResult;
@@ -279,7 +280,7 @@ public class WebAuthN {
         }
     }
 
-    public static WebAuthNSignInUpResult signUp(Storage storage, TenantIdentifier tenantIdentifier,
+    public static WebAuthNSignInUpResult signUp(Main main, Storage storage, TenantIdentifier tenantIdentifier,
                                                 String optionsId, JsonObject credentialDataJson)
             throws InvalidWebauthNOptionsException, DuplicateUserEmailException, WebauthNVerificationFailedException,
             StorageQueryException, WebauthNOptionsNotExistsException, WebauthNInvalidFormatException{
@@ -288,7 +289,8 @@ public class WebAuthN {
         // all within a transaction
         try {
             WebAuthNSQLStorage webAuthNStorage = StorageUtils.getWebAuthNStorage(storage);
-            return webAuthNStorage.startTransaction(con -> {
+            UsageStats.Generation usageStats = UsageStats.getGeneration(main, tenantIdentifier.toAppIdentifier());
+            WebAuthNSignInUpResult result = webAuthNStorage.startTransaction(con -> {
 
                 while (true) {
                     try {
@@ -325,6 +327,8 @@ public class WebAuthN {
                     }
                 }
             });
+            UsageStats.userSignedUp(usageStats, tenantIdentifier);
+            return result;
 
         } catch (StorageQueryException exception) {
             if (exception.getCause() instanceof InvalidWebauthNOptionsException) {
@@ -0,0 +1,94 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.webserver;
+
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed size histogram of latencies in microseconds, similar to HdrHistogram. Values below 16 get their own bucket,
+// and every power of two above that is split into 8 buckets, so a reported value is at most 12.5% more than the
+// actual one. Recording a value is a single atomic increment, so no locks are needed.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+
+    // values are capped to 2^40 - 1 micro seconds, which is about 12 days
+    private static final int MAX_EXPONENT = 39;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int NUMBER_OF_BUCKETS =
+            LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+    public void recordValue(long micros) {
+        counts.incrementAndGet(getBucketIndex(Math.min(Math.max(micros, 0), MAX_VALUE)));
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // returns the highest value that falls in the bucket
+    static long getBucketUpperValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long bucketSize = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * bucketSize + bucketSize - 1;
+    }
+
+    public JsonObject getStats() {
+        // we take a copy of the counts so that all percentiles are computed from the same values
+        long[] snapshot = new long[NUMBER_OF_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        JsonObject result = new JsonObject();
+        result.addProperty("count", total);
+        result.addProperty("p50Ms", getValueAtPercentile(snapshot, total, 50) / 1000.0);
+        result.addProperty("p95Ms", getValueAtPercentile(snapshot, total, 95) / 1000.0);
+        result.addProperty("p99Ms", getValueAtPercentile(snapshot, total, 99) / 1000.0);
+        return result;
+    }
+
+    private static long getValueAtPercentile(long[] snapshot, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= countAtPercentile) {
+                return getBucketUpperValue(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+}
@@ -22,27 +22,68 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PathRouter extends WebserverAPI {
     private static final long serialVersionUID = -3199188474453935983L;
 
     List<WebserverAPI> apis;
 
+    // The maps below are rebuilt in addAPI, and only read while routing requests, so routing a request costs a few
+    // map lookups no matter how many APIs there are. They are replaced (not modified) so that requests being routed
+    // while an API is added always see a consistent view.
+
+    // api path (lower cased, with a leading slash) -> api
+    private volatile Map<String, WebserverAPI> exactRoutes = new HashMap<>();
+
+    // api path (lower cased, with a leading slash and without a trailing slash) -> api. This is used when the request
+    // path may have the /appid-<appId> and / or /<tenantId> prefix
+    private volatile Map<String, WebserverAPI> prefixedRoutes = new HashMap<>();
+
+    private volatile WebserverAPI rootAPI = null;
+
     public PathRouter(Main main) {
         super(main, "");
         this.apis = new ArrayList();
     }
 
-    public void addAPI(WebserverAPI newApi) {
+    public synchronized void addAPI(WebserverAPI newApi) {
+        Set<String> paths = new HashSet<>();
+        for (WebserverAPI api : this.apis) {
+            paths.add(api.getPath());
+        }
+        if (paths.contains(newApi.getPath())) {
+            throw new IllegalStateException("APIs given to the router cannot have the same path");
+        }
         this.apis.add(0, newApi); // add to the front so that the most recent API is checked first
+
+        Map<String, WebserverAPI> exactRoutes = new HashMap<>();
+        Map<String, WebserverAPI> prefixedRoutes = new HashMap<>();
+        WebserverAPI rootAPI = null;
         for (WebserverAPI api : this.apis) {
-            for (WebserverAPI api2 : this.apis) {
-                if (api != api2 && api.getPath().equals(api2.getPath())) {
-                    throw new IllegalStateException("APIs given to the router cannot have the same path");
-                }
+            String apiPath = api.getPath().toLowerCase();
+            if (!apiPath.startsWith("/")) {
+                apiPath = "/" + apiPath;
+            }
+            // putIfAbsent so that the most recent API wins if two paths are the same after normalisation
+            exactRoutes.putIfAbsent(apiPath, api);
+
+            if (apiPath.endsWith("/")) {
+                apiPath = apiPath.substring(0, apiPath.length() - 1);
+            }
+            prefixedRoutes.putIfAbsent(apiPath, api);
+
+            if (rootAPI == null && api.getPath().equals("/")) {
+                rootAPI = api;
             }
         }
+        this.exactRoutes = exactRoutes;
+        this.prefixedRoutes = prefixedRoutes;
+        this.rootAPI = rootAPI;
     }
 
     @Override
@@ -62,53 +103,105 @@ public class PathRouter extends WebserverAPI {
 
     private WebserverAPI getAPIThatMatchesPath(HttpServletRequest req) {
         // getServletPath returns the path without the configured base path.
-        String requestPath = req.getServletPath().toLowerCase();
+        return getAPIThatMatchesPath(req.getServletPath());
+    }
+
+    public WebserverAPI getAPIThatMatchesPath(String servletPath) {
+        String requestPath = servletPath.toLowerCase();
 
         // first we check for exact match
-        for (WebserverAPI api : this.apis) {
-            String apiPath = api.getPath().toLowerCase();
-            if (!apiPath.startsWith("/")) {
-                apiPath = "/" + apiPath;
-            }
-            if (requestPath.equals(apiPath) || requestPath.equals(apiPath + "/")) {
-                return api;
-            }
+        Map<String, WebserverAPI> exactRoutes = this.exactRoutes;
+        WebserverAPI api = exactRoutes.get(requestPath);
+        if (api == null && requestPath.endsWith("/")) {
+            api = exactRoutes.get(requestPath.substring(0, requestPath.length() - 1));
+        }
+        if (api != null) {
+            return api;
         }
 
-        // then we check if tenantId or appId is embedded in the URL.
-        for (WebserverAPI api : this.apis) {
-            String apiPath = api.getPath().toLowerCase();
-            if (!apiPath.startsWith("/")) {
-                apiPath = "/" + apiPath;
+        // then we check if tenantId or appId is embedded in the URL. The path can be of the form
+        // [/appid-<appId>][/<tenantId>]<apiPath>[/]
+        if (requestPath.endsWith("/")) {
+            requestPath = requestPath.substring(0, requestPath.length() - 1);
+        }
+        Map<String, WebserverAPI> prefixedRoutes = this.prefixedRoutes;
+
+        // If more than one API could match (for example /appid-a/bulk-import/users could be /bulk-import/users in app
+        // a, or /users in tenant bulk-import of app a), we prefer the one that strips fewer segments from the path.
+        api = prefixedRoutes.get(requestPath);
+        if (api != null) {
+            return api;
+        }
+
+        int afterAppId = getEndOfAppIdSegment(requestPath);
+        if (afterAppId != -1) {
+            api = prefixedRoutes.get(requestPath.substring(afterAppId));
+            if (api != null) {
+                return api;
             }
+        }
 
-            if (apiPath.endsWith("/")) {
-                apiPath = apiPath.substring(0, apiPath.length() - 1);
+        int afterTenantId = getEndOfTenantIdSegment(requestPath, 0);
+        if (afterTenantId != -1) {
+            api = prefixedRoutes.get(requestPath.substring(afterTenantId));
+            if (api != null) {
+                return api;
             }
+        }
 
-            if (apiPath.isBlank()) {
-                String tenantIdStopWords = String.join("$|", Utils.INVALID_WORDS_FOR_TENANTID) + "$"; // Adds an end of string for each entry
-                tenantIdStopWords += "|" + String.join("/|", Utils.INVALID_WORDS_FOR_TENANTID) + "/"; // Adds a trailing slash for each entry
-                if (requestPath.matches(
-                        "^(/appid-[a-z0-9-]*)?(/(?!" + tenantIdStopWords + ")[a-z0-9-]+)?" + "/?$")) {
-                    return api;
-                }
-            } else {
-                String tenantIdStopWords = String.join("/|", Utils.INVALID_WORDS_FOR_TENANTID) + "/"; // Adds a trailing slash for each entry
-                if (requestPath.matches(
-                        "^(/appid-[a-z0-9-]*)?(/(?!" + tenantIdStopWords + ")[a-z0-9-]+)?" + apiPath + "/?$")) {
+        if (afterAppId != -1) {
+            afterTenantId = getEndOfTenantIdSegment(requestPath, afterAppId);
+            if (afterTenantId != -1) {
+                api = prefixedRoutes.get(requestPath.substring(afterTenantId));
+                if (api != null) {
                     return api;
                 }
             }
         }
-        for (WebserverAPI api : this.apis) {
-            if (api.getPath().equals("/")) {
-                return api;
-            }
+
+        if (this.rootAPI != null) {
+            return this.rootAPI;
         }
         throw new RuntimeException("Should never come here");
     }
 
+    // returns the index right after /appid-[a-z0-9-]* if the path starts with it, else -1
+    private static int getEndOfAppIdSegment(String path) {
+        if (!path.startsWith("/appid-")) {
+            return -1;
+        }
+        int end = getEndOfSegment(path, "/appid-".length());
+        return end;
+    }
+
+    // returns the index right after /[a-z0-9-]+ starting at the given index if the segment is a valid tenantId, else -1
+    private static int getEndOfTenantIdSegment(String path, int start) {
+        if (start >= path.length() || path.charAt(start) != '/') {
+            return -1;
+        }
+        int end = getEndOfSegment(path, start + 1);
+        if (end == -1 || end == start + 1) {
+            return -1;
+        }
+        if (Utils.INVALID_WORDS_FOR_TENANTID.contains(path.substring(start + 1, end))) {
+            return -1;
+        }
+        return end;
+    }
+
+    // returns the index of the next '/' (or the end of the path) if all chars till there are in [a-z0-9-], else -1
+    private static int getEndOfSegment(String path, int start) {
+        int i = start;
+        while (i < path.length() && path.charAt(i) != '/') {
+            char c = path.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-')) {
+                return -1;
+            }
+            i++;
+        }
+        return i;
+    }
+
     @Override
     protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         getAPIThatMatchesPath(req).service(req, resp);
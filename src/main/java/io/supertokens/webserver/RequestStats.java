@@ -25,14 +25,23 @@ import io.supertokens.multitenancy.Multitenancy;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class RequestStats extends ResourceDistributor.SingletonResource {
     public static final String RESOURCE_KEY = "io.supertokens.webserver.RequestStats";
 
     private final int MAX_MINUTES = 24 * 60;
 
-    private long currentMinute; // current minute since epoch
-    private final int[] currentMinuteRequestCounts; // array of 60 items representing number of requests at each
-    // second in the current minute
+    private static final Set<String> TRACKED_METHODS = Set.of("GET", "POST", "PUT", "DELETE", "PATCH");
+
+    // Requests are counted without taking a lock, since this is done at the end of every request. Only moving on to the
+    // next minute (which happens at most once a minute) holds minuteUpdateLock.
+    private volatile MinuteRequestCounts currentMinuteRequestCounts;
+    private final ReentrantLock minuteUpdateLock = new ReentrantLock();
 
     // The 2 arrays below contains stats for a day for every minute
     // the array is stored in such a way that array[currentMinute % MAX_MINUTES] contains the stats for a day ago
@@ -50,9 +59,12 @@ public class RequestStats extends ResourceDistributor.SingletonResource {
     private final double[] averageRequestsPerSecond;
     private final int[] peakRequestsPerSecond;
 
+    // api path -> http method -> latency histogram. This is bounded by the number of APIs since it's keyed by the path
+    // of the API that handled the request, and not the request path.
+    private final Map<String, Map<String, LatencyHistogram>> apiLatencies = new ConcurrentHashMap<>();
+
     private RequestStats() {
-        currentMinute = System.currentTimeMillis() / 60000;
-        currentMinuteRequestCounts = new int[60];
+        currentMinuteRequestCounts = new MinuteRequestCounts(System.currentTimeMillis() / 60000);
 
         averageRequestsPerSecond = new double[MAX_MINUTES];
         peakRequestsPerSecond = new int[MAX_MINUTES];
@@ -63,15 +75,27 @@ public class RequestStats extends ResourceDistributor.SingletonResource {
     }
 
     private void checkAndUpdateMinute(long currentSecond) {
-        if (currentSecond / 60 == currentMinute) {
+        minuteUpdateLock.lock();
+        try {
+            updateMinuteWhileHoldingLock(currentSecond);
+        } finally {
+            minuteUpdateLock.unlock();
+        }
+    }
+
+    private void updateMinuteWhileHoldingLock(long currentSecond) {
+        MinuteRequestCounts counts = this.currentMinuteRequestCounts;
+        long currentMinute = counts.minute;
+        if (currentSecond / 60 <= currentMinute) {
             return; // stats update not required
         }
 
         int sum = 0;
         int max = 0;
         for (int i = 0; i < 60; i++) {
-            sum += currentMinuteRequestCounts[i];
-            max = Math.max(max, currentMinuteRequestCounts[i]);
+            int count = counts.requestCounts[i].intValue();
+            sum += count;
+            max = Math.max(max, count);
         }
 
         averageRequestsPerSecond[(int) (currentMinute % MAX_MINUTES)] = sum / 60.0;
@@ -83,14 +107,7 @@ public class RequestStats extends ResourceDistributor.SingletonResource {
             peakRequestsPerSecond[(int) (i % MAX_MINUTES)] = 0;
         }
 
-        currentMinute = currentSecond / 60;
-        for (int i = 0; i < 60; i++) {
-            currentMinuteRequestCounts[i] = 0;
-        }
-    }
-
-    private void updateCounts(long currentSecond) {
-        currentMinuteRequestCounts[(int) (currentSecond % 60)]++;
+        this.currentMinuteRequestCounts = new MinuteRequestCounts(currentSecond / 60);
     }
 
     public static RequestStats getInstance(Main main, AppIdentifier appIdentifier) throws TenantOrAppNotFoundException {
@@ -112,19 +129,37 @@ public class RequestStats extends ResourceDistributor.SingletonResource {
     }
 
     public void updateRequestStats() {
-        this.updateRequestStats(true);
+        long now = System.currentTimeMillis() / 1000;
+        MinuteRequestCounts counts = this.currentMinuteRequestCounts;
+        if (now / 60 > counts.minute) {
+            this.checkAndUpdateMinute(now);
+            counts = this.currentMinuteRequestCounts;
+        }
+        // If another thread moves on to the next minute right before this increment, this request is not counted.
+        // That's a very small window, and is better than making every request wait on a lock.
+        counts.requestCounts[(int) (now % 60)].increment();
     }
 
-    synchronized private void updateRequestStats(boolean updateCounts) {
-        long now = System.currentTimeMillis() / 1000;
-        this.checkAndUpdateMinute(now);
-        if (updateCounts) {
-            this.updateCounts(now);
+    public void updateRequestStats(String apiPath, String method, long latencyNanos) {
+        this.updateRequestStats();
+
+        if (!TRACKED_METHODS.contains(method)) {
+            // the method comes from the request, so we don't create histograms for arbitrary values
+            return;
         }
+        Map<String, LatencyHistogram> histogramsByMethod = this.apiLatencies.get(apiPath);
+        if (histogramsByMethod == null) {
+            histogramsByMethod = this.apiLatencies.computeIfAbsent(apiPath, k -> new ConcurrentHashMap<>());
+        }
+        LatencyHistogram histogram = histogramsByMethod.get(method);
+        if (histogram == null) {
+            histogram = histogramsByMethod.computeIfAbsent(method, k -> new LatencyHistogram());
+        }
+        histogram.recordValue(latencyNanos / 1000);
     }
 
     public JsonObject getStats() {
-        this.updateRequestStats(false);
+        this.checkAndUpdateMinute(System.currentTimeMillis() / 1000);
 
         JsonArray avgRps = new JsonArray();
         JsonArray peakRps = new JsonArray();
@@ -141,6 +176,27 @@ public class RequestStats extends ResourceDistributor.SingletonResource {
         result.addProperty("atMinute", atMinute);
         result.add("averageRequestsPerSecond", avgRps);
         result.add("peakRequestsPerSecond", peakRps);
+
+        JsonObject latencies = new JsonObject();
+        this.apiLatencies.forEach((apiPath, histogramsByMethod) -> {
+            JsonObject latenciesForPath = new JsonObject();
+            histogramsByMethod.forEach((method, histogram) -> latenciesForPath.add(method, histogram.getStats()));
+            latencies.add(apiPath, latenciesForPath);
+        });
+        result.add("apiLatencies", latencies);
         return result;
     }
+
+    private static class MinuteRequestCounts {
+        final long minute; // minute since epoch
+        // number of requests at each second in the minute
+        final LongAdder[] requestCounts = new LongAdder[60];
+
+        MinuteRequestCounts(long minute) {
+            this.minute = minute;
+            for (int i = 0; i < 60; i++) {
+                this.requestCounts[i] = new LongAdder();
+            }
+        }
+    }
 }
@@ -246,7 +246,13 @@ public class Webserver extends ResourceDistributor.SingletonResource {
 
         // set thread pool size and port
         Connector connector = new Connector();
-        connector.setProperty("maxThreads", Config.getBaseConfig(main).getMaxThreadPoolSize() + "");
+        if (Config.getBaseConfig(main).getServerUseVirtualThreads()) {
+            // each request runs on a new virtual thread, so requests that are waiting on the db or on a network call
+            // don't hold on to one of a limited number of threads
+            connector.setProperty("useVirtualThreads", "true");
+        } else {
+            connector.setProperty("maxThreads", Config.getBaseConfig(main).getMaxThreadPoolSize() + "");
+        }
         connector.setPort(Config.getBaseConfig(main).getPort(main));
         connector.setProperty("address", Config.getBaseConfig(main).getHost(main));
 
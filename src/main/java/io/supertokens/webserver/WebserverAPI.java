@@ -19,8 +19,11 @@ package io.supertokens.webserver;
 import com.google.gson.JsonElement;
 import io.supertokens.Main;
 import io.supertokens.StorageAndUserIdMapping;
+import io.supertokens.config.APIKeyMatcher;
 import io.supertokens.config.Config;
 import io.supertokens.config.CoreConfig;
+import io.supertokens.config.IPAccessFilter;
+import io.supertokens.emailpassword.exceptions.PasswordHashingOverloadedException;
 import io.supertokens.exceptions.QuitProgramException;
 import io.supertokens.featureflag.exceptions.FeatureNotEnabledException;
 import io.supertokens.multitenancy.MultitenancyHelper;
@@ -36,21 +39,17 @@ import io.supertokens.pluginInterface.opentelemetry.WithinOtelSpan;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.useridmapping.UserIdType;
 import io.supertokens.utils.SemVer;
-import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletRequest;
-import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.apache.catalina.filters.RemoteAddrFilter;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 public abstract class WebserverAPI extends HttpServlet {
 
@@ -132,7 +131,10 @@ public abstract class WebserverAPI extends HttpServlet {
     protected void sendJsonResponse(int statusCode, JsonElement json, HttpServletResponse resp) throws IOException {
         resp.setStatus(statusCode);
         resp.setHeader("Content-Type", "application/json; charset=UTF-8");
-        resp.getWriter().println(json.toString());
+        PrintWriter writer = resp.getWriter();
+        // we write the JSON into the response as we go, instead of creating a String of the whole response first
+        io.supertokens.utils.Utils.writeJson(json, writer);
+        writer.println();
     }
 
     @Override
@@ -206,32 +208,27 @@ public abstract class WebserverAPI extends HttpServlet {
             String apiKey = getApiKeyFromRequest(req);
 
             // first we try the normal API key
-            String[] keys = Config.getConfig(
+            APIKeyMatcher keys = Config.getAPIKeyMatcher(
                     new TenantIdentifier(getConnectionUriDomain(req), getAppId(req), getTenantId(req)),
-                    this.main).getAPIKeys();
+                    this.main);
             if (keys != null) {
                 if (apiKey == null) {
                     throw new ServletException(new APIKeyUnauthorisedException());
                 }
                 apiKey = apiKey.trim();
-                boolean isAuthorised = false;
-                for (String key : keys) {
-                    isAuthorised = isAuthorised || key.equals(apiKey);
-                }
-                if (isAuthorised) {
+                if (keys.matches(apiKey)) {
                     return;
                 }
             }
 
             // if the normal API key did not exist, or did not match the api key from the header, we try the
             // supertokens_saas_secret
-            String superTokensSaaSSecret = Config.getConfig(new TenantIdentifier(null, null, null), this.main)
-                    .getSuperTokensSaaSSecret();
+            APIKeyMatcher superTokensSaaSSecret = Config.getSuperTokensSaaSSecretMatcher(this.main);
             if (superTokensSaaSSecret != null) {
                 if (apiKey == null) {
                     throw new ServletException(new APIKeyUnauthorisedException());
                 }
-                if (apiKey.equals(superTokensSaaSSecret)) {
+                if (superTokensSaaSSecret.matches(apiKey)) {
                     return;
                 }
             }
@@ -436,50 +433,22 @@ public abstract class WebserverAPI extends HttpServlet {
 
     protected boolean checkIPAccess(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
-        CoreConfig config = null;
+        IPAccessFilter filter;
         try {
-            config = Config.getConfig(getTenantIdentifierWithoutVerifying(req), main);
+            filter = Config.getIPAccessFilter(getTenantIdentifierWithoutVerifying(req), main);
         } catch (TenantOrAppNotFoundException e) {
             return true; // tenant not found, so no IP access control
         }
-        String allow = config.getIpAllowRegex();
-        String deny = config.getIpDenyRegex();
-        if (allow == null && deny == null) {
+        if (filter == null || filter.isAllowed(req.getRemoteAddr())) {
             return true;
         }
-        RemoteAddrFilter filter = new RemoteAddrFilter();
-        if (allow != null) {
-            try {
-                filter.setAllow(allow);
-            } catch (PatternSyntaxException e) {
-                throw new RuntimeException("should never happen");
-            }
-        }
-        if (deny != null) {
-            try {
-                filter.setDeny(deny);
-            } catch (PatternSyntaxException e) {
-                throw new RuntimeException("should never happen");
-            }
-        }
-        filter.setDenyStatus(403);
-
-        final boolean[] isAllowed = {false};
-        FilterChain dummyFilterChain = new FilterChain() {
-            @Override
-            public void doFilter(ServletRequest request, ServletResponse response)
-                    throws IOException, ServletException {
-                isAllowed[0] = true;
-            }
-        };
-
-        filter.doFilter(req, resp, dummyFilterChain);
-        return isAllowed[0];
+        resp.sendError(403);
+        return false;
     }
 
     @Override
     protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-
+        long startTime = System.nanoTime();
 
         TenantIdentifier tenantIdentifier = null;
         try {
@@ -529,6 +498,8 @@ public abstract class WebserverAPI extends HttpServlet {
                 sendTextResponse(402, e.getMessage(), resp);
             } else if (e instanceof BadPermissionException) {
                 sendTextResponse(403, e.getMessage(), resp);
+            } else if (e instanceof PasswordHashingOverloadedException) {
+                sendTextResponse(503, e.getMessage(), resp);
             } else if (e instanceof ServletException) {
                 ServletException se = (ServletException) e;
                 Throwable rootCause = se.getRootCause();
@@ -544,6 +515,8 @@ public abstract class WebserverAPI extends HttpServlet {
                             resp);
                 } else if (rootCause instanceof BadPermissionException) {
                     sendTextResponse(403, rootCause.getMessage(), resp);
+                } else if (rootCause instanceof PasswordHashingOverloadedException) {
+                    sendTextResponse(503, rootCause.getMessage(), resp);
                 } else {
                     String msg = rootCause.toString();
                     msg = maskDBPassword(msg);
@@ -560,7 +533,8 @@ public abstract class WebserverAPI extends HttpServlet {
 
         if (tenantIdentifier != null) {
             try {
-                RequestStats.getInstance(main, tenantIdentifier.toAppIdentifier()).updateRequestStats();
+                RequestStats.getInstance(main, tenantIdentifier.toAppIdentifier())
+                        .updateRequestStats(getPath(), req.getMethod(), System.nanoTime() - startTime);
             } catch (TenantOrAppNotFoundException e) {
                 // Ignore the error as we would have already sent the response for tenantNotFound
             }
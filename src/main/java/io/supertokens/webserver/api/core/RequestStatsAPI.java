@@ -18,9 +18,11 @@ package io.supertokens.webserver.api.core;
 
 import com.google.gson.JsonObject;
 import io.supertokens.Main;
+import io.supertokens.emailpassword.PasswordHashing;
 import io.supertokens.multitenancy.exception.BadPermissionException;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.session.accessToken.AccessTokenVerificationCache;
 import io.supertokens.webserver.RequestStats;
 import io.supertokens.webserver.WebserverAPI;
 import jakarta.servlet.ServletException;
@@ -48,6 +50,12 @@ public class RequestStatsAPI extends WebserverAPI {
             AppIdentifier appIdentifier = getAppIdentifier(req);
             enforcePublicTenantAndGetPublicTenantStorage(req); // enforce public tenant
             JsonObject stats = RequestStats.getInstance(main, appIdentifier).getStats();
+            stats.add("accessTokenVerificationCache",
+                    AccessTokenVerificationCache.getInstance(main, appIdentifier).getStats());
+            if (appIdentifier.equals(new AppIdentifier(null, null))) {
+                // password hashing pools are shared by all apps, so we only show them for the base app
+                stats.add("passwordHashing", PasswordHashing.getInstance(main).getStats());
+            }
             stats.addProperty("status", "OK");
             super.sendJsonResponse(200, stats, resp);
 
@@ -31,7 +31,10 @@ import io.supertokens.pluginInterface.dashboard.DashboardSearchTags;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
+import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.useridmapping.UserIdMapping;
+import io.supertokens.usermetadata.UserMetadata;
+import io.supertokens.userroles.UserRoles;
 import io.supertokens.utils.SemVer;
 import io.supertokens.utils.Utils;
 import io.supertokens.webserver.InputParser;
@@ -42,6 +45,8 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 public class UsersAPI extends WebserverAPI {
@@ -75,6 +80,33 @@ public class UsersAPI extends WebserverAPI {
             }
         }
 
+        /*
+         * include can be null or a comma separated list of "externalUserId", "metadata" and "roles". The metadata and
+         * roles of all the users in the page are fetched with one query each, so that the caller does not need to
+         * fetch them for each user.
+         */
+        String[] include = InputParser.getCommaSeparatedStringArrayQueryParamOrThrowError(req, "include", true);
+        boolean includeMetadata = false;
+        boolean includeRoles = false;
+        if (include != null) {
+            for (String field : include) {
+                switch (field) {
+                    case "externalUserId":
+                        // external user ids are always populated, so there is nothing more to fetch
+                        break;
+                    case "metadata":
+                        includeMetadata = true;
+                        break;
+                    case "roles":
+                        includeRoles = true;
+                        break;
+                    default:
+                        throw new ServletException(new BadRequestException(
+                                "include can only contain externalUserId, metadata and roles"));
+                }
+            }
+        }
+
         TenantIdentifier tenantIdentifier = null;
         Storage storage = null;
         try {
@@ -166,7 +198,7 @@ public class UsersAPI extends WebserverAPI {
         }
 
         try {
-            UserPaginationContainer users = AuthRecipe.getUsers(tenantIdentifier, storage,
+            UserPaginationContainer users = AuthRecipe.getUsers(main, tenantIdentifier, storage,
                     limit, timeJoinedOrder, paginationToken,
                     recipeIdsEnumBuilder.build().toArray(RECIPE_ID[]::new), searchTags);
 
@@ -175,17 +207,42 @@ public class UsersAPI extends WebserverAPI {
             JsonObject result = new JsonObject();
             result.addProperty("status", "OK");
 
+            // metadata and roles are stored against the user id that the SDK uses, which is the external one if
+            // there is a mapping
+            List<String> userIds = new ArrayList<>(users.users.length);
+            for (AuthRecipeUserInfo user : users.users) {
+                userIds.add(user.getSupertokensOrExternalUserId());
+            }
+            Map<String, JsonObject> metadataByUserId = includeMetadata
+                    ? getMetadataForUsers(tenantIdentifier, storage, userIds)
+                    : null;
+            Map<String, String[]> rolesByUserId = includeRoles
+                    ? UserRoles.getRolesForUsers(tenantIdentifier, storage, userIds)
+                    : null;
+
             JsonArray usersJson = new JsonArray();
             for (AuthRecipeUserInfo user : users.users) {
+                JsonObject userEntry;
                 if (getVersionFromRequest(req).lesserThan(SemVer.v4_0)) {
-                    JsonObject jsonObj = new JsonObject();
-                    jsonObj.addProperty("recipeId", user.loginMethods[0].recipeId.toString());
+                    userEntry = new JsonObject();
+                    userEntry.addProperty("recipeId", user.loginMethods[0].recipeId.toString());
                     JsonObject userJson = user.toJsonWithoutAccountLinking();
-                    jsonObj.add("user", userJson);
-                    usersJson.add(jsonObj);
+                    userEntry.add("user", userJson);
                 } else {
-                    usersJson.add(user.toJson(getVersionFromRequest(req).greaterThanOrEqualTo(SemVer.v5_3)));
+                    userEntry = user.toJson(getVersionFromRequest(req).greaterThanOrEqualTo(SemVer.v5_3));
+                }
+                if (metadataByUserId != null) {
+                    JsonObject metadata = metadataByUserId.get(user.getSupertokensOrExternalUserId());
+                    userEntry.add("metadata", metadata == null ? new JsonObject() : metadata);
                 }
+                if (rolesByUserId != null) {
+                    JsonArray roles = new JsonArray();
+                    for (String role : rolesByUserId.get(user.getSupertokensOrExternalUserId())) {
+                        roles.add(role);
+                    }
+                    userEntry.add("roles", roles);
+                }
+                usersJson.add(userEntry);
             }
 
             if (getVersionFromRequest(req).lesserThan(SemVer.v3_0)) {
@@ -208,6 +265,34 @@ public class UsersAPI extends WebserverAPI {
         }
     }
 
+    private Map<String, JsonObject> getMetadataForUsers(TenantIdentifier tenantIdentifier, Storage storage,
+                                                        List<String> userIds)
+            throws StorageQueryException, TenantOrAppNotFoundException {
+        Map<String, JsonObject> metadataByUserId = UserMetadata.getBulkUserMetadata(
+                tenantIdentifier.toAppIdentifier(), storage, userIds);
+
+        // user metadata is app specific. It is saved in the storage of the user it belongs to, but if that user did
+        // not exist yet (for example, metadata set against an external user id before the mapping was created), it
+        // is saved in the public tenant's storage instead, which is a different db if this tenant has its own user
+        // pool.
+        Storage publicTenantStorage = StorageLayer.getStorage(
+                tenantIdentifier.toAppIdentifier().getAsPublicTenantIdentifier(), main);
+        if (publicTenantStorage == storage) {
+            return metadataByUserId;
+        }
+        List<String> userIdsWithoutMetadata = new ArrayList<>();
+        for (String userId : userIds) {
+            if (metadataByUserId.get(userId) == null) {
+                userIdsWithoutMetadata.add(userId);
+            }
+        }
+        if (!userIdsWithoutMetadata.isEmpty()) {
+            metadataByUserId.putAll(UserMetadata.getBulkUserMetadata(tenantIdentifier.toAppIdentifier(),
+                    publicTenantStorage, userIdsWithoutMetadata));
+        }
+        return metadataByUserId;
+    }
+
     private static ArrayList<String> normalizeSearchTags(String searchTag) {
         String[] searchTagArray = searchTag.split(";");
         ArrayList<String> searchTagArrayList = new ArrayList<>();
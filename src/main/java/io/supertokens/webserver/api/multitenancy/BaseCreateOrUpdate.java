@@ -62,7 +62,10 @@ public abstract class BaseCreateOrUpdate extends WebserverAPI {
                             targetTenantIdentifier.getTenantId()));
 
             boolean createdNew = false;
-            if (tenantConfig == null) {
+            if (tenantConfig != null) {
+                // the config returned by getTenantInfo is shared, so we work on a copy of it
+                tenantConfig = new TenantConfig(tenantConfig);
+            } else {
                 // tenant config does not exist, so this would be a create operation
                 tenantConfig = createBaseConfigForVersion(getVersionFromRequest(req), targetTenantIdentifier, isV2);
 
@@ -76,6 +76,8 @@ public class CreateOrUpdateTenantOrGetTenantAPI extends BaseCreateOrUpdate {
             if (config == null) {
                 throw new TenantOrAppNotFoundException(tenantIdentifier);
             }
+            // the config returned by getTenantInfo is shared, so we work on a copy of it
+            config = new TenantConfig(config);
             boolean shouldProtect = shouldProtectProtectedConfig(req);
             JsonObject result;
             if (getVersionFromRequest(req).lesserThan(SemVer.v5_0)) {
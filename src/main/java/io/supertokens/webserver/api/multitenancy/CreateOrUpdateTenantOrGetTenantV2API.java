@@ -75,6 +75,8 @@ public class CreateOrUpdateTenantOrGetTenantV2API extends BaseCreateOrUpdate {
             if (config == null) {
                 throw new TenantOrAppNotFoundException(tenantIdentifier);
             }
+            // the config returned by getTenantInfo is shared, so we work on a copy of it
+            config = new TenantConfig(config);
             boolean shouldProtect = shouldProtectProtectedConfig(req);
             JsonObject result = config.toJson_v2_5_1(shouldProtect, getTenantStorage(req),
                     CoreConfig.PROTECTED_CONFIGS);
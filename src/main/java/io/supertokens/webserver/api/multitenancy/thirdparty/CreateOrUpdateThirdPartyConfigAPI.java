@@ -83,6 +83,8 @@ public class CreateOrUpdateThirdPartyConfigAPI extends WebserverAPI {
             if (tenantConfig == null) {
                 throw new TenantOrAppNotFoundException(tenantIdentifier);
             }
+            // the config returned by getTenantInfo is shared, so we work on a copy of it
+            tenantConfig = new TenantConfig(tenantConfig);
             List<ThirdPartyConfig.Provider> newProviders = new ArrayList<>();
 
             boolean found = false;
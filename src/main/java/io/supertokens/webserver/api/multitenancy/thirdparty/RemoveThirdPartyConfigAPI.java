@@ -65,6 +65,8 @@ public class RemoveThirdPartyConfigAPI extends WebserverAPI {
             if (config == null) {
                 throw new TenantOrAppNotFoundException(tenantIdentifier);
             }
+            // the config returned by getTenantInfo is shared, so we work on a copy of it
+            config = new TenantConfig(config);
 
             // Create a new list of providers skipping the thirdPartyId provided in the input
             List<ThirdPartyConfig.Provider> newProviders = new ArrayList<>();
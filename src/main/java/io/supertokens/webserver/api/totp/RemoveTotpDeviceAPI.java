@@ -67,7 +67,7 @@ public class RemoveTotpDeviceAPI extends WebserverAPI {
                 throw new IllegalStateException("should never happen");
             }
 
-            Totp.removeDevice(appIdentifier, storage, userId, deviceName);
+            Totp.removeDevice(main, appIdentifier, storage, userId, deviceName);
 
             result.addProperty("status", "OK");
             result.addProperty("didDeviceExist", true);
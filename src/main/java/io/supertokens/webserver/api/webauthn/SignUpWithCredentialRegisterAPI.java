@@ -61,8 +61,8 @@ public class SignUpWithCredentialRegisterAPI extends WebserverAPI {
                     false);
             JsonObject credentialsData = InputParser.parseJsonObjectOrThrowError(input, "credential", false);
 
-            WebAuthNSignInUpResult signUpResult = WebAuthN.signUp(storage, tenantIdentifier, webauthnGeneratedOptionsId,
-                    credentialsData);
+            WebAuthNSignInUpResult signUpResult = WebAuthN.signUp(main, storage, tenantIdentifier,
+                    webauthnGeneratedOptionsId, credentialsData);
 
             ActiveUsers.updateLastActive(tenantIdentifier.toAppIdentifier(), main,
                     signUpResult.userInfo.getSupertokensUserId());
@@ -22,7 +22,9 @@ import com.google.gson.JsonParser;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.cliOptions.CLIOptions;
+import io.supertokens.config.APIKeyMatcher;
 import io.supertokens.config.Config;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
 import io.supertokens.test.httpRequest.HttpRequestMocking;
 import io.supertokens.utils.SemVer;
@@ -81,6 +83,32 @@ public class APIKeysTest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testAPIKeyMatcherMatchesOnlyTheConfiguredKeys() throws Exception {
+        String[] args = {"../"};
+
+        Utils.setValueInConfig("api_keys", "abctijenbogweg=-2438243u98, ergerghwergrhw234fweffr2-");
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        APIKeyMatcher matcher = Config.getAPIKeyMatcher(TenantIdentifier.BASE_TENANT, process.getProcess());
+        assertNotNull(matcher);
+        // the matcher is created once with the config
+        assertSame(matcher, Config.getAPIKeyMatcher(TenantIdentifier.BASE_TENANT, process.getProcess()));
+
+        assertTrue(matcher.matches("abctijenbogweg=-2438243u98"));
+        assertTrue(matcher.matches("ergerghwergrhw234fweffr2-"));
+        assertFalse(matcher.matches("abctijenbogweg=-2438243u9"));
+        assertFalse(matcher.matches("abctijenbogweg=-2438243u98,ergerghwergrhw234fweffr2-"));
+        assertFalse(matcher.matches(""));
+
+        assertNull(Config.getSuperTokensSaaSSecretMatcher(process.getProcess()));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     // * - don't set API key and check that config.getAPIKeys() returns null
     @Test
     public void testGetApiKeysReturnsNullWhenAPIKeyIsNotSet() throws Exception {
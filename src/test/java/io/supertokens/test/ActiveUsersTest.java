@@ -4,9 +4,16 @@ import com.google.gson.JsonObject;
 import io.supertokens.ActiveUsers;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
+import io.supertokens.ResourceDistributor;
+import io.supertokens.authRecipe.AuthRecipe;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers;
+import io.supertokens.emailpassword.EmailPassword;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlagTestContent;
+import io.supertokens.pluginInterface.ActiveUsersStorage;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
@@ -21,6 +28,7 @@ import org.junit.rules.TestRule;
 
 import java.util.HashMap;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 
@@ -296,4 +304,144 @@ public class ActiveUsersTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void lastActiveUpdatesAreBufferedAndWrittenByTheCronjob() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        CronTaskTest.getInstance(process.getProcess()).setIntervalInSeconds(FlushActiveUsers.RESOURCE_KEY, 1);
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+        ActiveUsersStorage storage = (ActiveUsersStorage) StorageLayer.getStorage(main);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 10; i++) {
+            ActiveUsers.updateLastActive(main, "user1");
+        }
+        ActiveUsers.updateLastActive(main, "user2");
+
+        // repeated updates for the same user are written once
+        assertEquals(2, ActiveUsers.getPendingUpdatesCount(main, appIdentifier));
+
+        Thread.sleep(2500);
+
+        assertEquals(0, ActiveUsers.getPendingUpdatesCount(main, appIdentifier));
+        assertEquals(2, storage.countUsersActiveSince(appIdentifier, now));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void countingActiveUsersWritesBufferedUpdatesFirst() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        CronTaskTest.getInstance(process.getProcess()).setIntervalInSeconds(FlushActiveUsers.RESOURCE_KEY, 3600);
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+        ActiveUsersStorage storage = (ActiveUsersStorage) StorageLayer.getStorage(main);
+        long now = System.currentTimeMillis();
+
+        ActiveUsers.updateLastActive(main, "user1");
+        assertEquals(0, storage.countUsersActiveSince(appIdentifier, now));
+
+        assertEquals(1, ActiveUsers.countUsersActiveSince(main, now));
+        assertEquals(1, storage.countUsersActiveSince(appIdentifier, now));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void bufferedUpdatesOfDeletedUsersAreNotWritten() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        CronTaskTest.getInstance(process.getProcess()).setIntervalInSeconds(FlushActiveUsers.RESOURCE_KEY, 3600);
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+        long now = System.currentTimeMillis();
+
+        String userId1 = EmailPassword.signUp(main, "test1@example.com", "password").getSupertokensUserId();
+        String userId2 = EmailPassword.signUp(main, "test2@example.com", "password").getSupertokensUserId();
+        ActiveUsers.updateLastActive(main, userId1);
+        ActiveUsers.updateLastActive(main, userId2);
+
+        // only the pending update of the deleted user is dropped, the others stay buffered
+        AuthRecipe.deleteUser(main, userId1);
+        assertEquals(1, ActiveUsers.getPendingUpdatesCount(main, appIdentifier));
+
+        ActiveUsers.flushLastActiveUpdates(main, appIdentifier);
+        assertEquals(1, ActiveUsers.countUsersActiveSince(main, now));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void countingActiveUsersSinceEachOfLastDaysIsTheSameAsCountingEachDay() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        Main main = process.getProcess();
+        AppIdentifier appIdentifier = ResourceDistributor.getAppForTesting().toAppIdentifier();
+        long dayInMillis = 24 * 60 * 60 * 1000L;
+        long now = System.currentTimeMillis();
+
+        ActiveUsers.updateLastActive(main, "user1");
+        ActiveUsers.updateLastActive(main, "user2");
+
+        int[] maus = ActiveUsers.countUsersActiveSinceEachOfLastDays(main, appIdentifier, now, 31);
+        assertEquals(31, maus.length);
+        for (int mau : maus) {
+            assertEquals(2, mau);
+        }
+
+        // we count from a time in the future, so that the users look like they were last active a few days ago
+        for (long offset : new long[]{dayInMillis - 1, dayInMillis, dayInMillis + 1, (long) (3.5 * dayInMillis),
+                31 * dayInMillis, 40 * dayInMillis}) {
+            long later = System.currentTimeMillis() + offset;
+            maus = ActiveUsers.countUsersActiveSinceEachOfLastDays(main, appIdentifier, later, 31);
+            for (int i = 1; i <= 31; i++) {
+                assertEquals(ActiveUsers.countUsersActiveSince(main, later - i * dayInMillis), maus[i - 1]);
+            }
+        }
+
+        maus = ActiveUsers.countUsersActiveSinceEachOfLastDays(main, appIdentifier,
+                System.currentTimeMillis() + (long) (3.5 * dayInMillis), 31);
+        assertEquals(0, maus[2]);
+        assertEquals(2, maus[3]);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -1057,6 +1057,8 @@ public class CronjobTest {
                 86400);
         intervals.put("io.supertokens.cronjobs.cleanupWebauthnExpiredData.CleanUpWebauthNExpiredDataCron", 86400);
         intervals.put("io.supertokens.cronjobs.deleteExpiredSAMLData.DeleteExpiredSAMLData", 3600);
+        intervals.put("io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers", 5);
+        intervals.put("io.supertokens.cronjobs.reconcileUsageStats.ReconcileUsageStats", 3600);
 
         Map<String, Integer> delays = new HashMap<>();
         delays.put("io.supertokens.ee.cronjobs.EELicenseCheck", 86400);
@@ -1076,9 +1078,11 @@ public class CronjobTest {
                 0);
         delays.put("io.supertokens.cronjobs.cleanupWebauthnExpiredData.CleanUpWebauthNExpiredDataCron", 0);
         delays.put("io.supertokens.cronjobs.deleteExpiredSAMLData.DeleteExpiredSAMLData", 0);
+        delays.put("io.supertokens.cronjobs.flushActiveUsers.FlushActiveUsers", 0);
+        delays.put("io.supertokens.cronjobs.reconcileUsageStats.ReconcileUsageStats", 0);
 
         List<CronTask> allTasks = Cronjobs.getInstance(process.getProcess()).getTasks();
-        assertEquals(14, allTasks.size());
+        assertEquals(16, allTasks.size());
 
         for (CronTask task : allTasks) {
             System.out.println(task.getClass().getName());
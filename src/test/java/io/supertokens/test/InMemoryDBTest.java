@@ -23,6 +23,9 @@ import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.exceptions.TryRefreshTokenException;
 import io.supertokens.exceptions.UnauthorisedException;
+import io.supertokens.inmemorydb.ConnectionPool;
+import io.supertokens.inmemorydb.ConnectionWithLocks;
+import io.supertokens.inmemorydb.Start;
 import io.supertokens.passwordless.Passwordless;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.session.SessionStorage;
@@ -37,18 +40,19 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.*;
 
-/*
- * TODO: Add tests for locks
- * */
-
 public class InMemoryDBTest {
     @Rule
     public TestRule watchman = Utils.getOnFailure();
@@ -148,6 +152,164 @@ public class InMemoryDBTest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void lockingAKeyDoesNotBlockOtherKeys() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        process.getProcess().setForceInMemoryDB();
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        Start start = (Start) StorageLayer.getStorage(process.getProcess());
+
+        ConnectionWithLocks holder = (ConnectionWithLocks) ConnectionPool.getConnection(start);
+        holder.lock("key1");
+
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        CountDownLatch otherKeyLocked = new CountDownLatch(1);
+        CountDownLatch sameKeyLocked = new CountDownLatch(1);
+        es.execute(() -> {
+            try (ConnectionWithLocks con = (ConnectionWithLocks) ConnectionPool.getConnection(start)) {
+                con.lock("key2");
+                otherKeyLocked.countDown();
+            } catch (Exception ignored) {
+            }
+        });
+        es.execute(() -> {
+            try (ConnectionWithLocks con = (ConnectionWithLocks) ConnectionPool.getConnection(start)) {
+                con.lock("key1");
+                sameKeyLocked.countDown();
+            } catch (Exception ignored) {
+            }
+        });
+
+        assertTrue(otherKeyLocked.await(5, TimeUnit.SECONDS));
+        assertFalse(sameKeyLocked.await(500, TimeUnit.MILLISECONDS));
+
+        holder.close();
+        assertTrue(sameKeyLocked.await(5, TimeUnit.SECONDS));
+
+        es.shutdown();
+        assertTrue(es.awaitTermination(1, TimeUnit.MINUTES));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void concurrentLocksOnFewKeysStressBenchmark() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        process.getProcess().setForceInMemoryDB();
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        Start start = (Start) StorageLayer.getStorage(process.getProcess());
+
+        int numberOfThreads = 64;
+        int numberOfKeys = 8;
+        int locksPerThread = 200;
+        // the number of connections holding each key at the same time, which must never be more than 1
+        AtomicInteger[] holders = new AtomicInteger[numberOfKeys];
+        int[] counters = new int[numberOfKeys];
+        for (int i = 0; i < numberOfKeys; i++) {
+            holders[i] = new AtomicInteger(0);
+        }
+        AtomicBoolean pass = new AtomicBoolean(true);
+
+        ExecutorService es = Executors.newFixedThreadPool(numberOfThreads);
+        long startTime = System.nanoTime();
+        for (int t = 0; t < numberOfThreads; t++) {
+            final int threadIndex = t;
+            es.execute(() -> {
+                for (int i = 0; i < locksPerThread; i++) {
+                    int key = (threadIndex + i) % numberOfKeys;
+                    try (ConnectionWithLocks con = (ConnectionWithLocks) ConnectionPool.getConnection(start)) {
+                        con.lock("key" + key);
+                        if (holders[key].incrementAndGet() != 1) {
+                            pass.set(false);
+                        }
+                        // not atomic on purpose, the lock must make this safe
+                        counters[key]++;
+                        holders[key].decrementAndGet();
+                    } catch (Exception e) {
+                        pass.set(false);
+                    }
+                }
+            });
+        }
+
+        es.shutdown();
+        assertTrue(es.awaitTermination(2, TimeUnit.MINUTES));
+        long time = System.nanoTime() - startTime;
+
+        System.out.println("Locked " + (numberOfThreads * locksPerThread) + " times across " + numberOfKeys +
+                " keys from " + numberOfThreads + " threads in " + (time / 1000000) + "ms");
+
+        assertTrue(pass.get());
+        int total = 0;
+        for (int counter : counters) {
+            total += counter;
+        }
+        assertEquals(numberOfThreads * locksPerThread, total);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void connectionsAndPreparedStatementsAreReused() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        process.getProcess().setForceInMemoryDB();
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        Start start = (Start) StorageLayer.getStorage(process.getProcess());
+        String query = "SELECT 1";
+
+        try (Connection con = ConnectionPool.getConnection(start)) {
+            PreparedStatement firstStatement = con.prepareStatement(query);
+            // the same query while the first one is still in use gets its own statement
+            try (PreparedStatement nested = con.prepareStatement(query)) {
+                assertNotSame(firstStatement, nested);
+            }
+            firstStatement.close();
+            assertTrue(firstStatement.isClosed());
+
+            try (PreparedStatement pst = con.prepareStatement(query)) {
+                assertSame(firstStatement, pst);
+                try (ResultSet result = pst.executeQuery()) {
+                    assertTrue(result.next());
+                    assertEquals(1, result.getInt(1));
+                }
+            }
+        }
+
+        Connection closedConnection = ConnectionPool.getConnection(start);
+        Connection sqliteConnection;
+        try (PreparedStatement pst = closedConnection.prepareStatement(query)) {
+            sqliteConnection = pst.getConnection();
+        }
+        closedConnection.close();
+        // closing again must not return the connection to the pool twice
+        closedConnection.close();
+        assertTrue(closedConnection.isClosed());
+
+        try (Connection con = ConnectionPool.getConnection(start);
+             Connection other = ConnectionPool.getConnection(start);
+             PreparedStatement pst = con.prepareStatement(query);
+             PreparedStatement otherPst = other.prepareStatement(query)) {
+            assertNotSame(pst.getConnection(), otherPst.getConnection());
+            assertFalse(pst.getConnection().isClosed());
+            assertFalse(otherPst.getConnection().isClosed());
+        }
+        assertFalse(sqliteConnection.isClosed());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     @Test
     public void createAndForgetSession() throws Exception {
         {
@@ -20,6 +20,7 @@ import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.ProcessState.PROCESS_STATE;
 import io.supertokens.config.Config;
+import io.supertokens.config.IPAccessFilter;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlagTestContent;
 import io.supertokens.httpRequest.HttpRequest;
@@ -469,4 +470,64 @@ public class IpAllowDenyRegexTest extends Mockito {
             assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
         }
     }
+
+    @Test
+    public void ipAccessFilterIsCompiledOncePerTenantConfig() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        TenantIdentifier t1 = new TenantIdentifier(null, null, "t1");
+
+        assertNull(Config.getIPAccessFilter(TenantIdentifier.BASE_TENANT, process.getProcess()));
+
+        JsonObject coreConfig = new JsonObject();
+        coreConfig.addProperty("ip_deny_regex", "127\\.\\d+\\.\\d+\\.\\d+");
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantConfig(
+                t1,
+                new EmailPasswordConfig(true), new ThirdPartyConfig(true, null), new PasswordlessConfig(true),
+                null, null,
+                coreConfig
+        ), false);
+
+        IPAccessFilter filter = Config.getIPAccessFilter(t1, process.getProcess());
+        assertNotNull(filter);
+        assertSame(filter, Config.getIPAccessFilter(t1, process.getProcess()));
+        assertFalse(filter.isAllowed("127.0.0.1"));
+        assertTrue(filter.isAllowed("10.0.0.1"));
+
+        // updating another tenant does not recompile the filter of t1
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantConfig(
+                new TenantIdentifier(null, null, "t2"),
+                new EmailPasswordConfig(true), new ThirdPartyConfig(true, null), new PasswordlessConfig(true),
+                null, null,
+                new JsonObject()
+        ), false);
+        assertSame(filter, Config.getIPAccessFilter(t1, process.getProcess()));
+
+        coreConfig = new JsonObject();
+        coreConfig.addProperty("ip_allow_regex", "192\\.168\\.0\\.1");
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantConfig(
+                t1,
+                new EmailPasswordConfig(true), new ThirdPartyConfig(true, null), new PasswordlessConfig(true),
+                null, null,
+                coreConfig
+        ), false);
+
+        IPAccessFilter updatedFilter = Config.getIPAccessFilter(t1, process.getProcess());
+        assertNotNull(updatedFilter);
+        assertNotSame(filter, updatedFilter);
+        assertTrue(updatedFilter.isAllowed("192.168.0.1"));
+        assertFalse(updatedFilter.isAllowed("10.0.0.1"));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -16,6 +16,7 @@
 
 package io.supertokens.test;
 
+import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.Logger;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
@@ -36,6 +37,7 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.rules.TestRule;
 import org.slf4j.LoggerFactory;
 
@@ -395,6 +397,122 @@ public class LoggingTest {
 
     }
 
+    @Test
+    public void asyncLoggingWritesLogsInTheBackground() throws Exception {
+        Utils.setValueInConfig("log_async_queue_size", "100");
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        Logger comInfoLog = (Logger) LoggerFactory.getLogger("io.supertokens.Info");
+        assertTrue(comInfoLog.iteratorForAppenders().next() instanceof AsyncAppender);
+
+        Logging.info(process.getProcess(), TenantIdentifier.BASE_TENANT, "asyncTest-ahf83nfkd", false);
+        Logging.error(process.getProcess(), TenantIdentifier.BASE_TENANT, "asyncTest-kjd92nfsl", false,
+                new Exception("asyncTest-exception"));
+
+        File infoLog = new File(Config.getConfig(process.getProcess()).getInfoLogPath(process.getProcess()));
+        File errorLog = new File(Config.getConfig(process.getProcess()).getErrorLogPath(process.getProcess()));
+
+        long start = System.currentTimeMillis();
+        while (!(logFileContainsString(infoLog, "asyncTest-ahf83nfkd")
+                && logFileContainsString(errorLog, "asyncTest-kjd92nfsl")
+                && logFileContainsString(errorLog, "asyncTest-exception"))) {
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            Thread.sleep(50);
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void syncLoggingWritesTheLogsOfEveryRequestBeforeReturning() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        Logger comInfoLog = (Logger) LoggerFactory.getLogger("io.supertokens.Info");
+        assertFalse(comInfoLog.iteratorForAppenders().next() instanceof AsyncAppender);
+
+        // the log file is kept across tests, so only count the lines written by this test
+        File infoLog = new File(Config.getConfig(process.getProcess()).getInfoLogPath(process.getProcess()));
+        int linesBefore = countLinesContainingString(infoLog, "/syncTest-jd83nfks");
+
+        int requests = 1000;
+        logRequests(process, "/syncTest-jd83nfks", requests);
+
+        assertEquals(linesBefore + 2 * requests, countLinesContainingString(infoLog, "/syncTest-jd83nfks"));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void loggingCostPerRequestBenchmark() throws Exception {
+        long syncTime = timeLoggingOfRequests(0);
+        long asyncTime = timeLoggingOfRequests(1024);
+
+        System.out.println("Logging cost per request. Sync: " + syncTime + "ns, async: " + asyncTime + "ns");
+    }
+
+    // returns the average time it takes to write the logs of one API call, in nanoseconds
+    private static long timeLoggingOfRequests(int asyncQueueSize) throws Exception {
+        Utils.reset();
+        Utils.setValueInConfig("log_async_queue_size", String.valueOf(asyncQueueSize));
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        int requests = 10000;
+        // warm up
+        logRequests(process, "/recipe/session/verify", requests);
+
+        long start = System.nanoTime();
+        logRequests(process, "/recipe/session/verify", requests);
+        long time = (System.nanoTime() - start) / requests;
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+        return time;
+    }
+
+    // writes the same two logs that WebserverAPI writes for each API call
+    private static void logRequests(TestingProcess process, String path, int count) {
+        TenantIdentifier tenantIdentifier = new TenantIdentifier(null, "a1", "t1");
+        for (int i = 0; i < count; i++) {
+            Logging.info(process.getProcess(), tenantIdentifier,
+                    "API called: " + path + ". Method: POST. Version: 5.3", false);
+            Logging.info(process.getProcess(), tenantIdentifier, "API ended: " + path + ". Method: POST", false);
+        }
+    }
+
+    private static int countLinesContainingString(File log, String value) throws IOException {
+        int count = 0;
+        try (Scanner scanner = new Scanner(log, StandardCharsets.UTF_8)) {
+            while (scanner.hasNextLine()) {
+                if (scanner.nextLine().contains(value)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean logFileContainsString(File log, String value) throws IOException {
+        try (Scanner scanner = new Scanner(log, StandardCharsets.UTF_8)) {
+            while (scanner.hasNextLine()) {
+                if (scanner.nextLine().contains(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private static boolean fileContainsString(ByteArrayOutputStream log, String value) throws IOException {
         boolean containsString = false;
         try (BufferedReader reader = new BufferedReader(new StringReader(log.toString()))) {
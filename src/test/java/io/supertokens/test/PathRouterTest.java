@@ -36,6 +36,7 @@ import io.supertokens.test.TestingProcessManager.TestingProcess;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
 import io.supertokens.test.httpRequest.HttpResponseException;
 import io.supertokens.thirdparty.InvalidProviderConfigException;
+import io.supertokens.webserver.PathRouter;
 import io.supertokens.webserver.RecipeRouter;
 import io.supertokens.webserver.Webserver;
 import io.supertokens.webserver.WebserverAPI;
@@ -46,11 +47,14 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.rules.TestRule;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -3076,4 +3080,224 @@ public class PathRouterTest extends Mockito {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
+
+    // a subset of the real API paths, in the order in which the webserver adds them. The order matters for the old
+    // router, since it picks the most recently added API when more than one matches.
+    private static final String[] API_PATHS = new String[]{
+            "/", "/hello", "/config", "/apiversion", "/recipe/session", "/recipe/session/verify",
+            "/recipe/session/refresh", "/recipe/session/remove", "/recipe/session/user", "/recipe/session/data",
+            "/recipe/handshake", "/recipe/jwt", "/recipe/jwt/jwks", "/.well-known/jwks.json", "/recipe/signin",
+            "/recipe/signup", "/recipe/user", "/recipe/user/password/reset/token", "/recipe/user/email/verify",
+            "/recipe/signinup", "/recipe/signinup/code", "/recipe/signinup/code/consume", "/users", "/users/count",
+            "/users/count/active", "/users/by-accountinfo", "/user/id", "/user/remove", "/user/search/tags",
+            "/recipe/user/metadata", "/recipe/user/roles", "/recipe/role", "/recipe/roles", "/recipe/totp/device",
+            "/recipe/totp/verify", "/recipe/multitenancy/tenant/v2", "/recipe/multitenancy/app/v2",
+            "/recipe/webauthn/user/credential/", "/recipe/webauthn/user/credential/list", "/requests/stats",
+            "/recipe/oauth/token", "/recipe/oauth/introspect", "/ee/license", "/ee/featureflag",
+            "/bulk-import/users", "/bulk-import/users/count", "/bulk-import/users/remove", "/bulk-import/import"
+    };
+
+    private static final List<String> TENANT_ID_STOP_WORDS = io.supertokens.webserver.Utils.INVALID_WORDS_FOR_TENANTID;
+
+    private static final String[] REQUEST_PREFIXES = new String[]{
+            "", "/appid-a1", "/t1", "/appid-a1/t1", "/appid-", "/appid-a1/appid-a2", "/users", "/appid-a1/recipe",
+            "/T1", "/t_1", "/appid-a1/bulk-import", "/bulk-import", "/t1/t2"
+    };
+
+    private static List<WebserverAPI> createAPIs(TestingProcess process, int numberOfExtraAPIs) {
+        List<String> paths = new ArrayList<>(List.of(API_PATHS));
+        for (int i = 0; i < numberOfExtraAPIs; i++) {
+            paths.add(1, "/recipe/extra-" + i + "/action");
+        }
+        List<WebserverAPI> apis = new ArrayList<>();
+        for (String path : paths) {
+            apis.add(new WebserverAPI(process.getProcess(), "") {
+                @Override
+                public String getPath() {
+                    return path;
+                }
+            });
+        }
+        return apis;
+    }
+
+    private static List<String> createRequestPaths() {
+        List<String> requestPaths = new ArrayList<>();
+        for (String prefix : REQUEST_PREFIXES) {
+            for (String apiPath : API_PATHS) {
+                if (apiPath.startsWith("/.")) {
+                    // the old router used the api path as a regex, so the . in this path matched any character
+                    continue;
+                }
+                requestPaths.add(prefix + apiPath);
+                requestPaths.add(prefix + apiPath + "/");
+                requestPaths.add(prefix + apiPath.toUpperCase());
+            }
+            requestPaths.add(prefix + "/unknown/path");
+            requestPaths.add(prefix + "/recipe");
+            requestPaths.add(prefix + "/hello/world");
+        }
+        return requestPaths;
+    }
+
+    // This is how PathRouter used to match paths, before the routes were indexed when the APIs are added.
+    private static WebserverAPI getAPIThatMatchesPathUsingRegex(List<WebserverAPI> apis, String servletPath) {
+        String requestPath = servletPath.toLowerCase();
+
+        for (WebserverAPI api : apis) {
+            String apiPath = api.getPath().toLowerCase();
+            if (!apiPath.startsWith("/")) {
+                apiPath = "/" + apiPath;
+            }
+            if (requestPath.equals(apiPath) || requestPath.equals(apiPath + "/")) {
+                return api;
+            }
+        }
+
+        for (WebserverAPI api : apis) {
+            String apiPath = api.getPath().toLowerCase();
+            if (!apiPath.startsWith("/")) {
+                apiPath = "/" + apiPath;
+            }
+
+            if (apiPath.endsWith("/")) {
+                apiPath = apiPath.substring(0, apiPath.length() - 1);
+            }
+
+            if (apiPath.isBlank()) {
+                String tenantIdStopWords = String.join("$|", TENANT_ID_STOP_WORDS) + "$";
+                tenantIdStopWords += "|" + String.join("/|", TENANT_ID_STOP_WORDS) + "/";
+                if (requestPath.matches(
+                        "^(/appid-[a-z0-9-]*)?(/(?!" + tenantIdStopWords + ")[a-z0-9-]+)?" + "/?$")) {
+                    return api;
+                }
+            } else {
+                String tenantIdStopWords = String.join("/|", TENANT_ID_STOP_WORDS) + "/";
+                if (requestPath.matches(
+                        "^(/appid-[a-z0-9-]*)?(/(?!" + tenantIdStopWords + ")[a-z0-9-]+)?" + apiPath + "/?$")) {
+                    return api;
+                }
+            }
+        }
+        for (WebserverAPI api : apis) {
+            if (api.getPath().equals("/")) {
+                return api;
+            }
+        }
+        throw new RuntimeException("Should never come here");
+    }
+
+    @Test
+    public void testIndexedRoutesMatchTheSameAPIsAsRegexMatching() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        List<WebserverAPI> apis = createAPIs(process, 10);
+        PathRouter pathRouter = new PathRouter(process.getProcess());
+        List<WebserverAPI> apisInRoutingOrder = new ArrayList<>();
+        for (WebserverAPI api : apis) {
+            pathRouter.addAPI(api);
+            apisInRoutingOrder.add(0, api);
+        }
+
+        for (String requestPath : createRequestPaths()) {
+            WebserverAPI expected = getAPIThatMatchesPathUsingRegex(apisInRoutingOrder, requestPath);
+            WebserverAPI actual = pathRouter.getAPIThatMatchesPath(requestPath);
+            assertSame(requestPath + " matched " + actual.getPath() + " instead of " + expected.getPath(), expected,
+                    actual);
+        }
+
+        // a few cases spelled out
+        assertEquals("/bulk-import/users", pathRouter.getAPIThatMatchesPath("/appid-a1/bulk-import/users").getPath());
+        assertEquals("/users", pathRouter.getAPIThatMatchesPath("/appid-a1/t1/users").getPath());
+        assertEquals("/users/count", pathRouter.getAPIThatMatchesPath("/t1/users/count/").getPath());
+        assertEquals("/users", pathRouter.getAPIThatMatchesPath("/appid-a1/users").getPath());
+        assertEquals("/", pathRouter.getAPIThatMatchesPath("/t1/unknown/path").getPath());
+        assertEquals("/", pathRouter.getAPIThatMatchesPath("/appid-a1/t1").getPath());
+        assertEquals("/recipe/webauthn/user/credential/",
+                pathRouter.getAPIThatMatchesPath("/t1/recipe/webauthn/user/credential").getPath());
+
+        try {
+            pathRouter.addAPI(createAPIs(process, 0).get(5));
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("APIs given to the router cannot have the same path", e.getMessage());
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testIndexedRoutesMatchTheSameAPIsAsRegexMatchingWithManyAPIs() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        // about as many APIs as the webserver has
+        List<WebserverAPI> apis = createAPIs(process, 100);
+        PathRouter pathRouter = new PathRouter(process.getProcess());
+        List<WebserverAPI> apisInRoutingOrder = new ArrayList<>();
+        for (WebserverAPI api : apis) {
+            pathRouter.addAPI(api);
+            apisInRoutingOrder.add(0, api);
+        }
+
+        for (String requestPath : createRequestPaths()) {
+            WebserverAPI expected = getAPIThatMatchesPathUsingRegex(apisInRoutingOrder, requestPath);
+            WebserverAPI actual = pathRouter.getAPIThatMatchesPath(requestPath);
+            assertSame(requestPath + " matched " + actual.getPath() + " instead of " + expected.getPath(), expected,
+                    actual);
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void indexedRoutesVsRegexMatchingBenchmark() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        // about as many APIs as the webserver has
+        List<WebserverAPI> apis = createAPIs(process, 100);
+        PathRouter pathRouter = new PathRouter(process.getProcess());
+        List<WebserverAPI> apisInRoutingOrder = new ArrayList<>();
+        for (WebserverAPI api : apis) {
+            pathRouter.addAPI(api);
+            apisInRoutingOrder.add(0, api);
+        }
+        List<String> requestPaths = createRequestPaths();
+
+        // warm up both
+        for (int i = 0; i < 2; i++) {
+            for (String requestPath : requestPaths) {
+                getAPIThatMatchesPathUsingRegex(apisInRoutingOrder, requestPath);
+                pathRouter.getAPIThatMatchesPath(requestPath);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (String requestPath : requestPaths) {
+            getAPIThatMatchesPathUsingRegex(apisInRoutingOrder, requestPath);
+        }
+        long regexTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            for (String requestPath : requestPaths) {
+                pathRouter.getAPIThatMatchesPath(requestPath);
+            }
+        }
+        long indexedTime = (System.nanoTime() - start) / 10;
+
+        System.out.println("Routing " + requestPaths.size() + " paths across " + apis.size() + " APIs. Regex: " +
+                (regexTime / 1000) + "us, indexed: " + (indexedTime / 1000) + "us");
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -30,6 +30,7 @@ import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
 import io.supertokens.test.httpRequest.HttpResponseException;
 import io.supertokens.test.multitenant.api.TestMultitenancyAPIHelper;
+import io.supertokens.webserver.LatencyHistogram;
 import io.supertokens.webserver.RequestStats;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -283,4 +284,61 @@ public class RequestStatsTest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testLatencyHistogramPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        JsonObject empty = histogram.getStats();
+        assertEquals(0, empty.get("count").getAsLong());
+        assertEquals(0, empty.get("p99Ms").getAsDouble(), 0);
+
+        for (int i = 1; i <= 10000; i++) {
+            histogram.recordValue(i * 100L); // 0.1ms to 1000ms
+        }
+        histogram.recordValue(-1); // ignored as 0
+
+        JsonObject stats = histogram.getStats();
+        assertEquals(10001, stats.get("count").getAsLong());
+        // buckets are at most 12.5% wide, and we report the upper end of the bucket
+        assertEquals(500, stats.get("p50Ms").getAsDouble(), 500 * 0.125);
+        assertTrue(stats.get("p50Ms").getAsDouble() >= 500);
+        assertEquals(950, stats.get("p95Ms").getAsDouble(), 950 * 0.125);
+        assertTrue(stats.get("p95Ms").getAsDouble() >= 950);
+        assertEquals(990, stats.get("p99Ms").getAsDouble(), 990 * 0.125);
+        assertTrue(stats.get("p99Ms").getAsDouble() >= 990);
+    }
+
+    @Test
+    public void testLatenciesArePerAPIAndMethod() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        int numRequests = 20;
+        for (int i = 0; i < numRequests; i++) {
+            TestMultitenancyAPIHelper.epSignUp(TenantIdentifier.BASE_TENANT, "test" + i + "@example.com",
+                    "password", process.getProcess());
+        }
+
+        JsonObject stats = HttpRequestForTesting
+                .sendGETRequest(process.getProcess(), "", "http://localhost:3567/requests/stats", null, 5000,
+                        5000, null, Utils.getCdiVersionStringLatestForTests(), null);
+
+        JsonObject latencies = stats.getAsJsonObject("apiLatencies");
+        JsonObject signUpLatency = latencies.getAsJsonObject("/recipe/signup").getAsJsonObject("POST");
+        assertEquals(numRequests, signUpLatency.get("count").getAsLong());
+        assertTrue(signUpLatency.get("p50Ms").getAsDouble() > 0);
+        assertTrue(signUpLatency.get("p50Ms").getAsDouble() <= signUpLatency.get("p95Ms").getAsDouble());
+        assertTrue(signUpLatency.get("p95Ms").getAsDouble() <= signUpLatency.get("p99Ms").getAsDouble());
+
+        // the stats request is recorded after its response is sent
+        stats = HttpRequestForTesting
+                .sendGETRequest(process.getProcess(), "", "http://localhost:3567/requests/stats", null, 5000,
+                        5000, null, Utils.getCdiVersionStringLatestForTests(), null);
+        assertEquals(1, stats.getAsJsonObject("apiLatencies").getAsJsonObject("/requests/stats")
+                .getAsJsonObject("GET").get("count").getAsLong());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
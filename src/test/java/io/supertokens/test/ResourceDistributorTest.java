@@ -288,4 +288,48 @@ public class ResourceDistributorTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void testFallbackToBaseConnectionUriDomainOnlyWhenNothingIsConfiguredForIt() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        ResourceDistributor rd = process.getProcess().getResourceDistributor();
+        ResourceA baseResource = new ResourceA();
+        ResourceA cudResource = new ResourceA();
+        rd.setResource(new TenantIdentifier(null, "a1", "t1"), ResourceA.RESOURCE_ID, baseResource);
+
+        // nothing is configured for c1, so we fall back to the base connectionUriDomain
+        assertSame(baseResource, rd.getResource(new TenantIdentifier("c1", "a1", "t1"), ResourceA.RESOURCE_ID));
+
+        // once something is configured for c1, tenants that are not configured for it are not found
+        rd.setResource(new TenantIdentifier("c1", "a2", "t2"), ResourceB.RESOURCE_ID, new ResourceB());
+        try {
+            rd.getResource(new TenantIdentifier("c1", "a1", "t1"), ResourceA.RESOURCE_ID);
+            fail();
+        } catch (TenantOrAppNotFoundException ignored) {
+        }
+
+        rd.setResource(new TenantIdentifier("c1", "a1", "t1"), ResourceA.RESOURCE_ID, cudResource);
+        assertSame(cudResource, rd.getResource(new TenantIdentifier("c1", "a1", "t1"), ResourceA.RESOURCE_ID));
+
+        Map<ResourceDistributor.KeyClass, ResourceDistributor.SingletonResource> all =
+                rd.getAllResourcesWithResourceKey(ResourceA.RESOURCE_ID);
+        assertSame(baseResource,
+                all.get(new ResourceDistributor.KeyClass(new TenantIdentifier(null, "a1", "t1"),
+                        ResourceA.RESOURCE_ID)));
+        assertSame(cudResource,
+                all.get(new ResourceDistributor.KeyClass(new TenantIdentifier("c1", "a1", "t1"),
+                        ResourceA.RESOURCE_ID)));
+
+        // after removing everything for c1, we fall back to the base connectionUriDomain again
+        assertSame(cudResource, rd.removeResource(new TenantIdentifier("c1", "a1", "t1"), ResourceA.RESOURCE_ID));
+        rd.clearAllResourcesWithResourceKey(ResourceB.RESOURCE_ID);
+        assertSame(baseResource, rd.getResource(new TenantIdentifier("c1", "a1", "t1"), ResourceA.RESOURCE_ID));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test;
+
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.authRecipe.AuthRecipe;
+import io.supertokens.emailpassword.EmailPassword;
+import io.supertokens.featureflag.EE_FEATURES;
+import io.supertokens.featureflag.FeatureFlagTestContent;
+import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.authRecipe.AuthRecipeUserInfo;
+import io.supertokens.pluginInterface.StorageUtils;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
+import io.supertokens.session.Session;
+import io.supertokens.session.info.SessionInformationHolder;
+import io.supertokens.storageLayer.StorageLayer;
+import io.supertokens.test.httpRequest.HttpRequestForTesting;
+import io.supertokens.totp.Totp;
+import io.supertokens.usagestats.UsageStats;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import static org.junit.Assert.*;
+
+public class UsageStatsTest {
+
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static UsageStats getUsageStats(TestingProcessManager.TestingProcess process) throws Exception {
+        return UsageStats.getInstance(process.getProcess(), process.getAppForTesting().toAppIdentifier());
+    }
+
+    @Test
+    public void signUpsAndSessionsUpdateTheStatsWithoutCountingThemAgain() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        String tenantId = TenantIdentifier.DEFAULT_TENANT_ID;
+        UsageStats usageStats = getUsageStats(process);
+        assertFalse(usageStats.isOutdated());
+        assertEquals(0, usageStats.getUsersCount(tenantId));
+        assertEquals(0, usageStats.getSessionsCount(tenantId));
+
+        EmailPassword.signUp(process.getProcess(), "test1@example.com", "password");
+        EmailPassword.signUp(process.getProcess(), "test2@example.com", "password");
+        assertFalse(usageStats.isOutdated());
+        assertEquals(2, usageStats.getUsersCount(tenantId));
+
+        SessionInformationHolder sessionInfo = Session.createNewSession(process.getProcess(), "userId",
+                new JsonObject(), new JsonObject());
+        Session.createNewSession(process.getProcess(), "userId", new JsonObject(), new JsonObject());
+        assertEquals(2, usageStats.getSessionsCount(tenantId));
+
+        Session.revokeSessionUsingSessionHandles(process.getProcess(), new String[]{sessionInfo.session.handle});
+        assertEquals(1, usageStats.getSessionsCount(tenantId));
+
+        // revoking a session that no longer exists does not change the count
+        Session.revokeSessionUsingSessionHandles(process.getProcess(), new String[]{sessionInfo.session.handle});
+        assertEquals(1, usageStats.getSessionsCount(tenantId));
+
+        assertFalse(usageStats.isOutdated());
+        assertSame(usageStats, getUsageStats(process));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void reconcilingFixesCountsThatTheEventsMissed() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        String tenantId = TenantIdentifier.DEFAULT_TENANT_ID;
+        UsageStats usageStats = getUsageStats(process);
+        assertEquals(0, usageStats.getUsersCount(tenantId));
+
+        // a user that is added directly to the storage, like a bulk import does, is not seen by the events
+        StorageUtils.getEmailPasswordStorage(StorageLayer.getStorage(process.getProcess()))
+                .signUp(process.getAppForTesting(), "userId", "test@example.com", "passwordHash",
+                        System.currentTimeMillis());
+        assertEquals(0, usageStats.getUsersCount(tenantId));
+
+        UsageStats.reconcileAll(process.getProcess());
+        assertEquals(1, usageStats.getUsersCount(tenantId));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void deletingAndLinkingUsersAndEnablingTOTPUpdateTheStatsWithoutCountingThemAgain() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES,
+                        new EE_FEATURES[]{EE_FEATURES.ACCOUNT_LINKING, EE_FEATURES.MFA});
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        String tenantId = TenantIdentifier.DEFAULT_TENANT_ID;
+        AuthRecipeUserInfo user1 = EmailPassword.signUp(process.getProcess(), "test1@example.com", "password");
+        AuthRecipeUserInfo user2 = EmailPassword.signUp(process.getProcess(), "test2@example.com", "password");
+        AuthRecipeUserInfo user3 = EmailPassword.signUp(process.getProcess(), "test3@example.com", "password");
+        UsageStats usageStats = getUsageStats(process);
+        assertEquals(3, usageStats.getUsersCount(tenantId));
+        assertEquals(0, usageStats.getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled());
+
+        JsonObject body = new JsonObject();
+        body.addProperty("userId", user3.getSupertokensUserId());
+        HttpRequestForTesting.sendJsonPOSTRequest(process.getProcess(), "",
+                "http://localhost:3567/user/remove", body, 1000, 1000, null,
+                Utils.getCdiVersionStringLatestForTests(), "");
+        assertEquals(2, usageStats.getUsersCount(tenantId));
+
+        // the linked user is no longer a separate user, and the primary user now has more than one login method
+        AuthRecipe.createPrimaryUser(process.getProcess(), user1.getSupertokensUserId());
+        AuthRecipe.linkAccounts(process.getProcess(), user2.getSupertokensUserId(), user1.getSupertokensUserId());
+        assertEquals(1, usageStats.getUsersCount(tenantId));
+        assertEquals(1, usageStats.getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled());
+
+        // the primary user is already counted, so enabling TOTP for them does not change the count
+        Totp.registerDevice(process.getProcess(), user1.getSupertokensUserId(), "d1", 1, 30);
+        assertEquals(1, usageStats.getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled());
+
+        AuthRecipeUserInfo user4 = EmailPassword.signUp(process.getProcess(), "test4@example.com", "password");
+        Totp.registerDevice(process.getProcess(), user4.getSupertokensUserId(), "d1", 1, 30);
+        Totp.registerDevice(process.getProcess(), user4.getSupertokensUserId(), "d2", 1, 30);
+        assertEquals(2, usageStats.getUsersCount(tenantId));
+        assertEquals(2, usageStats.getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled());
+
+        assertFalse(usageStats.isOutdated());
+
+        // counting them again gives the same stats
+        UsageStats.reconcileAll(process.getProcess());
+        assertEquals(2, usageStats.getUsersCount(tenantId));
+        assertEquals(2, usageStats.getUsersCountWithMoreThanOneLoginMethodOrTOTPEnabled());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
@@ -16,12 +16,16 @@
 
 package io.supertokens.test;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 
 import static org.junit.Assert.*;
@@ -43,6 +47,25 @@ public class UtilsTest {
         Utils.reset();
     }
 
+    @Test
+    public void writeJsonWritesTheSameAsToString() {
+        JsonObject json = new JsonObject();
+        json.addProperty("html", "<b>a & b = 'c'</b>");
+        json.addProperty("unicode", "łukasz 馬 \n \t");
+        json.add("null", JsonNull.INSTANCE);
+        json.addProperty("number", 1.5);
+        json.addProperty("long", Long.MAX_VALUE);
+        JsonArray array = new JsonArray();
+        array.add(true);
+        array.add(JsonNull.INSTANCE);
+        array.add(new JsonObject());
+        json.add("array", array);
+
+        StringWriter writer = new StringWriter();
+        io.supertokens.utils.Utils.writeJson(json, writer);
+        assertEquals(json.toString(), writer.toString());
+    }
+
     @Test
     public void encodeDecodeBase64WithUTF() {
         assert (io.supertokens.utils.Utils.convertFromBase64(
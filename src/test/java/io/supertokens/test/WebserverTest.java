@@ -39,6 +39,7 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.rules.TestRule;
 import org.mockito.Mockito;
 
@@ -47,7 +48,12 @@ import java.io.IOException;
 import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -779,6 +785,115 @@ public class WebserverTest extends Mockito {
 
     }
 
+    @Test
+    public void requestsRunOnVirtualThreadsOnlyIfEnabled() throws Exception {
+        assertEquals("false", getThreadTypeOfRequests(false));
+        assertEquals("true", getThreadTypeOfRequests(true));
+    }
+
+    private static String getThreadTypeOfRequests(boolean useVirtualThreads) throws Exception {
+        Utils.reset();
+        Utils.setValueInConfig("server_use_virtual_threads", String.valueOf(useVirtualThreads));
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        Webserver.getInstance(process.getProcess()).addAPI(new WebserverAPI(process.getProcess(), "") {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getPath() {
+                return "/testforvirtualthreads";
+            }
+
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                super.sendTextResponse(200, String.valueOf(Thread.currentThread().isVirtual()), resp);
+            }
+        });
+
+        String response = HttpRequest.sendGETRequest(process.getProcess(), "",
+                "http://localhost:" + HttpRequestForTesting.corePort + "/testforvirtualthreads", null, 1000, 1000,
+                null);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+        return response;
+    }
+
+    @Test
+    public void concurrentBlockingRequestsAreAllServed() throws Exception {
+        serveConcurrentBlockingRequests(false);
+        serveConcurrentBlockingRequests(true);
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void blockingRequestsLoadBenchmark() throws Exception {
+        long platformThreadsTime = serveConcurrentBlockingRequests(false);
+        long virtualThreadsTime = serveConcurrentBlockingRequests(true);
+
+        System.out.println("Time to serve 200 concurrent blocking requests. Thread pool of 10: " + platformThreadsTime
+                + "ms, virtual threads: " + virtualThreadsTime + "ms");
+    }
+
+    // sends many concurrent requests that each block for a while, like an API that waits on the db or on another
+    // service, and checks that all of them get a response. Returns how long they took, in ms, after a warm up round.
+    private static long serveConcurrentBlockingRequests(boolean useVirtualThreads) throws Exception {
+        Utils.reset();
+        Utils.setValueInConfig("server_use_virtual_threads", String.valueOf(useVirtualThreads));
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        Webserver.getInstance(process.getProcess()).addAPI(new WebserverAPI(process.getProcess(), "") {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getPath() {
+                return "/testforblockingrequests";
+            }
+
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                }
+                super.sendTextResponse(200, "success", resp);
+            }
+        });
+
+        int requests = 200;
+        // warm up
+        sendConcurrentRequests(process, "/testforblockingrequests", requests);
+
+        long start = System.nanoTime();
+        sendConcurrentRequests(process, "/testforblockingrequests", requests);
+        long time = (System.nanoTime() - start) / 1000000;
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+        return time;
+    }
+
+    private static void sendConcurrentRequests(TestingProcess process, String path, int count) throws Exception {
+        List<Future<String>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                responses.add(executor.submit(() -> HttpRequest.sendGETRequest(process.getProcess(), "",
+                        "http://localhost:" + HttpRequestForTesting.corePort + path, null, 10000, 30000, null)));
+            }
+        }
+        for (Future<String> response : responses) {
+            assertEquals("success", response.get());
+        }
+    }
+
     @Test
     public void notFoundTest() throws InterruptedException, IOException {
         String[] args = {"../"};
@@ -49,6 +49,9 @@ import org.junit.Test;
 import org.junit.rules.TestRule;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -495,6 +498,69 @@ public class SessionTests {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testGetAndRevokeSessionsForLinkedUserAcrossTenantsOfAnApp() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{
+                        EE_FEATURES.ACCOUNT_LINKING, EE_FEATURES.MULTI_TENANCY});
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        createTenants(process.getProcess());
+
+        Storage t1Storage = (StorageLayer.getStorage(t1, process.getProcess()));
+
+        AuthRecipeUserInfo user1 = EmailPassword.signUp(t1, t1Storage, process.getProcess(), "test1@example.com",
+                "password");
+        AuthRecipeUserInfo user2 = EmailPassword.signUp(t1, t1Storage, process.getProcess(), "test2@example.com",
+                "password");
+        AuthRecipe.createPrimaryUser(process.getProcess(), t1.toAppIdentifier(), t1Storage,
+                user1.getSupertokensUserId());
+        AuthRecipe.linkAccounts(process.getProcess(), t1.toAppIdentifier(), t1Storage,
+                user2.getSupertokensUserId(), user1.getSupertokensUserId());
+
+        Set<String> createdSessionHandles = new HashSet<>();
+        for (TenantIdentifier tenant : new TenantIdentifier[]{t1, t2, t3, t4}) {
+            Storage tenantStorage = StorageLayer.getStorage(tenant, process.getProcess());
+            if (!tenant.equals(t1)) {
+                Multitenancy.addUserIdToTenant(process.getProcess(), tenant, tenantStorage,
+                        user1.getSupertokensUserId());
+                Multitenancy.addUserIdToTenant(process.getProcess(), tenant, tenantStorage,
+                        user2.getSupertokensUserId());
+            }
+            createdSessionHandles.add(Session.createNewSession(tenant, tenantStorage, process.getProcess(),
+                    user1.getSupertokensUserId(), new JsonObject(), new JsonObject()).session.handle);
+            createdSessionHandles.add(Session.createNewSession(tenant, tenantStorage, process.getProcess(),
+                    user2.getSupertokensUserId(), new JsonObject(), new JsonObject()).session.handle);
+        }
+
+        {
+            String[] sessions = Session.getAllNonExpiredSessionHandlesForUser(process.getProcess(),
+                    t1.toAppIdentifier(), t1Storage, user2.getSupertokensUserId(), false);
+            assertEquals(4, sessions.length);
+        }
+        {
+            String[] sessions = Session.getAllNonExpiredSessionHandlesForUser(process.getProcess(),
+                    t1.toAppIdentifier(), t1Storage, user1.getSupertokensUserId(), true);
+            assertEquals(createdSessionHandles, new HashSet<>(Arrays.asList(sessions)));
+        }
+
+        String[] revoked = Session.revokeAllSessionsForUser(process.getProcess(), t1.toAppIdentifier(), t1Storage,
+                user2.getSupertokensUserId(), true);
+        assertEquals(createdSessionHandles, new HashSet<>(Arrays.asList(revoked)));
+
+        assertEquals(0, Session.getAllNonExpiredSessionHandlesForUser(process.getProcess(),
+                t1.toAppIdentifier(), t1Storage, user1.getSupertokensUserId(), true).length);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     @Test
     public void testRevokeSessionsForUserWithAndWithoutIncludingAllLinkedAccounts() throws Exception {
         String[] args = {"../"};
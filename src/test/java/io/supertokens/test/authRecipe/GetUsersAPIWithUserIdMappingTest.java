@@ -20,15 +20,24 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.emailpassword.EmailPassword;
+import io.supertokens.featureflag.EE_FEATURES;
+import io.supertokens.featureflag.FeatureFlagTestContent;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.Storage;
 import io.supertokens.pluginInterface.authRecipe.AuthRecipeUserInfo;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.useridmapping.UserIdMappingStorage;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.test.TestingProcessManager;
 import io.supertokens.test.Utils;
 import io.supertokens.test.httpRequest.HttpRequestForTesting;
+import io.supertokens.test.httpRequest.HttpResponseException;
+import io.supertokens.test.multitenant.api.TestMultitenancyAPIHelper;
+import io.supertokens.usermetadata.UserMetadata;
+import io.supertokens.userroles.UserRoles;
 import io.supertokens.utils.SemVer;
+import io.supertokens.webserver.WebserverAPI;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
@@ -38,8 +47,7 @@ import org.junit.rules.TestRule;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class GetUsersAPIWithUserIdMappingTest {
     @Rule
@@ -164,4 +172,146 @@ public class GetUsersAPIWithUserIdMappingTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void retrieveUsersWithTheirMetadataAndRolesUsingTheirExternalIds() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        UserIdMappingStorage storage = (UserIdMappingStorage) StorageLayer.getStorage(process.getProcess());
+        UserRoles.createNewRoleOrModifyItsPermissions(process.getProcess(), "admin", null);
+        UserRoles.createNewRoleOrModifyItsPermissions(process.getProcess(), "user", null);
+
+        for (int i = 1; i <= 3; i++) {
+            AuthRecipeUserInfo userInfo = EmailPassword.signUp(process.getProcess(), "test" + i + "@example.com",
+                    "testPass123");
+            storage.createUserIdMapping(process.getAppForTesting().toAppIdentifier(),
+                    userInfo.getSupertokensUserId(), "externalId" + i, null);
+            Thread.sleep(20);
+        }
+
+        // metadata and roles are stored against the external user ids
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("key", "value");
+        UserMetadata.updateUserMetadata(process.getProcess(), "externalId1", metadata);
+        UserRoles.addRoleToUser(process.getProcess(), "externalId1", "admin");
+        UserRoles.addRoleToUser(process.getProcess(), "externalId1", "user");
+        UserRoles.addRoleToUser(process.getProcess(), "externalId2", "user");
+
+        HashMap<String, String> queryParams = new HashMap<>();
+        queryParams.put("include", "externalUserId,metadata,roles");
+        JsonObject response = HttpRequestForTesting.sendGETRequest(process.getProcess(), "",
+                "http://localhost:3567/users", queryParams, 1000, 1000, null,
+                WebserverAPI.getLatestCDIVersion().get(), null);
+        assertEquals("OK", response.get("status").getAsString());
+        JsonArray users = response.getAsJsonArray("users");
+        assertEquals(3, users.size());
+
+        JsonObject user1 = users.get(0).getAsJsonObject();
+        assertEquals("externalId1", user1.get("id").getAsString());
+        assertEquals(metadata, user1.get("metadata"));
+        assertEquals(2, user1.getAsJsonArray("roles").size());
+
+        JsonObject user2 = users.get(1).getAsJsonObject();
+        assertEquals("externalId2", user2.get("id").getAsString());
+        assertEquals(new JsonObject(), user2.get("metadata"));
+        assertEquals(1, user2.getAsJsonArray("roles").size());
+        assertEquals("user", user2.getAsJsonArray("roles").get(0).getAsString());
+
+        JsonObject user3 = users.get(2).getAsJsonObject();
+        assertEquals("externalId3", user3.get("id").getAsString());
+        assertEquals(new JsonObject(), user3.get("metadata"));
+        assertEquals(0, user3.getAsJsonArray("roles").size());
+
+        // without include, metadata and roles are not fetched
+        response = HttpRequestForTesting.sendGETRequest(process.getProcess(), "",
+                "http://localhost:3567/users", null, 1000, 1000, null,
+                WebserverAPI.getLatestCDIVersion().get(), null);
+        assertFalse(response.getAsJsonArray("users").get(0).getAsJsonObject().has("metadata"));
+        assertFalse(response.getAsJsonArray("users").get(0).getAsJsonObject().has("roles"));
+
+        queryParams.put("include", "permissions");
+        try {
+            HttpRequestForTesting.sendGETRequest(process.getProcess(), "",
+                    "http://localhost:3567/users", queryParams, 1000, 1000, null,
+                    WebserverAPI.getLatestCDIVersion().get(), null);
+            fail();
+        } catch (HttpResponseException e) {
+            assertEquals(400, e.statusCode);
+            assertEquals("Http error. Status Code: 400. Message: include can only contain externalUserId, metadata "
+                    + "and roles", e.getMessage());
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void retrieveMetadataOfUsersOfATenantWithItsOwnUserPool() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getBaseStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        // user pools are not applicable if using in memory database
+        if (StorageLayer.isInMemDb(process.getProcess())) {
+            return;
+        }
+
+        JsonObject config = new JsonObject();
+        StorageLayer.getBaseStorage(process.getProcess()).modifyConfigToAddANewUserPoolForTesting(config, 1);
+        TestMultitenancyAPIHelper.createTenant(process.getProcess(), TenantIdentifier.BASE_TENANT, "t1", true, true,
+                true, config);
+
+        TenantIdentifier t1 = new TenantIdentifier(null, null, "t1");
+        Storage publicTenantStorage = StorageLayer.getStorage(TenantIdentifier.BASE_TENANT, process.getProcess());
+        Storage t1Storage = StorageLayer.getStorage(t1, process.getProcess());
+        assertNotSame(publicTenantStorage, t1Storage);
+
+        AuthRecipeUserInfo user1 = EmailPassword.signUp(t1, t1Storage, process.getProcess(), "test1@example.com",
+                "testPass123");
+        Thread.sleep(20);
+        AuthRecipeUserInfo user2 = EmailPassword.signUp(t1, t1Storage, process.getProcess(), "test2@example.com",
+                "testPass123");
+
+        // metadata of an existing user is saved in the storage of that user
+        JsonObject metadata1 = new JsonObject();
+        metadata1.addProperty("key", "value1");
+        UserMetadata.updateUserMetadata(t1.toAppIdentifier(), t1Storage, user1.getSupertokensUserId(), metadata1);
+
+        // metadata set against an external user id before it is mapped is saved in the public tenant's storage
+        JsonObject metadata2 = new JsonObject();
+        metadata2.addProperty("key", "value2");
+        UserMetadata.updateUserMetadata(t1.toAppIdentifier(), publicTenantStorage, "externalId2", metadata2);
+        ((UserIdMappingStorage) t1Storage).createUserIdMapping(t1.toAppIdentifier(),
+                user2.getSupertokensUserId(), "externalId2", null);
+
+        HashMap<String, String> queryParams = new HashMap<>();
+        queryParams.put("include", "metadata");
+        JsonObject response = HttpRequestForTesting.sendGETRequest(process.getProcess(), "",
+                HttpRequestForTesting.getMultitenantUrl(t1, "/users"), queryParams, 1000, 1000, null,
+                WebserverAPI.getLatestCDIVersion().get(), null);
+        assertEquals("OK", response.get("status").getAsString());
+        JsonArray users = response.getAsJsonArray("users");
+        assertEquals(2, users.size());
+
+        assertEquals(user1.getSupertokensUserId(), users.get(0).getAsJsonObject().get("id").getAsString());
+        assertEquals(metadata1, users.get(0).getAsJsonObject().get("metadata"));
+        assertEquals("externalId2", users.get(1).getAsJsonObject().get("id").getAsString());
+        assertEquals(metadata2, users.get(1).getAsJsonObject().get("metadata"));
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
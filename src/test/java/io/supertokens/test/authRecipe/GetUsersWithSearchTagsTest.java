@@ -34,11 +34,14 @@ import static org.junit.Assert.assertNotNull;
 import io.supertokens.ProcessState.PROCESS_STATE;
 import io.supertokens.authRecipe.AuthRecipe;
 import io.supertokens.authRecipe.UserPaginationContainer;
+import io.supertokens.dashboard.DashboardUserSearchCache;
 import io.supertokens.emailpassword.EmailPassword;
 import io.supertokens.passwordless.Passwordless;
 import io.supertokens.passwordless.Passwordless.CreateCodeResponse;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
+import io.supertokens.pluginInterface.Storage;
 import io.supertokens.pluginInterface.dashboard.DashboardSearchTags;
+import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.storageLayer.StorageLayer;
 import io.supertokens.test.TestingProcessManager;
 import io.supertokens.test.Utils;
@@ -307,4 +310,152 @@ public class GetUsersWithSearchTagsTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void testSearchFindsUsersByTheirUpdatedEmail() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        String userId = EmailPassword.signUp(process.getProcess(), "Before@Example.com", "testPass123")
+                .getSupertokensUserId();
+
+        ArrayList<String> before = new ArrayList<>();
+        before.add("before");
+        ArrayList<String> after = new ArrayList<>();
+        after.add("after");
+        ArrayList<String> domain = new ArrayList<>();
+        domain.add("EXAMPLE");
+
+        assertEquals(1, AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null,
+                new DashboardSearchTags(before, null, null)).users.length);
+        assertEquals(1, AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null,
+                new DashboardSearchTags(domain, null, null)).users.length);
+
+        EmailPassword.updateUsersEmailOrPassword(process.getProcess(), userId, "after@test.com", null);
+
+        assertEquals(0, AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null,
+                new DashboardSearchTags(before, null, null)).users.length);
+        assertEquals(0, AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null,
+                new DashboardSearchTags(domain, null, null)).users.length);
+        UserPaginationContainer info = AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null,
+                new DashboardSearchTags(after, null, null));
+        assertEquals(1, info.users.length);
+        assertEquals(userId, info.users[0].getSupertokensUserId());
+
+        AuthRecipe.deleteUser(process.getProcess(), userId);
+        assertEquals(0, AuthRecipe.getUsers(process.getProcess(), 10, "ASC", null, null,
+                new DashboardSearchTags(after, null, null)).users.length);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void testSearchCacheKeysOfDifferentTagsAreDifferent() throws Exception {
+        TenantIdentifier tenantIdentifier = TenantIdentifier.BASE_TENANT;
+
+        ArrayList<String> oneTag = new ArrayList<>();
+        oneTag.add("a, b");
+        ArrayList<String> twoTags = new ArrayList<>();
+        twoTags.add("a");
+        twoTags.add("b");
+        assertNotEquals(
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(oneTag, null, null)),
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(twoTags, null, null)));
+
+        ArrayList<String> tagWithSeparator = new ArrayList<>();
+        tagWithSeparator.add("a;b");
+        assertNotEquals(
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(tagWithSeparator, null, null)),
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(twoTags, null, null)));
+
+        assertNotEquals(
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(new ArrayList<>(), null, null)),
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(null, null, null)));
+
+        assertEquals(
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(twoTags, null, null)),
+                DashboardUserSearchCache.getKey(tenantIdentifier, 10, "ASC", null, null,
+                        new DashboardSearchTags(new ArrayList<>(twoTags), null, null)));
+    }
+
+    @Test
+    public void testSearchResultsAreCachedWhenEnabled() throws Exception {
+        Utils.setValueInConfig("dashboard_user_search_cache_ttl", "60000");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        TenantIdentifier tenantIdentifier = process.getAppForTesting();
+        Storage storage = StorageLayer.getStorage(process.getProcess());
+        DashboardUserSearchCache cache = DashboardUserSearchCache.getInstance(process.getProcess(),
+                tenantIdentifier.toAppIdentifier());
+
+        String userId1 = EmailPassword.signUp(process.getProcess(), "test1@example.com", "testPass123")
+                .getSupertokensUserId();
+        String userId2 = EmailPassword.signUp(process.getProcess(), "test2@example.com", "testPass123")
+                .getSupertokensUserId();
+
+        ArrayList<String> emails = new ArrayList<>();
+        emails.add("test");
+
+        UserPaginationContainer first = AuthRecipe.getUsers(process.getProcess(), tenantIdentifier, storage, 10,
+                "ASC", null, null, new DashboardSearchTags(emails, null, null));
+        assertEquals(2, first.users.length);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // the same search is served from the cache, in the same order, with the users read again
+        EmailPassword.updateUsersEmailOrPassword(process.getProcess(), userId1, "changed@example.com", null);
+        UserPaginationContainer second = AuthRecipe.getUsers(process.getProcess(), tenantIdentifier, storage, 10,
+                "ASC", null, null, new DashboardSearchTags(emails, null, null));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, second.users.length);
+        assertEquals(first.users[0].getSupertokensUserId(), second.users[0].getSupertokensUserId());
+        assertEquals(first.users[1].getSupertokensUserId(), second.users[1].getSupertokensUserId());
+        for (int i = 0; i < second.users.length; i++) {
+            if (second.users[i].getSupertokensUserId().equals(userId1)) {
+                assertEquals("changed@example.com", second.users[i].loginMethods[0].email);
+            }
+        }
+
+        // deleted users are left out of cached results
+        AuthRecipe.deleteUser(process.getProcess(), userId2);
+        UserPaginationContainer third = AuthRecipe.getUsers(process.getProcess(), tenantIdentifier, storage, 10,
+                "ASC", null, null, new DashboardSearchTags(emails, null, null));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, third.users.length);
+        assertEquals(userId1, third.users[0].getSupertokensUserId());
+
+        // a different search is not served from the cache
+        AuthRecipe.getUsers(process.getProcess(), tenantIdentifier, storage, 10, "DESC", null, null,
+                new DashboardSearchTags(emails, null, null));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        // listing users without a search does not use the cache
+        AuthRecipe.getUsers(process.getProcess(), tenantIdentifier, storage, 10, "ASC", null, null, null);
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
 }
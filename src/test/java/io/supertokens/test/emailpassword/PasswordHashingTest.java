@@ -16,6 +16,7 @@
 
 package io.supertokens.test.emailpassword;
 
+import com.google.gson.JsonObject;
 import io.supertokens.Main;
 import io.supertokens.ProcessState;
 import io.supertokens.config.Config;
@@ -23,6 +24,7 @@ import io.supertokens.config.CoreConfig;
 import io.supertokens.emailpassword.EmailPassword;
 import io.supertokens.emailpassword.ParsedFirebaseSCryptResponse;
 import io.supertokens.emailpassword.PasswordHashing;
+import io.supertokens.emailpassword.exceptions.PasswordHashingOverloadedException;
 import io.supertokens.emailpassword.exceptions.WrongCredentialsException;
 import io.supertokens.inmemorydb.Start;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
@@ -415,6 +417,37 @@ public class PasswordHashingTest {
 
         Utils.reset();
 
+        {
+            String[] args = {"../"};
+            Utils.setValueInConfig("bcrypt_hashing_pool_size", "100");
+
+            TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+            ProcessState.EventAndException e = process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.INIT_FAILURE);
+            assertNotNull(e);
+            assertEquals(e.exception.getCause().getMessage(),
+                    "'bcrypt_hashing_pool_size' must be <= 'max_server_pool_size'");
+
+            process.kill();
+            assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+        }
+
+        Utils.reset();
+
+        {
+            // max_server_pool_size does not limit requests when they run on virtual threads
+            String[] args = {"../"};
+            Utils.setValueInConfig("bcrypt_hashing_pool_size", "100");
+            Utils.setValueInConfig("server_use_virtual_threads", "true");
+
+            TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+            assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+            process.kill();
+            assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+        }
+
+        Utils.reset();
+
         {
             String[] args = {"../"};
             Utils.setValueInConfig("bcrypt_log_rounds", "-1");
@@ -907,4 +940,56 @@ public class PasswordHashingTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void bcryptHashesAreLimitedAndRejectedAfterMaxWait() throws Exception {
+        String[] args = {"../"};
+
+        Utils.setValueInConfig("password_hashing_alg", "BCRYPT");
+        Utils.setValueInConfig("bcrypt_log_rounds", "12");
+        Utils.setValueInConfig("bcrypt_hashing_pool_size", "1");
+        Utils.setValueInConfig("password_hashing_max_wait_ms", "1");
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        PasswordHashing passwordHashing = PasswordHashing.getInstance(process.getProcess());
+        String hash = passwordHashing.createHashWithSalt("somePassword");
+
+        AtomicInteger verified = new AtomicInteger(0);
+        AtomicInteger rejected = new AtomicInteger(0);
+        AtomicBoolean poolSizeExceeded = new AtomicBoolean(false);
+
+        ExecutorService ex = Executors.newFixedThreadPool(10);
+        for (int i = 0; i < 10; i++) {
+            ex.execute(() -> {
+                try {
+                    assertTrue(passwordHashing.verifyPasswordWithHash("somePassword", hash));
+                    verified.incrementAndGet();
+                } catch (PasswordHashingOverloadedException e) {
+                    rejected.incrementAndGet();
+                }
+                if (passwordHashing.getBcryptBlockedQueueSize() > 1) {
+                    poolSizeExceeded.set(true);
+                }
+            });
+        }
+        ex.shutdown();
+        assertTrue(ex.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertFalse(poolSizeExceeded.get());
+        assertTrue(verified.get() >= 1);
+        assertTrue(rejected.get() >= 1);
+        assertEquals(10, verified.get() + rejected.get());
+
+        JsonObject bcryptStats = passwordHashing.getStats().getAsJsonObject("bcrypt");
+        assertEquals(1, bcryptStats.get("poolSize").getAsInt());
+        assertEquals(0, bcryptStats.get("inUse").getAsInt());
+        assertEquals(rejected.get(), bcryptStats.get("rejected").getAsInt());
+        // the hash created above also went through the pool
+        assertEquals(verified.get() + 1, bcryptStats.getAsJsonObject("hashTime").get("count").getAsInt());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
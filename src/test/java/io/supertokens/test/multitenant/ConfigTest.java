@@ -27,11 +27,14 @@ import io.supertokens.config.CoreConfigTestContent;
 import io.supertokens.config.annotations.ConfigYamlOnly;
 import io.supertokens.config.annotations.IgnoreForAnnotationCheck;
 import io.supertokens.config.annotations.NotConflictingInApp;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.cronjobs.syncCoreConfigWithDb.SyncCoreConfigWithDb;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlag;
 import io.supertokens.featureflag.FeatureFlagTestContent;
 import io.supertokens.featureflag.exceptions.FeatureNotEnabledException;
 import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.multitenancy.MultitenancyHelper;
 import io.supertokens.multitenancy.exception.BadPermissionException;
 import io.supertokens.multitenancy.exception.CannotModifyBaseConfigException;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
@@ -56,6 +59,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
@@ -2061,4 +2065,57 @@ public class ConfigTest {
             }
         }
     }
+
+    @Test
+    public void refreshReloadsOnlyTenantsWhoseInheritedCoreConfigChanged() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        CronTaskTest.getInstance(process.getProcess()).setIntervalInSeconds(SyncCoreConfigWithDb.RESOURCE_KEY, 3600);
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        TenantIdentifier a1 = new TenantIdentifier(null, "a1", null);
+        TenantIdentifier a1t1 = new TenantIdentifier(null, "a1", "t1");
+        TenantIdentifier a2 = new TenantIdentifier(null, "a2", null);
+        for (TenantIdentifier tenantIdentifier : new TenantIdentifier[]{a1, a1t1, a2}) {
+            Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(),
+                    new TenantConfig(tenantIdentifier, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                            new PasswordlessConfig(true), null, null, new JsonObject()), false);
+        }
+
+        Config a2Config = Config.getInstance(a2, process.getProcess());
+
+        // change the config of the app's public tenant directly in the db, the way another core would
+        JsonObject coreConfig = new JsonObject();
+        coreConfig.addProperty("email_verification_token_lifetime", 1000);
+        StorageLayer.getMultitenancyStorage(process.getProcess()).overwriteTenantConfig(
+                new TenantConfig(a1, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, coreConfig));
+
+        List<TenantIdentifier> tenantsThatChanged = MultitenancyHelper.getInstance(process.getProcess())
+                .refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true);
+
+        // t1 inherits the config of the app's public tenant, so it changes as well
+        assertEquals(2, tenantsThatChanged.size());
+        assertTrue(tenantsThatChanged.contains(a1));
+        assertTrue(tenantsThatChanged.contains(a1t1));
+
+        assertEquals(1000, Config.getConfig(a1, process.getProcess()).getEmailVerificationTokenLifetime());
+        assertEquals(1000, Config.getConfig(a1t1, process.getProcess()).getEmailVerificationTokenLifetime());
+        assertSame(a2Config, Config.getInstance(a2, process.getProcess()));
+
+        // nothing changed since the last refresh
+        assertEquals(0, MultitenancyHelper.getInstance(process.getProcess())
+                .refreshTenantsInCoreBasedOnChangesInCoreConfigOrIfTenantListChanged(true).size());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -19,9 +19,14 @@ package io.supertokens.test.multitenant;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.ResourceDistributor;
+import io.supertokens.config.Config;
+import io.supertokens.cronjobs.CronTaskTest;
+import io.supertokens.cronjobs.syncCoreConfigWithDb.SyncCoreConfigWithDb;
 import io.supertokens.featureflag.EE_FEATURES;
 import io.supertokens.featureflag.FeatureFlagTestContent;
 import io.supertokens.multitenancy.Multitenancy;
+import io.supertokens.multitenancy.MultitenancyHelper;
+import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.Storage;
 import io.supertokens.pluginInterface.multitenancy.*;
 import io.supertokens.storageLayer.StorageLayer;
@@ -37,8 +42,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class LoadTest {
 
@@ -102,6 +106,62 @@ public class LoadTest {
         assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
     }
 
+    @Test
+    public void testTenantLookupsUseTheIndexedSnapshot() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.start(args);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        for (int i = 0; i < 10; i++) {
+            TenantIdentifier app = new TenantIdentifier(null, "a" + i, null);
+            Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantIdentifier(null, null, null),
+                    new TenantConfig(app, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                            new PasswordlessConfig(true), null, null, new JsonObject()));
+            for (int j = 0; j < 9; j++) {
+                Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), app,
+                        new TenantConfig(new TenantIdentifier(null, "a" + i, "t" + j), new EmailPasswordConfig(true),
+                                new ThirdPartyConfig(true, null), new PasswordlessConfig(true), null, null,
+                                new JsonObject()));
+            }
+        }
+
+        TenantIdentifier t5 = new TenantIdentifier(null, "a3", "t5");
+        TenantConfig config = Multitenancy.getTenantInfo(process.getProcess(), t5);
+        assertEquals(t5, config.tenantIdentifier);
+        // lookups do not copy the config
+        assertSame(config, Multitenancy.getTenantInfo(process.getProcess(), t5));
+        assertNull(Multitenancy.getTenantInfo(process.getProcess(), new TenantIdentifier(null, "a3", "t9")));
+
+        TenantConfig[] tenantsOfApp = Multitenancy.getAllTenantsForApp(new AppIdentifier(null, "a3"),
+                process.getProcess());
+        assertEquals(10, tenantsOfApp.length);
+        for (TenantConfig tenant : tenantsOfApp) {
+            assertEquals(new AppIdentifier(null, "a3"), tenant.tenantIdentifier.toAppIdentifier());
+        }
+        // 10 apps with 10 tenants each, and the public tenant of the default app
+        assertEquals(101, Multitenancy.getAllAppsAndTenantsForConnectionUriDomain(null, process.getProcess()).length);
+
+        // updating a tenant publishes a new snapshot with the updated config
+        JsonObject coreConfig = new JsonObject();
+        coreConfig.addProperty("email_verification_token_lifetime", 1000);
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantIdentifier(null, "a3", null),
+                new TenantConfig(t5, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, coreConfig));
+        TenantConfig updatedConfig = Multitenancy.getTenantInfo(process.getProcess(), t5);
+        assertNotSame(config, updatedConfig);
+        assertEquals(1000, updatedConfig.coreConfig.get("email_verification_token_lifetime").getAsInt());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
 //    @Test
 //    public void testCreating1000TenantsWithOneStorageUsage()
 //            throws InterruptedException, InvalidProviderConfigException, DeletionInProgressException,
@@ -147,4 +207,55 @@ public class LoadTest {
 //        process.kill();
 //        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
 //    }
+
+    @Test
+    public void testTenantListIsRefreshedOnlyWhenTheTenantsVersionChanges() throws Exception {
+        String[] args = {"../"};
+
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args, false);
+        FeatureFlagTestContent.getInstance(process.getProcess())
+                .setKeyValue(FeatureFlagTestContent.ENABLED_FEATURES, new EE_FEATURES[]{EE_FEATURES.MULTI_TENANCY});
+        // so that the cronjob does not do a full refresh in the middle of the test
+        CronTaskTest.getInstance(process.getProcess()).setIntervalInSeconds(SyncCoreConfigWithDb.RESOURCE_KEY, 3600);
+        process.startProcess();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (StorageLayer.getStorage(process.getProcess()).getType() != STORAGE_TYPE.SQL) {
+            return;
+        }
+
+        TenantIdentifier t1 = new TenantIdentifier(null, null, "t1");
+        Multitenancy.addNewOrUpdateAppOrTenant(process.getProcess(), new TenantIdentifier(null, null, null),
+                new TenantConfig(t1, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, new JsonObject()));
+
+        // we change the tenant in the db directly, the way it would look to this core if another core changed it
+        JsonObject coreConfig = new JsonObject();
+        coreConfig.addProperty("email_verification_token_lifetime", 1000);
+        StorageLayer.getMultitenancyStorage(process.getProcess()).overwriteTenantConfig(
+                new TenantConfig(t1, new EmailPasswordConfig(true), new ThirdPartyConfig(true, null),
+                        new PasswordlessConfig(true), null, null, coreConfig));
+
+        // the tenants version has not changed, so the list is not read from the db again
+        for (TenantConfig tenant : Multitenancy.getAllTenantsForApp(t1.toAppIdentifier(), process.getProcess())) {
+            if (tenant.tenantIdentifier.equals(t1)) {
+                assertFalse(tenant.coreConfig.has("email_verification_token_lifetime"));
+            }
+        }
+
+        MultitenancyHelper.getInstance(process.getProcess()).markTenantsAsChangedInDb();
+
+        boolean found = false;
+        for (TenantConfig tenant : Multitenancy.getAllTenantsForApp(t1.toAppIdentifier(), process.getProcess())) {
+            if (tenant.tenantIdentifier.equals(t1)) {
+                assertEquals(1000, tenant.coreConfig.get("email_verification_token_lifetime").getAsInt());
+                found = true;
+            }
+        }
+        assertTrue(found);
+        assertEquals(1000, Config.getConfig(t1, process.getProcess()).getEmailVerificationTokenLifetime());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
 }
@@ -192,6 +192,7 @@ public class TestAppData {
 
         ActiveUsers.updateLastActive(app.toAppIdentifier(), process.getProcess(),
                 epUser.getSupertokensUserId());
+        ActiveUsers.flushLastActiveUpdates(process.getProcess(), app.toAppIdentifier());
 
         UserMetadata.updateUserMetadata(app.toAppIdentifier(), appStorage,
                 epUser.getSupertokensUserId(), new JsonObject());
@@ -23,12 +23,14 @@ import io.supertokens.pluginInterface.KeyValueInfo;
 import io.supertokens.pluginInterface.STORAGE_TYPE;
 import io.supertokens.pluginInterface.exceptions.StorageQueryException;
 import io.supertokens.pluginInterface.exceptions.StorageTransactionLogicException;
+import io.supertokens.pluginInterface.jwt.JWTAsymmetricSigningKeyInfo;
 import io.supertokens.pluginInterface.jwt.JWTSigningKeyInfo;
 import io.supertokens.pluginInterface.multitenancy.AppIdentifier;
 import io.supertokens.pluginInterface.multitenancy.TenantIdentifier;
 import io.supertokens.pluginInterface.multitenancy.exceptions.TenantOrAppNotFoundException;
 import io.supertokens.pluginInterface.session.SessionStorage;
 import io.supertokens.signingkeys.AccessTokenSigningKey;
+import io.supertokens.signingkeys.JWTSigningKey;
 import io.supertokens.signingkeys.SigningKeys;
 import io.supertokens.signingkeys.SigningKeys.KeyInfo;
 import io.supertokens.storageLayer.StorageLayer;
@@ -44,6 +46,7 @@ import org.junit.rules.TestRule;
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.List;
@@ -212,4 +215,31 @@ public class AccessTokenSigningKeyTest {
         process.kill();
         assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
     }
+
+    @Test
+    public void verificationKeysAreCachedUntilKeyCacheIsRefreshed() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+
+        EventAndException e = process.checkOrWaitForEvent(PROCESS_STATE.STARTED);
+        assertNotNull(e);
+
+        SigningKeys signingKeys = SigningKeys.getInstance(process.getProcess());
+        List<JWTSigningKeyInfo> keys = signingKeys.getAllKeys();
+        JWTAsymmetricSigningKeyInfo keyInfo = (JWTAsymmetricSigningKeyInfo) keys.get(0);
+
+        PublicKey first = signingKeys.getVerificationKey(keyInfo);
+        assertSame(first, signingKeys.getVerificationKey(keyInfo));
+        assertEquals(first, io.supertokens.utils.Utils.getPublicKeyFromString(keyInfo.publicKey,
+                JWTSigningKey.SupportedAlgorithms.RS256));
+
+        // refreshing the key cache should also drop the parsed keys
+        signingKeys.updateKeyCacheIfNotChanged(keys);
+        PublicKey afterRefresh = signingKeys.getVerificationKey(keyInfo);
+        assertNotSame(first, afterRefresh);
+        assertEquals(first, afterRefresh);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ *    Copyright (c) 2026, VRAI Labs and/or its affiliates. All rights reserved.
+ *
+ *    This software is licensed under the Apache License, Version 2.0 (the
+ *    "License") as published by the Apache Software Foundation.
+ *
+ *    You may not use this file except in compliance with the License. You may
+ *    obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *    WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *    License for the specific language governing permissions and limitations
+ *    under the License.
+ */
+
+package io.supertokens.test.session;
+
+import com.google.gson.JsonObject;
+import io.supertokens.ProcessState;
+import io.supertokens.exceptions.TryRefreshTokenException;
+import io.supertokens.session.Session;
+import io.supertokens.session.accessToken.AccessTokenVerificationCache;
+import io.supertokens.session.info.SessionInformationHolder;
+import io.supertokens.signingkeys.SigningKeys;
+import io.supertokens.test.TestingProcessManager;
+import io.supertokens.test.Utils;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import static org.junit.Assert.*;
+
+public class AccessTokenVerificationCacheTest {
+
+    @Rule
+    public TestRule watchman = Utils.getOnFailure();
+
+    @Rule
+    public TestRule retryFlaky = Utils.retryFlakyTest();
+
+    @AfterClass
+    public static void afterTesting() {
+        Utils.afterTesting();
+    }
+
+    @Before
+    public void beforeEach() {
+        Utils.reset();
+    }
+
+    private static SessionInformationHolder createSession(TestingProcessManager.TestingProcess process)
+            throws Exception {
+        JsonObject userDataInJWT = new JsonObject();
+        userDataInJWT.addProperty("key", "value");
+        return Session.createNewSession(process.getProcess(), "userId", userDataInJWT, new JsonObject());
+    }
+
+    private static AccessTokenVerificationCache getCache(TestingProcessManager.TestingProcess process)
+            throws Exception {
+        return AccessTokenVerificationCache.getInstance(process.getProcess(),
+                process.getAppForTesting().toAppIdentifier());
+    }
+
+    @Test
+    public void cacheIsNotUsedByDefault() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SessionInformationHolder sessionInfo = createSession(process);
+        for (int i = 0; i < 3; i++) {
+            Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, false);
+        }
+
+        assertEquals(0, getCache(process).getHits());
+        assertEquals(0, getCache(process).getMisses());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void repeatedVerificationsAreServedFromTheCache() throws Exception {
+        Utils.setValueInConfig("access_token_verification_cache_size", "100");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SessionInformationHolder sessionInfo = createSession(process);
+
+        SessionInformationHolder first = Session.getSession(process.getProcess(), sessionInfo.accessToken.token,
+                null, false, false, false);
+        assertEquals(0, getCache(process).getHits());
+        assertEquals(1, getCache(process).getMisses());
+
+        SessionInformationHolder second = Session.getSession(process.getProcess(), sessionInfo.accessToken.token,
+                null, false, false, false);
+        assertEquals(1, getCache(process).getHits());
+        assertEquals(1, getCache(process).getMisses());
+
+        assertEquals(first.session.handle, second.session.handle);
+        assertEquals(first.session.userId, second.session.userId);
+        assertEquals(first.session.userDataInJWT, second.session.userDataInJWT);
+        // the cached payload must not be shared with the callers
+        assertNotSame(first.session.userDataInJWT, second.session.userDataInJWT);
+
+        // checking the db skips the cache
+        Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, true);
+        assertEquals(1, getCache(process).getHits());
+        assertEquals(1, getCache(process).getMisses());
+
+        // a token with a tampered payload but a valid signature must not be served from the cache
+        String[] parts = sessionInfo.accessToken.token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "e30." + parts[2];
+        try {
+            Session.getSession(process.getProcess(), tampered, null, false, false, false);
+            fail();
+        } catch (TryRefreshTokenException ignored) {
+        }
+        assertEquals(1, getCache(process).getHits());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void cachedResultsAreDroppedWhenSigningKeysAreRefreshed() throws Exception {
+        Utils.setValueInConfig("access_token_verification_cache_size", "100");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SessionInformationHolder sessionInfo = createSession(process);
+
+        Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, false);
+        Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, false);
+        assertEquals(1, getCache(process).getHits());
+        assertEquals(1, getCache(process).getMisses());
+
+        SigningKeys signingKeys = SigningKeys.getInstance(process.getProcess());
+        signingKeys.updateKeyCacheIfNotChanged(signingKeys.getAllKeys());
+
+        Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, false);
+        assertEquals(1, getCache(process).getHits());
+        assertEquals(2, getCache(process).getMisses());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void expiredTokensAreNotServedFromTheCache() throws Exception {
+        Utils.setValueInConfig("access_token_verification_cache_size", "100");
+        Utils.setValueInConfig("access_token_validity", "1");
+
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        SessionInformationHolder sessionInfo = createSession(process);
+        Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, false);
+
+        Thread.sleep(2000);
+
+        try {
+            Session.getSession(process.getProcess(), sessionInfo.accessToken.token, null, false, false, false);
+            fail();
+        } catch (TryRefreshTokenException e) {
+            assertEquals("Access token expired", e.getMessage());
+        }
+        assertEquals(0, getCache(process).getHits());
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+}
@@ -16,6 +16,7 @@
 
 package io.supertokens.test.session;
 
+import com.google.gson.JsonObject;
 import io.supertokens.ProcessState.PROCESS_STATE;
 import io.supertokens.config.Config;
 import io.supertokens.exceptions.UnauthorisedException;
@@ -25,6 +26,8 @@ import io.supertokens.session.info.TokenInfo;
 import io.supertokens.session.refreshToken.RefreshToken;
 import io.supertokens.session.refreshToken.RefreshToken.RefreshTokenInfo;
 import io.supertokens.session.refreshToken.RefreshToken.TYPE;
+import io.supertokens.session.refreshToken.RefreshTokenKey;
+import io.supertokens.test.Benchmark;
 import io.supertokens.test.TestingProcessManager;
 import io.supertokens.test.TestingProcessManager.TestingProcess;
 import io.supertokens.test.Utils;
@@ -33,16 +36,22 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 import org.junit.rules.TestRule;
 
 import javax.crypto.AEADBadTagException;
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -93,14 +102,34 @@ public class RefreshTokenTest {
         fail();
     }
 
+    @Test
+    public void encryptAndDecryptWorksWithSameDerivedKey() throws Exception {
+        SecretKey key = new SecretKeySpec(io.supertokens.utils.Utils.pbkdf2("masterKey".toCharArray(),
+                "salt".getBytes(StandardCharsets.UTF_8), 100, 32 * 8), "AES");
+        String message = "I am to be encrypted and then decrypted";
+        String enc = io.supertokens.utils.Utils.encrypt(message, key);
+        assertNotEquals(enc, io.supertokens.utils.Utils.encrypt(message, key));
+        assertEquals(message, io.supertokens.utils.Utils.decrypt(enc, key));
+
+        SecretKey otherKey = new SecretKeySpec(io.supertokens.utils.Utils.pbkdf2("masterKey2".toCharArray(),
+                "salt".getBytes(StandardCharsets.UTF_8), 100, 32 * 8), "AES");
+        try {
+            io.supertokens.utils.Utils.decrypt(enc, otherKey);
+            fail();
+        } catch (AEADBadTagException ignored) {
+        }
+    }
+
     @Test
     public void freePaidVersionTest() {
         assertEquals("V0", TYPE.FREE.toString());
         assertEquals("V1", TYPE.PAID.toString());
         assertEquals("V2", TYPE.FREE_OPTIMISED.toString());
+        assertEquals("V3", TYPE.FREE_OPTIMISED_DERIVED_KEY.toString());
         assertSame(TYPE.fromString("V0"), TYPE.FREE);
         assertSame(TYPE.fromString("V1"), TYPE.PAID);
         assertSame(TYPE.fromString("V2"), TYPE.FREE_OPTIMISED);
+        assertSame(TYPE.fromString("V3"), TYPE.FREE_OPTIMISED_DERIVED_KEY);
         assertNull(TYPE.fromString("random"));
     }
 
@@ -171,4 +200,136 @@ public class RefreshTokenTest {
         fail();
     }
 
+    @Test
+    public void newRefreshTokensAreV2UnlessTheDerivedKeyIsEnabled() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        TokenInfo tokenInfo = RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle", "userId",
+                null, null);
+        assertTrue(tokenInfo.token.endsWith(".V2"));
+        assertSame(TYPE.FREE_OPTIMISED,
+                RefreshToken.getInfoFromRefreshToken(process.getProcess(), tokenInfo.token).type);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+
+        Utils.reset();
+        Utils.setValueInConfig("refresh_token_use_derived_key", "true");
+        process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        tokenInfo = RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle", "userId", null, null);
+        assertTrue(tokenInfo.token.endsWith(".V3"));
+        assertSame(TYPE.FREE_OPTIMISED_DERIVED_KEY,
+                RefreshToken.getInfoFromRefreshToken(process.getProcess(), tokenInfo.token).type);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void oldV2RefreshTokensCanStillBeRead() throws Exception {
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        // this is how V2 tokens were created before V3 was added
+        String key = RefreshTokenKey.getInstance(process.getProcess()).getKey();
+        String nonce = io.supertokens.utils.Utils.hashSHA256("nonce");
+        JsonObject payload = new JsonObject();
+        payload.addProperty("sessionHandle", "sessionHandle");
+        payload.addProperty("userId", "userId");
+        payload.addProperty("parentRefreshTokenHash1", "parentRefreshTokenHash1");
+        payload.addProperty("nonce", nonce);
+        payload.addProperty("antiCsrfToken", "antiCsrfToken");
+        String token = io.supertokens.utils.Utils.encrypt(payload.toString(), key) + "." + nonce + ".V2";
+
+        RefreshTokenInfo infoFromToken = RefreshToken.getInfoFromRefreshToken(process.getProcess(), token);
+        assertEquals("parentRefreshTokenHash1", infoFromToken.parentRefreshTokenHash1);
+        assertEquals("userId", infoFromToken.userId);
+        assertEquals("sessionHandle", infoFromToken.sessionHandle);
+        assertEquals("antiCsrfToken", infoFromToken.antiCsrfToken);
+        assertSame(infoFromToken.type, TYPE.FREE_OPTIMISED);
+
+        // a V2 token cannot be passed off as a V3 token
+        try {
+            RefreshToken.getInfoFromRefreshToken(process.getProcess(),
+                    token.substring(0, token.length() - 2) + "V3");
+            fail();
+        } catch (UnauthorisedException ignored) {
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void refreshTokensCreatedWithTheCachedDerivedKeyCanBeReadBack() throws Exception {
+        Utils.setValueInConfig("refresh_token_use_derived_key", "true");
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            TokenInfo tokenInfo = RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle" + i,
+                    "userId" + i, null, null);
+            assertTrue(tokens.add(tokenInfo.token));
+
+            RefreshTokenInfo infoFromToken = RefreshToken.getInfoFromRefreshToken(process.getProcess(),
+                    tokenInfo.token);
+            assertSame(TYPE.FREE_OPTIMISED_DERIVED_KEY, infoFromToken.type);
+            assertEquals("sessionHandle" + i, infoFromToken.sessionHandle);
+            assertEquals("userId" + i, infoFromToken.userId);
+            assertNull(infoFromToken.parentRefreshTokenHash1);
+            assertNull(infoFromToken.antiCsrfToken);
+        }
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void createAndReadRefreshTokenBenchmark() throws Exception {
+        long perTokenKeyDerivation = timeCreatingAndReadingRefreshTokens(false);
+        long cachedKeyDerivation = timeCreatingAndReadingRefreshTokens(true);
+
+        System.out.println("Refresh token create + read. V2 (key derived per token): "
+                + (perTokenKeyDerivation / 1000) + "us, V3 (cached derived key): " + (cachedKeyDerivation / 1000)
+                + "us");
+    }
+
+    // returns the average time it takes to create a refresh token and read it back, in nanoseconds
+    private static long timeCreatingAndReadingRefreshTokens(boolean useDerivedKey) throws Exception {
+        Utils.reset();
+        Utils.setValueInConfig("refresh_token_use_derived_key", String.valueOf(useDerivedKey));
+
+        String[] args = {"../"};
+        TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STARTED));
+
+        int iterations = 2000;
+        // warm up
+        createAndReadRefreshTokens(process, 200);
+
+        long start = System.nanoTime();
+        createAndReadRefreshTokens(process, iterations);
+        long time = (System.nanoTime() - start) / iterations;
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(PROCESS_STATE.STOPPED));
+        return time;
+    }
+
+    private static void createAndReadRefreshTokens(TestingProcess process, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            RefreshToken.getInfoFromRefreshToken(process.getProcess(),
+                    RefreshToken.createNewRefreshToken(process.getProcess(), "sessionHandle", "userId", null,
+                            null).token);
+        }
+    }
 }
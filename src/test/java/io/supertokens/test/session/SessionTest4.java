@@ -31,6 +31,8 @@ import io.supertokens.test.Utils;
 import org.junit.*;
 import org.junit.rules.TestRule;
 
+import java.util.Arrays;
+
 import static junit.framework.TestCase.*;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
@@ -121,6 +123,79 @@ public class SessionTest4 {
 
     }
 
+    @Test
+    public void revokingAMixOfValidAndInvalidHandlesReturnsOnlyTheRevokedOnes() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        JsonObject userDataInJWT = new JsonObject();
+        JsonObject userDataInDatabase = new JsonObject();
+
+        SessionInformationHolder sessionInfo = Session.createNewSession(process.getProcess(), "userId",
+                userDataInJWT, userDataInDatabase);
+        SessionInformationHolder sessionInfo2 = Session.createNewSession(process.getProcess(), "userId",
+                userDataInJWT, userDataInDatabase);
+        SessionInformationHolder alreadyRevoked = Session.createNewSession(process.getProcess(), "userId",
+                userDataInJWT, userDataInDatabase);
+        Session.revokeSessionUsingSessionHandles(process.getProcess(), new String[]{alreadyRevoked.session.handle});
+
+        String[] actuallyRevoked = Session.revokeSessionUsingSessionHandles(process.getProcess(), new String[]{
+                sessionInfo.session.handle, "nonExistentHandle", alreadyRevoked.session.handle,
+                sessionInfo2.session.handle});
+        Arrays.sort(actuallyRevoked);
+        String[] expected = {sessionInfo.session.handle, sessionInfo2.session.handle};
+        Arrays.sort(expected);
+        assertTrue(Arrays.equals(expected, actuallyRevoked));
+
+        assertEquals(((SessionStorage) StorageLayer.getStorage(process.getProcess()))
+                .getNumberOfSessions(process.getAppForTesting()), 0);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
+    @Test
+    public void revokingMoreHandlesThanTheQueryParameterLimitRevokesAllOfThem() throws Exception {
+        String[] args = {"../"};
+        TestingProcessManager.TestingProcess process = TestingProcessManager.startIsolatedProcess(args);
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STARTED));
+
+        if (!StorageLayer.isInMemDb(process.getProcess())) {
+            process.kill();
+            assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+            return;
+        }
+
+        JsonObject userDataInJWT = new JsonObject();
+        JsonObject userDataInDatabase = new JsonObject();
+
+        SessionInformationHolder sessionInfo = Session.createNewSession(process.getProcess(), "userId",
+                userDataInJWT, userDataInDatabase);
+        SessionInformationHolder sessionInfo2 = Session.createNewSession(process.getProcess(), "userId",
+                userDataInJWT, userDataInDatabase);
+
+        // more handles than SQLite allows parameters in one query
+        String[] handles = new String[40000];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = "nonExistentHandle" + i;
+        }
+        handles[0] = sessionInfo.session.handle;
+        handles[handles.length - 1] = sessionInfo2.session.handle;
+
+        String[] actuallyRevoked = Session.revokeSessionUsingSessionHandles(process.getProcess(), handles);
+        Arrays.sort(actuallyRevoked);
+        String[] expected = {sessionInfo.session.handle, sessionInfo2.session.handle};
+        Arrays.sort(expected);
+        assertTrue(Arrays.equals(expected, actuallyRevoked));
+
+        assertEquals(((SessionStorage) StorageLayer.getStorage(process.getProcess()))
+                .getNumberOfSessions(process.getAppForTesting()), 0);
+
+        process.kill();
+        assertNotNull(process.checkOrWaitForEvent(ProcessState.PROCESS_STATE.STOPPED));
+    }
+
     @Test
     public void gettingAndUpdatingSessionDataForNonExistantSession() throws Exception {
 
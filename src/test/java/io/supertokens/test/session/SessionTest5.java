@@ -18,12 +18,17 @@ package io.supertokens.test.session;
 
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import io.supertokens.ProcessState;
 import io.supertokens.config.Config;
 import io.supertokens.session.Session;
 import io.supertokens.session.accessToken.AccessToken;
+import io.supertokens.session.info.SessionInfo;
 import io.supertokens.session.info.SessionInformationHolder;
+import io.supertokens.session.info.TokenInfo;
 import io.supertokens.session.jwt.JWT;
 import io.supertokens.signingkeys.AccessTokenSigningKey;
 import io.supertokens.signingkeys.SigningKeys;
@@ -57,6 +62,33 @@ public class SessionTest5 {
         Utils.reset();
     }
 
+    @Test
+    public void sessionInformationJsonIsTheSameAsWithReflection() {
+        JsonObject userDataInJWT = new JsonObject();
+        userDataInJWT.addProperty("key", "<value>");
+        userDataInJWT.add("nullKey", JsonNull.INSTANCE);
+
+        SessionInformationHolder[] holders = new SessionInformationHolder[]{
+                new SessionInformationHolder(
+                        new SessionInfo("handle", "userId", "recipeUserId", userDataInJWT, "public"),
+                        new TokenInfo("accessToken", 100, 10), new TokenInfo("refreshToken", 200, 20),
+                        new TokenInfo(null, 300, 30), "antiCsrf"),
+                new SessionInformationHolder(
+                        new SessionInfo("handle", "userId", "recipeUserId", new JsonObject(), "t1"),
+                        null, null, null, null)
+        };
+
+        for (SessionInformationHolder holder : holders) {
+            // what toJsonObject used to do
+            JsonObject expected = new Gson().toJsonTree(holder).getAsJsonObject();
+            expected.add("session", new GsonBuilder().serializeNulls().create().toJsonTree(holder.session));
+
+            JsonObject actual = holder.toJsonObject();
+            assertEquals(expected, actual);
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
     @Test
     public void checkCreateV2TokenEncoding() throws Exception {
 